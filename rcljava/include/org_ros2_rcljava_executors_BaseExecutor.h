@@ -49,20 +49,49 @@ JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeDisposeWaitSet(JNIEnv
 
 /*
  * Class:     org_ros2_rcljava_executors_BaseExecutor
- * Method:    nativeWaitSetClear
+ * Method:    nativeWaitSetResize
+ * Signature: (JIIIIII)V
+ */
+JNIEXPORT void
+JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetResize(
+  JNIEnv *, jclass, jlong, jint, jint, jint, jint, jint, jint);
+
+/*
+ * Class:     org_ros2_rcljava_executors_BaseExecutor
+ * Method:    nativeWaitSetFill
+ * Signature: (J[J[J[J[J[J[J)V
+ */
+JNIEXPORT void
+JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetFill(
+  JNIEnv *, jclass, jlong, jlongArray, jlongArray, jlongArray, jlongArray, jlongArray,
+  jlongArray);
+
+/*
+ * Class:     org_ros2_rcljava_executors_BaseExecutor
+ * Method:    nativeCreateGuardCondition
+ * Signature: (J)J
+ */
+JNIEXPORT jlong
+JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeCreateGuardCondition(
+  JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     org_ros2_rcljava_executors_BaseExecutor
+ * Method:    nativeTriggerGuardCondition
  * Signature: (J)V
  */
 JNIEXPORT void
-JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetClear(JNIEnv *, jclass, jlong);
+JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeTriggerGuardCondition(
+  JNIEnv *, jclass, jlong);
 
 /*
  * Class:     org_ros2_rcljava_executors_BaseExecutor
- * Method:    nativeWaitSetAddSubscription
- * Signature: (JJ)V
+ * Method:    nativeDisposeGuardCondition
+ * Signature: (J)V
  */
 JNIEXPORT void
-JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetAddSubscription(
-  JNIEnv *, jclass, jlong, jlong);
+JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeDisposeGuardCondition(
+  JNIEnv *, jclass, jlong);
 
 /*
  * Class:     org_ros2_rcljava_executors_BaseExecutor
@@ -75,27 +104,28 @@ JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWait(JNIEnv *, jclass
 /*
  * Class:     org_ros2_rcljava_executors_BaseExecutor
  * Method:    nativeTake
- * Signature: (JLjava/lang/Class;)Lorg/ros2/rcljava/interfaces/MessageDefinition;
+ * Signature: (JJJJLorg/ros2/rcljava/interfaces/MessageDefinition;Lorg/ros2/rcljava/interfaces/MessageDefinition;)Lorg/ros2/rcljava/interfaces/MessageDefinition;
  */
 JNIEXPORT jobject
-JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeTake(JNIEnv *, jclass, jlong, jclass);
+JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeTake(
+  JNIEnv *, jclass, jlong, jlong, jlong, jlong, jobject, jobject);
 
 /*
  * Class:     org_ros2_rcljava_executors_BaseExecutor
- * Method:    nativeWaitSetAddService
- * Signature: (JJ)V
+ * Method:    nativeTakeBatch
+ * Signature: (JJJJLorg/ros2/rcljava/interfaces/MessageDefinition;[Lorg/ros2/rcljava/interfaces/MessageDefinition;)I
  */
-JNIEXPORT void
-JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetAddService(
-  JNIEnv *, jclass, jlong, jlong);
+JNIEXPORT jint
+JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeTakeBatch(
+  JNIEnv *, jclass, jlong, jlong, jlong, jlong, jobject, jobjectArray);
 
 /*
  * Class:     org_ros2_rcljava_executors_BaseExecutor
- * Method:    nativeWaitSetAddClient
- * Signature: (JJ)V
+ * Method:    nativeTakeSerialized
+ * Signature: (JJ)J
  */
-JNIEXPORT void
-JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetAddClient(
+JNIEXPORT jlong
+JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeTakeSerialized(
   JNIEnv *, jclass, jlong, jlong);
 
 /*
@@ -107,15 +137,6 @@ JNIEXPORT jobject
 JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeTakeRequest(
   JNIEnv *, jclass, jlong, jlong, jlong, jlong, jobject);
 
-/*
- * Class:     org_ros2_rcljava_executors_BaseExecutor
- * Method:    nativeSendServiceResponse
- * Signature: (JLorg/ros2/rcljava/RMWRequestId;JJJLorg/ros2/rcljava/interfaces/MessageDefinition;)V
- */
-JNIEXPORT void
-JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeSendServiceResponse(
-  JNIEnv *, jclass, jlong, jobject, jlong, jlong, jlong, jobject);
-
 /*
  * Class:     org_ros2_rcljava_executors_BaseExecutor
  * Method:    nativeTakeResponse
@@ -127,66 +148,12 @@ JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeTakeResponse(
 
 /*
  * Class:     org_ros2_rcljava_executors_BaseExecutor
- * Method:    nativeWaitSetAddTimer
- * Signature: (JJ)V
+ * Method:    nativeWaitSetGetReadiness
+ * Signature: (JLjava/nio/ByteBuffer;)V
  */
 JNIEXPORT void
-JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetAddTimer(
-  JNIEnv *, jclass, jlong, jlong);
-
-/*
- * Class:     org_ros2_rcljava_executors_BaseExecutor
- * Method:    nativeWaitSetAddEvent
- * Signature: (JJ)V
- */
-JNIEXPORT void
-JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetAddEvent(
-  JNIEnv *, jclass, jlong, jlong);
-
-/*
- * Class:     org_ros2_rcljava_executors_BaseExecutor
- * Method:    nativeWaitSetSubscriptionIsReady
- * Signature: (JJ)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetSubscriptionIsReady(
-  JNIEnv *, jclass, jlong, jlong);
-
-/*
- * Class:     org_ros2_rcljava_executors_BaseExecutor
- * Method:    nativeWaitSetTimerIsReady
- * Signature: (JJ)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetTimerIsReady(
-  JNIEnv *, jclass, jlong, jlong);
-
-/*
- * Class:     org_ros2_rcljava_executors_BaseExecutor
- * Method:    nativeWaitSetEventIsReady
- * Signature: (JJ)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetEventIsReady(
-  JNIEnv *, jclass, jlong, jlong);
-
-/*
- * Class:     org_ros2_rcljava_executors_BaseExecutor
- * Method:    nativeWaitSetServiceIsReady
- * Signature: (JJ)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetServiceIsReady(
-  JNIEnv *, jclass, jlong, jlong);
-
-/*
- * Class:     org_ros2_rcljava_executors_BaseExecutor
- * Method:    nativeWaitSetClientIsReady
- * Signature: (JJ)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetClientIsReady(
-  JNIEnv *, jclass, jlong, jlong);
+JNICALL Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetGetReadiness(
+  JNIEnv *, jclass, jlong, jobject);
 
 #ifdef __cplusplus
 }
@@ -0,0 +1,79 @@
+// Copyright 2020 Open Source Robotics Foundation, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+#include <jni.h>
+/* Header for class org_ros2_rcljava_graph_GraphListener */
+
+#ifndef ORG_ROS2_RCLJAVA_GRAPH_GRAPHLISTENER_H_
+#define ORG_ROS2_RCLJAVA_GRAPH_GRAPHLISTENER_H_
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     org_ros2_rcljava_graph_GraphListener
+ * Method:    nativeCreateWaitSet
+ * Signature: (JI)J
+ */
+JNIEXPORT jlong
+JNICALL Java_org_ros2_rcljava_graph_GraphListener_nativeCreateWaitSet(
+  JNIEnv *, jclass, jlong, jint);
+
+/*
+ * Class:     org_ros2_rcljava_graph_GraphListener
+ * Method:    nativeDisposeWaitSet
+ * Signature: (J)V
+ */
+JNIEXPORT void
+JNICALL Java_org_ros2_rcljava_graph_GraphListener_nativeDisposeWaitSet(JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     org_ros2_rcljava_graph_GraphListener
+ * Method:    nativeCreateGuardCondition
+ * Signature: (J)J
+ */
+JNIEXPORT jlong
+JNICALL Java_org_ros2_rcljava_graph_GraphListener_nativeCreateGuardCondition(
+  JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     org_ros2_rcljava_graph_GraphListener
+ * Method:    nativeTriggerGuardCondition
+ * Signature: (J)V
+ */
+JNIEXPORT void
+JNICALL Java_org_ros2_rcljava_graph_GraphListener_nativeTriggerGuardCondition(
+  JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     org_ros2_rcljava_graph_GraphListener
+ * Method:    nativeDisposeGuardCondition
+ * Signature: (J)V
+ */
+JNIEXPORT void
+JNICALL Java_org_ros2_rcljava_graph_GraphListener_nativeDisposeGuardCondition(
+  JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     org_ros2_rcljava_graph_GraphListener
+ * Method:    nativeWait
+ * Signature: (JJ[JJ)Z
+ */
+JNIEXPORT jboolean
+JNICALL Java_org_ros2_rcljava_graph_GraphListener_nativeWait(
+  JNIEnv *, jclass, jlong, jlong, jlongArray, jlong);
+
+#ifdef __cplusplus
+}
+#endif
+#endif  // ORG_ROS2_RCLJAVA_GRAPH_GRAPHLISTENER_H_
@@ -23,11 +23,65 @@ extern "C" {
 /*
  * Class:     org_ros2_rcljava_publisher_PublisherImpl
  * Method:    nativePublish
- * Signature: (JJLorg/ros2/rcljava/interfaces/MessageDefinition;)V
+ * Signature: (JJJJZLorg/ros2/rcljava/interfaces/MessageDefinition;)J
  */
-JNIEXPORT void
+JNIEXPORT jlong
 JNICALL Java_org_ros2_rcljava_publisher_PublisherImpl_nativePublish(
-  JNIEnv *, jclass, jlong, jlong, jobject);
+  JNIEnv *, jclass, jlong, jlong, jlong, jlong, jboolean, jobject);
+
+/*
+ * Class:     org_ros2_rcljava_publisher_PublisherImpl
+ * Method:    nativeDestroyMessage
+ * Signature: (JJ)V
+ */
+JNIEXPORT void
+JNICALL Java_org_ros2_rcljava_publisher_PublisherImpl_nativeDestroyMessage(
+  JNIEnv *, jclass, jlong, jlong);
+
+/*
+ * Class:     org_ros2_rcljava_publisher_PublisherImpl
+ * Method:    nativePublishSerialized
+ * Signature: (JLjava/nio/ByteBuffer;II)V
+ */
+JNIEXPORT void
+JNICALL Java_org_ros2_rcljava_publisher_PublisherImpl_nativePublishSerialized(
+  JNIEnv *, jclass, jlong, jobject, jint, jint);
+
+/*
+ * Class:     org_ros2_rcljava_publisher_PublisherImpl
+ * Method:    nativeCanLoanMessages
+ * Signature: (J)Z
+ */
+JNIEXPORT jboolean
+JNICALL Java_org_ros2_rcljava_publisher_PublisherImpl_nativeCanLoanMessages(
+  JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     org_ros2_rcljava_publisher_PublisherImpl
+ * Method:    nativeBorrowLoanedMessage
+ * Signature: (JJ)J
+ */
+JNIEXPORT jlong
+JNICALL Java_org_ros2_rcljava_publisher_PublisherImpl_nativeBorrowLoanedMessage(
+  JNIEnv *, jclass, jlong, jlong);
+
+/*
+ * Class:     org_ros2_rcljava_publisher_PublisherImpl
+ * Method:    nativePublishLoanedMessage
+ * Signature: (JJJLorg/ros2/rcljava/interfaces/MessageDefinition;)V
+ */
+JNIEXPORT void
+JNICALL Java_org_ros2_rcljava_publisher_PublisherImpl_nativePublishLoanedMessage(
+  JNIEnv *, jclass, jlong, jlong, jlong, jobject);
+
+/*
+ * Class:     org_ros2_rcljava_publisher_PublisherImpl
+ * Method:    nativeReturnLoanedMessage
+ * Signature: (JJ)V
+ */
+JNIEXPORT void
+JNICALL Java_org_ros2_rcljava_publisher_PublisherImpl_nativeReturnLoanedMessage(
+  JNIEnv *, jclass, jlong, jlong);
 
 /*
  * Class:     org_ros2_rcljava_publisher_PublisherImpl
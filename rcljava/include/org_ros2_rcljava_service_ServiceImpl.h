@@ -28,6 +28,15 @@ extern "C" {
 JNIEXPORT void
 JNICALL Java_org_ros2_rcljava_service_ServiceImpl_nativeDispose(JNIEnv *, jclass, jlong, jlong);
 
+/*
+ * Class:     org_ros2_rcljava_service_ServiceImpl
+ * Method:    nativeSendResponse
+ * Signature: (JJ[BJJLorg/ros2/rcljava/interfaces/MessageDefinition;)V
+ */
+JNIEXPORT void
+JNICALL Java_org_ros2_rcljava_service_ServiceImpl_nativeSendResponse(
+  JNIEnv *, jclass, jlong, jlong, jbyteArray, jlong, jlong, jobject);
+
 #ifdef __cplusplus
 }
 #endif
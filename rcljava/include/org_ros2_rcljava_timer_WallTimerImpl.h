@@ -29,22 +29,6 @@ extern "C" {
 JNIEXPORT void
 JNICALL Java_org_ros2_rcljava_timer_WallTimerImpl_nativeDispose(JNIEnv *, jclass, jlong);
 
-/*
- * Class:     org_ros2_rcljava_timer_WallTimerImpl
- * Method:    nativeIsReady
- * Signature: (J)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_org_ros2_rcljava_timer_WallTimerImpl_nativeIsReady(JNIEnv *, jclass, jlong);
-
-/*
- * Class:     org_ros2_rcljava_timer_WallTimerImpl
- * Method:    nativeIsCanceled
- * Signature: (J)Z
- */
-JNIEXPORT jboolean
-JNICALL Java_org_ros2_rcljava_timer_WallTimerImpl_nativeIsCanceled(JNIEnv *, jclass, jlong);
-
 /*
  * Class:     org_ros2_rcljava_timer_WallTimerImpl
  * Method:    nativeReset
@@ -61,30 +45,6 @@ JNICALL Java_org_ros2_rcljava_timer_WallTimerImpl_nativeReset(JNIEnv *, jclass,
 JNIEXPORT void
 JNICALL Java_org_ros2_rcljava_timer_WallTimerImpl_nativeCancel(JNIEnv *, jclass, jlong);
 
-/*
- * Class:     org_ros2_rcljava_timer_WallTimerImpl
- * Method:    nativeTimeUntilNextCall
- * Signature: (J)J
- */
-JNIEXPORT jlong
-JNICALL Java_org_ros2_rcljava_timer_WallTimerImpl_nativeTimeUntilNextCall(JNIEnv *, jclass, jlong);
-
-/*
- * Class:     org_ros2_rcljava_timer_WallTimerImpl
- * Method:    nativeTimeSinceLastCall
- * Signature: (J)J
- */
-JNIEXPORT jlong
-JNICALL Java_org_ros2_rcljava_timer_WallTimerImpl_nativeTimeSinceLastCall(JNIEnv *, jclass, jlong);
-
-/*
- * Class:     org_ros2_rcljava_timer_WallTimerImpl
- * Method:    nativeGetTimerPeriodNS
- * Signature: (J)J
- */
-JNIEXPORT jlong
-JNICALL Java_org_ros2_rcljava_timer_WallTimerImpl_nativeGetTimerPeriodNS(JNIEnv *, jclass, jlong);
-
 /*
  * Class:     org_ros2_rcljava_timer_WallTimerImpl
  * Method:    nativeSetTimerPeriodNS
@@ -94,14 +54,6 @@ JNIEXPORT void
 JNICALL Java_org_ros2_rcljava_timer_WallTimerImpl_nativeSetTimerPeriodNS(
   JNIEnv *, jclass, jlong, jlong);
 
-/*
- * Class:     org_ros2_rcljava_timer_WallTimerImpl
- * Method:    nativeCallTimer
- * Signature: (J)Z
- */
-JNIEXPORT void
-JNICALL Java_org_ros2_rcljava_timer_WallTimerImpl_nativeCallTimer(JNIEnv *, jclass, jlong);
-
 #ifdef __cplusplus
 }
 #endif
@@ -19,6 +19,7 @@
 #include <string>
 
 #include "rcl/error_handling.h"
+#include "rcl/guard_condition.h"
 #include "rcl/node.h"
 #include "rcl/rcl.h"
 #include "rcl/timer.h"
@@ -66,33 +67,6 @@ convert_rmw_request_id_to_java(JNIEnv * env, rmw_request_id_t * request_id)
   return jrequest_id;
 }
 
-rmw_request_id_t *
-convert_rmw_request_id_from_java(JNIEnv * env, jobject jrequest_id)
-{
-  assert(jrequest_id != nullptr);
-
-  jclass jrequest_id_class = env->GetObjectClass(jrequest_id);
-  assert(jrequest_id_class != nullptr);
-
-  jfieldID jsequence_number_field_id = env->GetFieldID(jrequest_id_class, "sequenceNumber", "J");
-  jfieldID jwriter_guid_field_id = env->GetFieldID(jrequest_id_class, "writerGUID", "[B");
-
-  assert(jsequence_number_field_id != nullptr);
-  assert(jwriter_guid_field_id != nullptr);
-
-  rmw_request_id_t * request_id = static_cast<rmw_request_id_t *>(malloc(sizeof(rmw_request_id_t)));
-
-  int8_t * writer_guid = request_id->writer_guid;
-  request_id->sequence_number = env->GetLongField(jrequest_id, jsequence_number_field_id);
-
-  jsize writer_guid_len = 16;  // See rmw/rmw/include/rmw/types.h
-
-  jbyteArray jwriter_guid = (jbyteArray)env->GetObjectField(jrequest_id, jwriter_guid_field_id);
-  env->GetByteArrayRegion(jwriter_guid, 0, writer_guid_len, reinterpret_cast<jbyte *>(writer_guid));
-
-  return request_id;
-}
-
 JNIEXPORT jlong JNICALL
 Java_org_ros2_rcljava_executors_BaseExecutor_nativeGetZeroInitializedWaitSet(JNIEnv *, jclass)
 {
@@ -128,37 +102,163 @@ Java_org_ros2_rcljava_executors_BaseExecutor_nativeDisposeWaitSet(
   rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
 
   rcl_ret_t ret = rcl_wait_set_fini(wait_set);
+  free(wait_set);
   if (ret != RCL_RET_OK) {
-    std::string msg = "Failed to destroy timer: " + std::string(rcl_get_error_string().str);
+    std::string msg = "Failed to destroy wait set: " + std::string(rcl_get_error_string().str);
     rcl_reset_error();
     rcljava_throw_rclexception(env, ret, msg);
   }
 }
 
 JNIEXPORT void JNICALL
-Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetClear(
-  JNIEnv * env, jclass, jlong wait_set_handle)
+Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetResize(
+  JNIEnv * env, jclass, jlong wait_set_handle, jint number_of_subscriptions,
+  jint number_of_guard_conditions, jint number_of_timers, jint number_of_clients,
+  jint number_of_services, jint number_of_events)
+{
+  rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
+
+  rcl_ret_t ret = rcl_wait_set_resize(
+    wait_set, number_of_subscriptions, number_of_guard_conditions, number_of_timers,
+    number_of_clients, number_of_services, number_of_events);
+  if (ret != RCL_RET_OK) {
+    std::string msg = "Failed to resize wait set: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+  }
+}
+
+template<typename EntityT, typename AddFunctionT>
+static bool
+wait_set_add_entities(
+  JNIEnv * env, rcl_wait_set_t * wait_set, jlongArray jhandles, AddFunctionT add_function,
+  const char * entity_name)
+{
+  jsize count = env->GetArrayLength(jhandles);
+  if (count == 0) {
+    return true;
+  }
+
+  jlong * handles = static_cast<jlong *>(env->GetPrimitiveArrayCritical(jhandles, nullptr));
+  if (handles == nullptr) {
+    return false;
+  }
+
+  rcl_ret_t ret = RCL_RET_OK;
+  for (jsize i = 0; i < count && ret == RCL_RET_OK; ++i) {
+    ret = add_function(wait_set, reinterpret_cast<EntityT *>(handles[i]), nullptr);
+  }
+  env->ReleasePrimitiveArrayCritical(jhandles, handles, JNI_ABORT);
+
+  if (ret != RCL_RET_OK) {
+    std::string msg = "Failed to add " + std::string(entity_name) + " to wait set: " +
+      std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+    return false;
+  }
+  return true;
+}
+
+JNIEXPORT void JNICALL
+Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetFill(
+  JNIEnv * env, jclass, jlong wait_set_handle, jlongArray jsubscription_handles,
+  jlongArray jguard_condition_handles, jlongArray jtimer_handles, jlongArray jclient_handles,
+  jlongArray jservice_handles, jlongArray jevent_handles)
 {
   rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
+
   rcl_ret_t ret = rcl_wait_set_clear(wait_set);
   if (ret != RCL_RET_OK) {
+    std::string msg = "Failed to clear wait set: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+    return;
+  }
+
+  if (!wait_set_add_entities<const rcl_subscription_t>(
+      env, wait_set, jsubscription_handles, rcl_wait_set_add_subscription, "subscription"))
+  {
+    return;
+  }
+  if (!wait_set_add_entities<const rcl_guard_condition_t>(
+      env, wait_set, jguard_condition_handles, rcl_wait_set_add_guard_condition,
+      "guard condition"))
+  {
+    return;
+  }
+  if (!wait_set_add_entities<const rcl_timer_t>(
+      env, wait_set, jtimer_handles, rcl_wait_set_add_timer, "timer"))
+  {
+    return;
+  }
+  if (!wait_set_add_entities<const rcl_client_t>(
+      env, wait_set, jclient_handles, rcl_wait_set_add_client, "client"))
+  {
+    return;
+  }
+  if (!wait_set_add_entities<const rcl_service_t>(
+      env, wait_set, jservice_handles, rcl_wait_set_add_service, "service"))
+  {
+    return;
+  }
+  wait_set_add_entities<const rcl_event_t>(
+    env, wait_set, jevent_handles, rcl_wait_set_add_event, "event");
+}
+
+JNIEXPORT jlong JNICALL
+Java_org_ros2_rcljava_executors_BaseExecutor_nativeCreateGuardCondition(
+  JNIEnv * env, jclass, jlong context_handle)
+{
+  rcl_context_t * context = reinterpret_cast<rcl_context_t *>(context_handle);
+
+  rcl_guard_condition_t * guard_condition =
+    static_cast<rcl_guard_condition_t *>(malloc(sizeof(rcl_guard_condition_t)));
+  *guard_condition = rcl_get_zero_initialized_guard_condition();
+
+  rcl_ret_t ret = rcl_guard_condition_init(
+    guard_condition, context, rcl_guard_condition_get_default_options());
+  if (ret != RCL_RET_OK) {
+    free(guard_condition);
     std::string msg =
-      "Failed to clear wait set: " + std::string(rcl_get_error_string().str);
+      "Failed to initialize guard condition: " + std::string(rcl_get_error_string().str);
     rcl_reset_error();
     rcljava_throw_rclexception(env, ret, msg);
+    return 0;
   }
+
+  jlong guard_condition_handle = reinterpret_cast<jlong>(guard_condition);
+  return guard_condition_handle;
 }
 
 JNIEXPORT void JNICALL
-Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetAddSubscription(
-  JNIEnv * env, jclass, jlong wait_set_handle, jlong subscription_handle)
+Java_org_ros2_rcljava_executors_BaseExecutor_nativeTriggerGuardCondition(
+  JNIEnv * env, jclass, jlong guard_condition_handle)
 {
-  rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
-  rcl_subscription_t * subscription = reinterpret_cast<rcl_subscription_t *>(subscription_handle);
-  rcl_ret_t ret = rcl_wait_set_add_subscription(wait_set, subscription, nullptr);
+  rcl_guard_condition_t * guard_condition =
+    reinterpret_cast<rcl_guard_condition_t *>(guard_condition_handle);
+
+  rcl_ret_t ret = rcl_trigger_guard_condition(guard_condition);
   if (ret != RCL_RET_OK) {
     std::string msg =
-      "Failed to add subscription to wait set: " + std::string(rcl_get_error_string().str);
+      "Failed to trigger guard condition: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_org_ros2_rcljava_executors_BaseExecutor_nativeDisposeGuardCondition(
+  JNIEnv * env, jclass, jlong guard_condition_handle)
+{
+  rcl_guard_condition_t * guard_condition =
+    reinterpret_cast<rcl_guard_condition_t *>(guard_condition_handle);
+
+  rcl_ret_t ret = rcl_guard_condition_fini(guard_condition);
+  free(guard_condition);
+  if (ret != RCL_RET_OK) {
+    std::string msg =
+      "Failed to destroy guard condition: " + std::string(rcl_get_error_string().str);
     rcl_reset_error();
     rcljava_throw_rclexception(env, ret, msg);
   }
@@ -179,26 +279,22 @@ Java_org_ros2_rcljava_executors_BaseExecutor_nativeWait(
 
 JNIEXPORT jobject JNICALL
 Java_org_ros2_rcljava_executors_BaseExecutor_nativeTake(
-  JNIEnv * env, jclass, jlong subscription_handle, jclass jmessage_class)
+  JNIEnv * env, jclass, jlong subscription_handle, jlong jfrom_java_converter_handle,
+  jlong jto_java_converter_handle, jlong jdestructor_handle, jobject jmessage_template,
+  jobject jreused_msg)
 {
   rcl_subscription_t * subscription = reinterpret_cast<rcl_subscription_t *>(subscription_handle);
 
-  jmethodID jfrom_mid = env->GetStaticMethodID(jmessage_class, "getFromJavaConverter", "()J");
-  jlong jfrom_java_converter = env->CallStaticLongMethod(jmessage_class, jfrom_mid);
-
-  jmethodID jdestructor_mid = env->GetStaticMethodID(jmessage_class, "getDestructor", "()J");
-  jlong jdestructor_handle = env->CallStaticLongMethod(jmessage_class, jdestructor_mid);
-
   convert_from_java_signature convert_from_java =
-    reinterpret_cast<convert_from_java_signature>(jfrom_java_converter);
+    reinterpret_cast<convert_from_java_signature>(jfrom_java_converter_handle);
+
+  convert_to_java_signature convert_to_java =
+    reinterpret_cast<convert_to_java_signature>(jto_java_converter_handle);
 
   destroy_ros_message_signature destroy_ros_message =
     reinterpret_cast<destroy_ros_message_signature>(jdestructor_handle);
 
-  jmethodID jconstructor = env->GetMethodID(jmessage_class, "<init>", "()V");
-  jobject jmsg = env->NewObject(jmessage_class, jconstructor);
-
-  void * taken_msg = convert_from_java(jmsg, nullptr);
+  void * taken_msg = convert_from_java(jmessage_template, nullptr);
 
   rcl_ret_t ret = rcl_take(subscription, taken_msg, nullptr, nullptr);
 
@@ -213,13 +309,9 @@ Java_org_ros2_rcljava_executors_BaseExecutor_nativeTake(
   }
 
   if (ret != RCL_RET_SUBSCRIPTION_TAKE_FAILED) {
-    jmethodID jto_mid = env->GetStaticMethodID(jmessage_class, "getToJavaConverter", "()J");
-    jlong jto_java_converter = env->CallStaticLongMethod(jmessage_class, jto_mid);
-
-    convert_to_java_signature convert_to_java =
-      reinterpret_cast<convert_to_java_signature>(jto_java_converter);
-
-    jobject jtaken_msg = convert_to_java(taken_msg, nullptr);
+    // Overwrite the reused message instance of the subscription, if any, instead of creating
+    // a new one
+    jobject jtaken_msg = convert_to_java(taken_msg, jreused_msg);
 
     destroy_ros_message(taken_msg);
 
@@ -231,64 +323,92 @@ Java_org_ros2_rcljava_executors_BaseExecutor_nativeTake(
   return nullptr;
 }
 
-JNIEXPORT void JNICALL
-Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetAddService(
-  JNIEnv * env, jclass, jlong wait_set_handle, jlong service_handle)
+JNIEXPORT jint JNICALL
+Java_org_ros2_rcljava_executors_BaseExecutor_nativeTakeBatch(
+  JNIEnv * env, jclass, jlong subscription_handle, jlong jfrom_java_converter_handle,
+  jlong jto_java_converter_handle, jlong jdestructor_handle, jobject jmessage_template,
+  jobjectArray jmessages)
 {
-  rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
-  rcl_service_t * service = reinterpret_cast<rcl_service_t *>(service_handle);
-  rcl_ret_t ret = rcl_wait_set_add_service(wait_set, service, nullptr);
-  if (ret != RCL_RET_OK) {
-    std::string msg =
-      "Failed to add service to wait set: " + std::string(rcl_get_error_string().str);
-    rcl_reset_error();
-    rcljava_throw_rclexception(env, ret, msg);
-  }
-}
+  rcl_subscription_t * subscription = reinterpret_cast<rcl_subscription_t *>(subscription_handle);
 
-JNIEXPORT void JNICALL
-Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetAddClient(
-  JNIEnv * env, jclass, jlong wait_set_handle, jlong client_handle)
-{
-  rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
-  rcl_client_t * client = reinterpret_cast<rcl_client_t *>(client_handle);
-  rcl_ret_t ret = rcl_wait_set_add_client(wait_set, client, nullptr);
-  if (ret != RCL_RET_OK) {
-    std::string msg =
-      "Failed to add client to wait set: " + std::string(rcl_get_error_string().str);
-    rcl_reset_error();
-    rcljava_throw_rclexception(env, ret, msg);
+  convert_from_java_signature convert_from_java =
+    reinterpret_cast<convert_from_java_signature>(jfrom_java_converter_handle);
+
+  convert_to_java_signature convert_to_java =
+    reinterpret_cast<convert_to_java_signature>(jto_java_converter_handle);
+
+  destroy_ros_message_signature destroy_ros_message =
+    reinterpret_cast<destroy_ros_message_signature>(jdestructor_handle);
+
+  // A single native message is reused for all the messages of the batch
+  void * taken_msg = convert_from_java(jmessage_template, nullptr);
+
+  jsize max_messages = env->GetArrayLength(jmessages);
+  jint taken = 0;
+  while (taken < max_messages) {
+    rcl_ret_t ret = rcl_take(subscription, taken_msg, nullptr, nullptr);
+
+    if (ret == RCL_RET_SUBSCRIPTION_TAKE_FAILED) {
+      break;
+    }
+
+    if (ret != RCL_RET_OK) {
+      if (taken > 0) {
+        // Deliver the messages already taken, the error is reported by the next take
+        rcl_reset_error();
+        break;
+      }
+
+      destroy_ros_message(taken_msg);
+
+      std::string msg =
+        "Failed to take from a subscription: " + std::string(rcl_get_error_string().str);
+      rcl_reset_error();
+      rcljava_throw_rclexception(env, ret, msg);
+      return 0;
+    }
+
+    jobject jreused_msg = env->GetObjectArrayElement(jmessages, taken);
+    jobject jtaken_msg = convert_to_java(taken_msg, jreused_msg);
+    env->SetObjectArrayElement(jmessages, taken, jtaken_msg);
+    env->DeleteLocalRef(jtaken_msg);
+    if (jreused_msg != jtaken_msg) {
+      env->DeleteLocalRef(jreused_msg);
+    }
+    ++taken;
   }
+
+  destroy_ros_message(taken_msg);
+
+  return taken;
 }
 
-JNIEXPORT void JNICALL
-Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetAddTimer(
-  JNIEnv * env, jclass, jlong wait_set_handle, jlong timer_handle)
+JNIEXPORT jlong JNICALL
+Java_org_ros2_rcljava_executors_BaseExecutor_nativeTakeSerialized(
+  JNIEnv * env, jclass, jlong subscription_handle, jlong serialized_message_handle)
 {
-  rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
-  rcl_timer_t * timer = reinterpret_cast<rcl_timer_t *>(timer_handle);
-  rcl_ret_t ret = rcl_wait_set_add_timer(wait_set, timer, nullptr);
-  if (ret != RCL_RET_OK) {
-    std::string msg =
-      "Failed to add timer to wait set: " + std::string(rcl_get_error_string().str);
-    rcl_reset_error();
-    rcljava_throw_rclexception(env, ret, msg);
+  rcl_subscription_t * subscription = reinterpret_cast<rcl_subscription_t *>(subscription_handle);
+  rcl_serialized_message_t * serialized_message =
+    reinterpret_cast<rcl_serialized_message_t *>(serialized_message_handle);
+
+  // The middleware grows the buffer of the serialized message if needed, and it is then reused
+  // for the following messages
+  rcl_ret_t ret = rcl_take_serialized_message(subscription, serialized_message, nullptr, nullptr);
+
+  if (ret == RCL_RET_SUBSCRIPTION_TAKE_FAILED) {
+    return -1;
   }
-}
 
-JNIEXPORT void JNICALL
-Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetAddEvent(
-  JNIEnv * env, jclass, jlong wait_set_handle, jlong event_handle)
-{
-  auto * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
-  auto * event = reinterpret_cast<rcl_event_t *>(event_handle);
-  rcl_ret_t ret = rcl_wait_set_add_event(wait_set, event, nullptr);
   if (ret != RCL_RET_OK) {
     std::string msg =
-      "Failed to add event to wait set: " + std::string(rcl_get_error_string().str);
+      "Failed to take serialized message from a subscription: " +
+      std::string(rcl_get_error_string().str);
     rcl_reset_error();
     rcljava_throw_rclexception(env, ret, msg);
+    return -1;
   }
+
+  return static_cast<jlong>(serialized_message->buffer_length);
 }
 
 JNIEXPORT jobject JNICALL
@@ -344,41 +464,6 @@ Java_org_ros2_rcljava_executors_BaseExecutor_nativeTakeRequest(
   return nullptr;
 }
 
-JNIEXPORT void JNICALL
-Java_org_ros2_rcljava_executors_BaseExecutor_nativeSendServiceResponse(
-  JNIEnv * env, jclass, jlong service_handle, jobject jrequest_id,
-  jlong jresponse_from_java_converter_handle, jlong jresponse_to_java_converter_handle,
-  jlong jresponse_destructor_handle, jobject jresponse_msg)
-{
-  assert(service_handle != 0);
-  assert(jresponse_from_java_converter_handle != 0);
-  assert(jresponse_to_java_converter_handle != 0);
-  assert(jresponse_destructor_handle != 0);
-  assert(jresponse_msg != nullptr);
-
-  rcl_service_t * service = reinterpret_cast<rcl_service_t *>(service_handle);
-
-  convert_from_java_signature convert_from_java =
-    reinterpret_cast<convert_from_java_signature>(jresponse_from_java_converter_handle);
-
-  void * response_msg = convert_from_java(jresponse_msg, nullptr);
-
-  rmw_request_id_t * request_id = convert_rmw_request_id_from_java(env, jrequest_id);
-
-  rcl_ret_t ret = rcl_send_response(service, request_id, response_msg);
-
-  destroy_ros_message_signature destroy_ros_message =
-    reinterpret_cast<destroy_ros_message_signature>(jresponse_destructor_handle);
-  destroy_ros_message(response_msg);
-
-  if (ret != RCL_RET_OK) {
-    std::string msg =
-      "Failed to send response from a service: " + std::string(rcl_get_error_string().str);
-    rcl_reset_error();
-    rcljava_throw_rclexception(env, ret, msg);
-  }
-}
-
 JNIEXPORT jobject JNICALL
 Java_org_ros2_rcljava_executors_BaseExecutor_nativeTakeResponse(
   JNIEnv * env, jclass, jlong client_handle, jlong jresponse_from_java_converter_handle,
@@ -434,42 +519,37 @@ Java_org_ros2_rcljava_executors_BaseExecutor_nativeTakeResponse(
   return nullptr;
 }
 
-JNIEXPORT jboolean JNICALL
-Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetSubscriptionIsReady(
-  JNIEnv *, jclass, jlong wait_set_handle, jlong index)
+JNIEXPORT void JNICALL
+Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetGetReadiness(
+  JNIEnv * env, jclass, jlong wait_set_handle, jobject jreadiness_buffer)
 {
   rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
-  return wait_set->subscriptions[index] != nullptr;
-}
 
-JNIEXPORT jboolean JNICALL
-Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetTimerIsReady(
-  JNIEnv *, jclass, jlong wait_set_handle, jlong index)
-{
-  rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
-  return wait_set->timers[index] != nullptr;
-}
+  jbyte * readiness = static_cast<jbyte *>(env->GetDirectBufferAddress(jreadiness_buffer));
+  jlong capacity = env->GetDirectBufferCapacity(jreadiness_buffer);
 
-JNIEXPORT jboolean JNICALL
-Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetEventIsReady(
-  JNIEnv *, jclass, jlong wait_set_handle, jlong index)
-{
-  rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
-  return wait_set->events[index] != nullptr;
-}
-
-JNIEXPORT jboolean JNICALL
-Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetServiceIsReady(
-  JNIEnv *, jclass, jlong wait_set_handle, jlong index)
-{
-  rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
-  return wait_set->services[index] != nullptr;
-}
+  size_t needed = wait_set->size_of_subscriptions + wait_set->size_of_timers +
+    wait_set->size_of_clients + wait_set->size_of_services + wait_set->size_of_events;
+  if (readiness == nullptr || capacity < 0 || static_cast<size_t>(capacity) < needed) {
+    rcljava_throw_rclexception(
+      env, RCL_RET_INVALID_ARGUMENT, "Readiness buffer is not a large enough direct buffer");
+    return;
+  }
 
-JNIEXPORT jboolean JNICALL
-Java_org_ros2_rcljava_executors_BaseExecutor_nativeWaitSetClientIsReady(
-  JNIEnv *, jclass, jlong wait_set_handle, jlong index)
-{
-  rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
-  return wait_set->clients[index] != nullptr;
+  size_t offset = 0;
+  for (size_t i = 0; i < wait_set->size_of_subscriptions; ++i) {
+    readiness[offset++] = wait_set->subscriptions[i] != nullptr;
+  }
+  for (size_t i = 0; i < wait_set->size_of_timers; ++i) {
+    readiness[offset++] = wait_set->timers[i] != nullptr;
+  }
+  for (size_t i = 0; i < wait_set->size_of_clients; ++i) {
+    readiness[offset++] = wait_set->clients[i] != nullptr;
+  }
+  for (size_t i = 0; i < wait_set->size_of_services; ++i) {
+    readiness[offset++] = wait_set->services[i] != nullptr;
+  }
+  for (size_t i = 0; i < wait_set->size_of_events; ++i) {
+    readiness[offset++] = wait_set->events[i] != nullptr;
+  }
 }
@@ -0,0 +1,197 @@
+// Copyright 2020 Open Source Robotics Foundation, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+#include <jni.h>
+
+#include <cassert>
+#include <cstdlib>
+#include <string>
+
+#include "rcl/error_handling.h"
+#include "rcl/graph.h"
+#include "rcl/guard_condition.h"
+#include "rcl/node.h"
+#include "rcl/rcl.h"
+
+#include "rcljava_common/exceptions.hpp"
+
+#include "org_ros2_rcljava_graph_GraphListener.h"
+
+using rcljava_common::exceptions::rcljava_throw_rclexception;
+
+JNIEXPORT jlong JNICALL
+Java_org_ros2_rcljava_graph_GraphListener_nativeCreateWaitSet(
+  JNIEnv * env, jclass, jlong context_handle, jint number_of_guard_conditions)
+{
+  rcl_context_t * context = reinterpret_cast<rcl_context_t *>(context_handle);
+
+  rcl_wait_set_t * wait_set = static_cast<rcl_wait_set_t *>(malloc(sizeof(rcl_wait_set_t)));
+  *wait_set = rcl_get_zero_initialized_wait_set();
+
+  rcl_ret_t ret = rcl_wait_set_init(
+    wait_set, 0, number_of_guard_conditions, 0, 0, 0, 0, context, rcl_get_default_allocator());
+  if (ret != RCL_RET_OK) {
+    free(wait_set);
+    std::string msg = "Failed to initialize wait set: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+    return 0;
+  }
+
+  jlong wait_set_handle = reinterpret_cast<jlong>(wait_set);
+  return wait_set_handle;
+}
+
+JNIEXPORT void JNICALL
+Java_org_ros2_rcljava_graph_GraphListener_nativeDisposeWaitSet(
+  JNIEnv * env, jclass, jlong wait_set_handle)
+{
+  rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
+
+  rcl_ret_t ret = rcl_wait_set_fini(wait_set);
+  free(wait_set);
+  if (ret != RCL_RET_OK) {
+    std::string msg = "Failed to destroy wait set: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+  }
+}
+
+JNIEXPORT jlong JNICALL
+Java_org_ros2_rcljava_graph_GraphListener_nativeCreateGuardCondition(
+  JNIEnv * env, jclass, jlong context_handle)
+{
+  rcl_context_t * context = reinterpret_cast<rcl_context_t *>(context_handle);
+
+  rcl_guard_condition_t * guard_condition =
+    static_cast<rcl_guard_condition_t *>(malloc(sizeof(rcl_guard_condition_t)));
+  *guard_condition = rcl_get_zero_initialized_guard_condition();
+
+  rcl_ret_t ret = rcl_guard_condition_init(
+    guard_condition, context, rcl_guard_condition_get_default_options());
+  if (ret != RCL_RET_OK) {
+    free(guard_condition);
+    std::string msg =
+      "Failed to initialize guard condition: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+    return 0;
+  }
+
+  jlong guard_condition_handle = reinterpret_cast<jlong>(guard_condition);
+  return guard_condition_handle;
+}
+
+JNIEXPORT void JNICALL
+Java_org_ros2_rcljava_graph_GraphListener_nativeTriggerGuardCondition(
+  JNIEnv * env, jclass, jlong guard_condition_handle)
+{
+  rcl_guard_condition_t * guard_condition =
+    reinterpret_cast<rcl_guard_condition_t *>(guard_condition_handle);
+
+  rcl_ret_t ret = rcl_trigger_guard_condition(guard_condition);
+  if (ret != RCL_RET_OK) {
+    std::string msg =
+      "Failed to trigger guard condition: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_org_ros2_rcljava_graph_GraphListener_nativeDisposeGuardCondition(
+  JNIEnv * env, jclass, jlong guard_condition_handle)
+{
+  rcl_guard_condition_t * guard_condition =
+    reinterpret_cast<rcl_guard_condition_t *>(guard_condition_handle);
+
+  rcl_ret_t ret = rcl_guard_condition_fini(guard_condition);
+  free(guard_condition);
+  if (ret != RCL_RET_OK) {
+    std::string msg =
+      "Failed to destroy guard condition: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+  }
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_ros2_rcljava_graph_GraphListener_nativeWait(
+  JNIEnv * env, jclass, jlong wait_set_handle, jlong interrupt_guard_condition_handle,
+  jlongArray jnode_handles, jlong timeout)
+{
+  rcl_wait_set_t * wait_set = reinterpret_cast<rcl_wait_set_t *>(wait_set_handle);
+  assert(wait_set != NULL);
+
+  rcl_ret_t ret = rcl_wait_set_clear(wait_set);
+  if (ret != RCL_RET_OK) {
+    std::string msg = "Failed to clear wait set: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+    return false;
+  }
+
+  // The interrupt guard condition always comes first, the graph guard conditions follow it
+  rcl_guard_condition_t * interrupt_guard_condition =
+    reinterpret_cast<rcl_guard_condition_t *>(interrupt_guard_condition_handle);
+  ret = rcl_wait_set_add_guard_condition(wait_set, interrupt_guard_condition, nullptr);
+  if (ret != RCL_RET_OK) {
+    std::string msg =
+      "Failed to add guard condition to wait set: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+    return false;
+  }
+
+  jsize number_of_nodes = env->GetArrayLength(jnode_handles);
+  jlong * node_handles = env->GetLongArrayElements(jnode_handles, nullptr);
+  for (jsize i = 0; i < number_of_nodes; ++i) {
+    rcl_node_t * node = reinterpret_cast<rcl_node_t *>(node_handles[i]);
+    const rcl_guard_condition_t * graph_guard_condition =
+      rcl_node_get_graph_guard_condition(node);
+    if (graph_guard_condition == nullptr) {
+      // The node is no longer valid, e.g. its context was shutdown
+      rcl_reset_error();
+      continue;
+    }
+    ret = rcl_wait_set_add_guard_condition(wait_set, graph_guard_condition, nullptr);
+    if (ret != RCL_RET_OK) {
+      env->ReleaseLongArrayElements(jnode_handles, node_handles, JNI_ABORT);
+      std::string msg =
+        "Failed to add guard condition to wait set: " + std::string(rcl_get_error_string().str);
+      rcl_reset_error();
+      rcljava_throw_rclexception(env, ret, msg);
+      return false;
+    }
+  }
+  env->ReleaseLongArrayElements(jnode_handles, node_handles, JNI_ABORT);
+
+  ret = rcl_wait(wait_set, timeout);
+  if (ret == RCL_RET_TIMEOUT) {
+    return false;
+  }
+  if (ret != RCL_RET_OK) {
+    std::string msg = "Failed to wait on wait set: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+    return false;
+  }
+
+  for (size_t i = 1; i < wait_set->size_of_guard_conditions; ++i) {
+    if (wait_set->guard_conditions[i] != nullptr) {
+      return true;
+    }
+  }
+  return false;
+}
@@ -22,8 +22,10 @@
 #include "rcl/error_handling.h"
 #include "rcl/event.h"
 #include "rcl/node.h"
+#include "rcl/publisher.h"
 #include "rcl/rcl.h"
 #include "rmw/rmw.h"
+#include "rmw/serialized_message.h"
 
 #include "rcljava_common/exceptions.hpp"
 #include "rcljava_common/signatures.hpp"
@@ -35,30 +37,164 @@ using rcljava_common::exceptions::rcljava_throw_rclexception;
 using rcljava_common::signatures::convert_from_java_signature;
 using rcljava_common::signatures::destroy_ros_message_signature;
 
-JNIEXPORT void JNICALL
+JNIEXPORT jlong JNICALL
 Java_org_ros2_rcljava_publisher_PublisherImpl_nativePublish(
-  JNIEnv * env, jclass, jlong publisher_handle, jlong jmsg_destructor_handle, jobject jmsg)
+  JNIEnv * env, jclass, jlong publisher_handle, jlong jmsg_from_java_converter_handle,
+  jlong jmsg_destructor_handle, jlong message_handle, jboolean keep_message, jobject jmsg)
 {
   rcl_publisher_t * publisher = reinterpret_cast<rcl_publisher_t *>(publisher_handle);
 
-  jclass jmessage_class = env->GetObjectClass(jmsg);
-
-  jmethodID mid = env->GetStaticMethodID(jmessage_class, "getFromJavaConverter", "()J");
-  jlong jfrom_java_converter = env->CallStaticLongMethod(jmessage_class, mid);
-
   convert_from_java_signature convert_from_java =
-    reinterpret_cast<convert_from_java_signature>(jfrom_java_converter);
+    reinterpret_cast<convert_from_java_signature>(jmsg_from_java_converter_handle);
+
+  destroy_ros_message_signature destroy_ros_message =
+    reinterpret_cast<destroy_ros_message_signature>(jmsg_destructor_handle);
 
-  void * raw_ros_message = convert_from_java(jmsg, nullptr);
+  // Refill the message of the previous call in place, if any, so that the memory it owns
+  // (strings, sequences) is reused instead of being allocated and freed for every message
+  void * raw_ros_message = convert_from_java(jmsg, reinterpret_cast<void *>(message_handle));
+  if (env->ExceptionCheck()) {
+    // The message could not be converted, do not publish it. The return value is discarded
+    // while an exception is pending, so a message created here cannot be handed over.
+    if (message_handle == 0) {
+      destroy_ros_message(raw_ros_message);
+    }
+    return message_handle;
+  }
 
   rcl_ret_t ret = rcl_publish(publisher, raw_ros_message, nullptr);
 
+  if (ret != RCL_RET_OK) {
+    if (message_handle == 0) {
+      destroy_ros_message(raw_ros_message);
+    }
+    std::string msg = "Failed to publish: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+    return message_handle;
+  }
+
+  if (!keep_message) {
+    destroy_ros_message(raw_ros_message);
+    return 0;
+  }
+  return reinterpret_cast<jlong>(raw_ros_message);
+}
+
+JNIEXPORT void JNICALL
+Java_org_ros2_rcljava_publisher_PublisherImpl_nativeDestroyMessage(
+  JNIEnv *, jclass, jlong jmsg_destructor_handle, jlong message_handle)
+{
+  if (message_handle == 0) {
+    return;
+  }
+
   destroy_ros_message_signature destroy_ros_message =
     reinterpret_cast<destroy_ros_message_signature>(jmsg_destructor_handle);
-  destroy_ros_message(raw_ros_message);
+  destroy_ros_message(reinterpret_cast<void *>(message_handle));
+}
+
+JNIEXPORT void JNICALL
+Java_org_ros2_rcljava_publisher_PublisherImpl_nativePublishSerialized(
+  JNIEnv * env, jclass, jlong publisher_handle, jobject jbuffer, jint offset, jint length)
+{
+  rcl_publisher_t * publisher = reinterpret_cast<rcl_publisher_t *>(publisher_handle);
 
+  uint8_t * data = static_cast<uint8_t *>(env->GetDirectBufferAddress(jbuffer));
+  if (!data) {
+    rcljava_throw_exception(
+      env, "java/lang/IllegalArgumentException", "serialized message is not a direct buffer");
+    return;
+  }
+
+  // Wrap the memory of the buffer without copying it, the middleware does not keep it
+  rcl_serialized_message_t serialized_message = rmw_get_zero_initialized_serialized_message();
+  serialized_message.buffer = data + offset;
+  serialized_message.buffer_length = static_cast<size_t>(length);
+  serialized_message.buffer_capacity = static_cast<size_t>(length);
+
+  rcl_ret_t ret = rcl_publish_serialized_message(publisher, &serialized_message, nullptr);
   if (ret != RCL_RET_OK) {
-    std::string msg = "Failed to publish: " + std::string(rcl_get_error_string().str);
+    std::string msg = "Failed to publish serialized message: " +
+      std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+  }
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_ros2_rcljava_publisher_PublisherImpl_nativeCanLoanMessages(
+  JNIEnv *, jclass, jlong publisher_handle)
+{
+  rcl_publisher_t * publisher = reinterpret_cast<rcl_publisher_t *>(publisher_handle);
+  return rcl_publisher_can_loan_messages(publisher);
+}
+
+JNIEXPORT jlong JNICALL
+Java_org_ros2_rcljava_publisher_PublisherImpl_nativeBorrowLoanedMessage(
+  JNIEnv * env, jclass, jlong publisher_handle, jlong type_support_handle)
+{
+  rcl_publisher_t * publisher = reinterpret_cast<rcl_publisher_t *>(publisher_handle);
+  const rosidl_message_type_support_t * ts =
+    reinterpret_cast<const rosidl_message_type_support_t *>(type_support_handle);
+
+  void * loaned_message = nullptr;
+  rcl_ret_t ret = rcl_borrow_loaned_message(publisher, ts, &loaned_message);
+  if (ret != RCL_RET_OK) {
+    std::string msg = "Failed to borrow loaned message: " +
+      std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+    return 0;
+  }
+  return reinterpret_cast<jlong>(loaned_message);
+}
+
+JNIEXPORT void JNICALL
+Java_org_ros2_rcljava_publisher_PublisherImpl_nativePublishLoanedMessage(
+  JNIEnv * env, jclass, jlong publisher_handle, jlong jmsg_from_java_converter_handle,
+  jlong loaned_message_handle, jobject jmsg)
+{
+  rcl_publisher_t * publisher = reinterpret_cast<rcl_publisher_t *>(publisher_handle);
+  void * loaned_message = reinterpret_cast<void *>(loaned_message_handle);
+
+  convert_from_java_signature convert_from_java =
+    reinterpret_cast<convert_from_java_signature>(jmsg_from_java_converter_handle);
+
+  // Middlewares only loan messages of fixed size types, which are plain memory that
+  // can be filled in directly
+  convert_from_java(jmsg, loaned_message);
+  if (env->ExceptionCheck()) {
+    // The message could not be converted, give the loan back without publishing it.
+    // The conversion exception stays pending, a failure to return the loan is not reported.
+    rcl_ret_t ret = rcl_return_loaned_message_from_publisher(publisher, loaned_message);
+    if (ret != RCL_RET_OK) {
+      rcl_reset_error();
+    }
+    return;
+  }
+
+  // The middleware takes back the ownership of the loaned message, even on failure
+  rcl_ret_t ret = rcl_publish_loaned_message(publisher, loaned_message, nullptr);
+  if (ret != RCL_RET_OK) {
+    std::string msg = "Failed to publish loaned message: " +
+      std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_org_ros2_rcljava_publisher_PublisherImpl_nativeReturnLoanedMessage(
+  JNIEnv * env, jclass, jlong publisher_handle, jlong loaned_message_handle)
+{
+  rcl_publisher_t * publisher = reinterpret_cast<rcl_publisher_t *>(publisher_handle);
+  void * loaned_message = reinterpret_cast<void *>(loaned_message_handle);
+
+  rcl_ret_t ret = rcl_return_loaned_message_from_publisher(publisher, loaned_message);
+  if (ret != RCL_RET_OK) {
+    std::string msg = "Failed to return loaned message: " +
+      std::string(rcl_get_error_string().str);
     rcl_reset_error();
     rcljava_throw_rclexception(env, ret, msg);
   }
@@ -30,6 +30,8 @@
 #include "org_ros2_rcljava_service_ServiceImpl.h"
 
 using rcljava_common::exceptions::rcljava_throw_rclexception;
+using rcljava_common::signatures::convert_from_java_signature;
+using rcljava_common::signatures::destroy_ros_message_signature;
 
 JNIEXPORT void JNICALL
 Java_org_ros2_rcljava_service_ServiceImpl_nativeDispose(
@@ -61,3 +63,49 @@ Java_org_ros2_rcljava_service_ServiceImpl_nativeDispose(
     rcljava_throw_rclexception(env, ret, msg);
   }
 }
+
+JNIEXPORT void JNICALL
+Java_org_ros2_rcljava_service_ServiceImpl_nativeSendResponse(
+  JNIEnv * env, jclass, jlong service_handle, jlong sequence_number, jbyteArray jwriter_guid,
+  jlong jresponse_from_java_converter_handle, jlong jresponse_destructor_handle,
+  jobject jresponse_msg)
+{
+  assert(service_handle != 0);
+  assert(jwriter_guid != nullptr);
+  assert(jresponse_from_java_converter_handle != 0);
+  assert(jresponse_destructor_handle != 0);
+  assert(jresponse_msg != nullptr);
+
+  rcl_service_t * service = reinterpret_cast<rcl_service_t *>(service_handle);
+
+  rmw_request_id_t request_id;
+  request_id.sequence_number = sequence_number;
+  jsize writer_guid_len = 16;  // See rmw/rmw/include/rmw/types.h
+  env->GetByteArrayRegion(
+    jwriter_guid, 0, writer_guid_len, reinterpret_cast<jbyte *>(request_id.writer_guid));
+
+  convert_from_java_signature convert_from_java =
+    reinterpret_cast<convert_from_java_signature>(jresponse_from_java_converter_handle);
+
+  void * response_msg = convert_from_java(jresponse_msg, nullptr);
+
+  destroy_ros_message_signature destroy_ros_message =
+    reinterpret_cast<destroy_ros_message_signature>(jresponse_destructor_handle);
+
+  if (env->ExceptionCheck()) {
+    // The response could not be converted, do not send a partial one
+    destroy_ros_message(response_msg);
+    return;
+  }
+
+  rcl_ret_t ret = rcl_send_response(service, &request_id, response_msg);
+
+  destroy_ros_message(response_msg);
+
+  if (ret != RCL_RET_OK) {
+    std::string msg =
+      "Failed to send response from a service: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+  }
+}
@@ -0,0 +1,115 @@
+// Copyright 2020 Open Source Robotics Foundation, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+#include <jni.h>
+
+#include <cstdlib>
+#include <string>
+
+#include "rcl/allocator.h"
+#include "rcl/error_handling.h"
+#include "rcl/node.h"
+#include "rcl/subscription.h"
+#include "rcl/types.h"
+#include "rcutils/error_handling.h"
+#include "rmw/serialized_message.h"
+
+#include "rcljava_common/exceptions.hpp"
+
+#include "org_ros2_rcljava_subscription_SerializedSubscriptionImpl.h"
+
+using rcljava_common::exceptions::rcljava_throw_exception;
+using rcljava_common::exceptions::rcljava_throw_rclexception;
+
+JNIEXPORT jlong JNICALL
+Java_org_ros2_rcljava_subscription_SerializedSubscriptionImpl_nativeCreateSerializedMessage(
+  JNIEnv * env, jclass)
+{
+  auto * serialized_message =
+    static_cast<rcl_serialized_message_t *>(malloc(sizeof(rcl_serialized_message_t)));
+  if (!serialized_message) {
+    rcljava_throw_exception(
+      env, "java/lang/OutOfMemoryError", "failed to allocate rcl_serialized_message_t");
+    return 0;
+  }
+  *serialized_message = rmw_get_zero_initialized_serialized_message();
+  rcl_allocator_t allocator = rcl_get_default_allocator();
+  rcl_ret_t ret = rmw_serialized_message_init(serialized_message, 0, &allocator);
+  if (ret != RCL_RET_OK) {
+    std::string msg = "Failed to create serialized message: " +
+      std::string(rcutils_get_error_string().str);
+    rcutils_reset_error();
+    free(serialized_message);
+    rcljava_throw_rclexception(env, ret, msg);
+    return 0;
+  }
+  return reinterpret_cast<jlong>(serialized_message);
+}
+
+JNIEXPORT void JNICALL
+Java_org_ros2_rcljava_subscription_SerializedSubscriptionImpl_nativeDisposeSerializedMessage(
+  JNIEnv * env, jclass, jlong serialized_message_handle)
+{
+  auto * serialized_message =
+    reinterpret_cast<rcl_serialized_message_t *>(serialized_message_handle);
+  if (!serialized_message) {
+    return;
+  }
+  rcl_ret_t ret = rmw_serialized_message_fini(serialized_message);
+  free(serialized_message);
+  if (ret != RCL_RET_OK) {
+    std::string msg = "Failed to destroy serialized message: " +
+      std::string(rcutils_get_error_string().str);
+    rcutils_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+  }
+}
+
+JNIEXPORT jobject JNICALL
+Java_org_ros2_rcljava_subscription_SerializedSubscriptionImpl_nativeGetBuffer(
+  JNIEnv * env, jclass, jlong serialized_message_handle, jobject jbuffer)
+{
+  auto * serialized_message =
+    reinterpret_cast<rcl_serialized_message_t *>(serialized_message_handle);
+
+  if (jbuffer != nullptr &&
+    env->GetDirectBufferAddress(jbuffer) == serialized_message->buffer &&
+    env->GetDirectBufferCapacity(jbuffer) ==
+    static_cast<jlong>(serialized_message->buffer_capacity))
+  {
+    return jbuffer;
+  }
+  return env->NewDirectByteBuffer(
+    serialized_message->buffer, static_cast<jlong>(serialized_message->buffer_capacity));
+}
+
+JNIEXPORT void JNICALL
+Java_org_ros2_rcljava_subscription_SerializedSubscriptionImpl_nativeDispose(
+  JNIEnv * env, jclass, jlong node_handle, jlong subscription_handle)
+{
+  if (subscription_handle == 0 || node_handle == 0) {
+    // Already destroyed
+    return;
+  }
+
+  rcl_node_t * node = reinterpret_cast<rcl_node_t *>(node_handle);
+  rcl_subscription_t * subscription = reinterpret_cast<rcl_subscription_t *>(subscription_handle);
+
+  rcl_ret_t ret = rcl_subscription_fini(subscription, node);
+  if (ret != RCL_RET_OK) {
+    std::string msg = "Failed to destroy subscription: " + std::string(rcl_get_error_string().str);
+    rcl_reset_error();
+    rcljava_throw_rclexception(env, ret, msg);
+  }
+}
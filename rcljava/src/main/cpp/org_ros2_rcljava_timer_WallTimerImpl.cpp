@@ -33,46 +33,6 @@ using rcljava_common::exceptions::rcljava_throw_exception;
 using rcljava_common::signatures::convert_from_java_signature;
 using rcljava_common::signatures::destroy_ros_message_signature;
 
-JNIEXPORT jboolean JNICALL
-Java_org_ros2_rcljava_timer_WallTimerImpl_nativeIsReady(
-  JNIEnv * env, jclass, jlong wall_timer_handle)
-{
-  assert(wall_timer_handle != 0);
-
-  rcl_timer_t * timer = reinterpret_cast<rcl_timer_t *>(wall_timer_handle);
-
-  bool is_ready;
-  rcl_ret_t ret = rcl_timer_is_ready(timer, &is_ready);
-
-  if (ret != RCL_RET_OK) {
-    std::string msg = "Failed to check timer ready: " + std::string(rcl_get_error_string().str);
-    rcl_reset_error();
-    rcljava_throw_exception(env, "java/lang/IllegalStateException", msg);
-  }
-
-  return is_ready;
-}
-
-JNIEXPORT jboolean JNICALL
-Java_org_ros2_rcljava_timer_WallTimerImpl_nativeIsCanceled(
-  JNIEnv * env, jclass, jlong wall_timer_handle)
-{
-  assert(wall_timer_handle != 0);
-
-  rcl_timer_t * timer = reinterpret_cast<rcl_timer_t *>(wall_timer_handle);
-
-  bool is_canceled;
-  rcl_ret_t ret = rcl_timer_is_canceled(timer, &is_canceled);
-
-  if (ret != RCL_RET_OK) {
-    std::string msg = "Failed to check timer canceled: " + std::string(rcl_get_error_string().str);
-    rcl_reset_error();
-    rcljava_throw_exception(env, "java/lang/IllegalStateException", msg);
-  }
-
-  return is_canceled;
-}
-
 JNIEXPORT void JNICALL
 Java_org_ros2_rcljava_timer_WallTimerImpl_nativeDispose(
   JNIEnv * env, jclass, jlong wall_timer_handle)
@@ -132,77 +92,6 @@ Java_org_ros2_rcljava_timer_WallTimerImpl_nativeCancel(
   }
 }
 
-JNIEXPORT jlong JNICALL
-Java_org_ros2_rcljava_timer_WallTimerImpl_nativeTimeUntilNextCall(
-  JNIEnv * env, jclass, jlong wall_timer_handle)
-{
-  assert(wall_timer_handle != 0);
-
-  rcl_timer_t * timer = reinterpret_cast<rcl_timer_t *>(wall_timer_handle);
-
-  assert(timer != NULL);
-
-  int64_t remaining_time;
-  rcl_ret_t ret = rcl_timer_get_time_until_next_call(timer, &remaining_time);
-
-  if (ret != RCL_RET_OK) {
-    std::string msg =
-      "Failed to get time until next timer call: " + std::string(rcl_get_error_string().str);
-    rcl_reset_error();
-    rcljava_throw_exception(env, "java/lang/IllegalStateException", msg);
-    return 0;
-  }
-
-  return remaining_time;
-}
-
-JNIEXPORT jlong JNICALL
-Java_org_ros2_rcljava_timer_WallTimerImpl_nativeTimeSinceLastCall(
-  JNIEnv * env, jclass, jlong wall_timer_handle)
-{
-  assert(wall_timer_handle != 0);
-
-  rcl_timer_t * timer = reinterpret_cast<rcl_timer_t *>(wall_timer_handle);
-
-  assert(timer != NULL);
-
-  int64_t elapsed_time;
-  rcl_ret_t ret = rcl_timer_get_time_since_last_call(timer, &elapsed_time);
-
-  if (ret != RCL_RET_OK) {
-    std::string msg =
-      "Failed to get time until next timer call: " + std::string(rcl_get_error_string().str);
-    rcl_reset_error();
-    rcljava_throw_exception(env, "java/lang/IllegalStateException", msg);
-    return 0;
-  }
-
-  return elapsed_time;
-}
-
-JNIEXPORT jlong JNICALL
-Java_org_ros2_rcljava_timer_WallTimerImpl_nativeGetTimerPeriodNS(
-  JNIEnv * env, jclass, jlong wall_timer_handle)
-{
-  assert(wall_timer_handle != 0);
-
-  rcl_timer_t * timer = reinterpret_cast<rcl_timer_t *>(wall_timer_handle);
-
-  assert(timer != NULL);
-
-  int64_t timer_period;
-  rcl_ret_t ret = rcl_timer_get_period(timer, &timer_period);
-
-  if (ret != RCL_RET_OK) {
-    std::string msg = "Failed to get timer period: " + std::string(rcl_get_error_string().str);
-    rcl_reset_error();
-    rcljava_throw_exception(env, "java/lang/IllegalStateException", msg);
-    return 0;
-  }
-
-  return timer_period;
-}
-
 JNIEXPORT void JNICALL
 Java_org_ros2_rcljava_timer_WallTimerImpl_nativeSetTimerPeriodNS(
   JNIEnv * env, jclass, jlong wall_timer_handle, jlong timer_period)
@@ -222,22 +111,3 @@ Java_org_ros2_rcljava_timer_WallTimerImpl_nativeSetTimerPeriodNS(
     rcljava_throw_exception(env, "java/lang/IllegalStateException", msg);
   }
 }
-
-JNIEXPORT void JNICALL
-Java_org_ros2_rcljava_timer_WallTimerImpl_nativeCallTimer(
-  JNIEnv * env, jclass, jlong wall_timer_handle)
-{
-  assert(wall_timer_handle != 0);
-
-  rcl_timer_t * timer = reinterpret_cast<rcl_timer_t *>(wall_timer_handle);
-
-  assert(timer != NULL);
-
-  rcl_ret_t ret = rcl_timer_call(timer);
-
-  if (ret != RCL_RET_OK) {
-    std::string msg = "Failed to call timer: " + std::string(rcl_get_error_string().str);
-    rcl_reset_error();
-    rcljava_throw_exception(env, "java/lang/IllegalStateException", msg);
-  }
-}
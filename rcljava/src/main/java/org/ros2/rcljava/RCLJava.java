@@ -18,6 +18,7 @@ package org.ros2.rcljava;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
@@ -275,6 +276,23 @@ public final class RCLJava {
     getGlobalExecutor().removeNode(composableNode);
   }
 
+  /**
+   * Execute at most one callback of the node, waiting for work up to the given timeout.
+   *
+   * @param timeout The maximum time to wait for work, in nanoseconds, or a negative value to
+   *     wait indefinitely.
+   */
+  public static void spinOnce(final Node node, final long timeout) {
+    ComposableNode composableNode = new ComposableNode() {
+      public Node getNode() {
+        return node;
+      }
+    };
+    getGlobalExecutor().addNode(composableNode);
+    getGlobalExecutor().spinOnce(timeout);
+    getGlobalExecutor().removeNode(composableNode);
+  }
+
   public static void spinSome(final Node node) {
     ComposableNode composableNode = new ComposableNode() {
       public Node getNode() {
@@ -292,7 +310,38 @@ public final class RCLJava {
     getGlobalExecutor().removeNode(composableNode);
   }
 
+  /**
+   * Wait for the service servers of several clients to be available.
+   *
+   * The clients share the timeout, and since each wait is woken up by graph changes, waiting
+   * for many services takes as long as the slowest of them to become available.
+   *
+   * @param clients The clients whose services to wait for.
+   * @param timeout Time to wait for all the services to be available.
+   *   A negative value is treated as an infinite timeout.
+   * @return true if all the services are available, false otherwise.
+   */
+  public static boolean waitForServices(
+      final Collection<? extends Client> clients, final Duration timeout) {
+    long timeoutNano = timeout.toNanos();
+    long startTime = System.nanoTime();
+    for (Client client : clients) {
+      long timeToWait = timeoutNano;
+      if (timeoutNano >= 0L) {
+        timeToWait = Math.max(timeoutNano - (System.nanoTime() - startTime), 0L);
+      }
+      if (!client.waitForService(Duration.ofNanos(timeToWait))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public static synchronized void shutdown() {
+    if (RCLJava.defaultContext != null) {
+      // Stops the executors spinning on the default context before their nodes are disposed
+      RCLJava.defaultContext.shutdown();
+    }
     cleanup();
     if (RCLJava.defaultContext != null) {
       RCLJava.defaultContext.dispose();
@@ -0,0 +1,53 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.callbackgroups;
+
+/**
+ * A group of callbacks that controls which of them may be executed concurrently.
+ * A CallbackGroup must be created via
+ * @{link Node#createCallbackGroup(CallbackGroupType)}
+ *
+ * Entities that are not created in a callback group are only guaranteed to never run their own
+ * callback concurrently.
+ */
+public interface CallbackGroup {
+  /**
+   * @return The type of this callback group.
+   */
+  CallbackGroupType getType();
+
+  /**
+   * Check whether a callback of this group may be executed right now.
+   * Executors use this to decide which entities to wait on.
+   *
+   * @return false if this is a mutually exclusive group and one of its callbacks is running.
+   */
+  boolean canBeTakenFrom();
+
+  /**
+   * Try to start executing a callback of this group.
+   * Every successful call must be paired with a call to {@link #release()} once the callback
+   * finished.
+   *
+   * @return true if the callback may be executed.
+   */
+  boolean tryAcquire();
+
+  /**
+   * Signal that a callback acquired with {@link #tryAcquire()} finished.
+   */
+  void release();
+}
@@ -0,0 +1,62 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.callbackgroups;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class CallbackGroupImpl implements CallbackGroup {
+  private final CallbackGroupType type;
+
+  /**
+   * Whether a callback of a mutually exclusive group is being executed.
+   */
+  private final AtomicBoolean taken;
+
+  public CallbackGroupImpl(final CallbackGroupType type) {
+    this.type = type;
+    this.taken = new AtomicBoolean(false);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final CallbackGroupType getType() {
+    return this.type;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final boolean canBeTakenFrom() {
+    return this.type == CallbackGroupType.REENTRANT || !this.taken.get();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final boolean tryAcquire() {
+    return this.type == CallbackGroupType.REENTRANT || this.taken.compareAndSet(false, true);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final void release() {
+    if (this.type == CallbackGroupType.MUTUALLY_EXCLUSIVE) {
+      this.taken.set(false);
+    }
+  }
+}
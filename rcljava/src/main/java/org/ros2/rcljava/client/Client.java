@@ -16,8 +16,11 @@
 package org.ros2.rcljava.client;
 
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
 import org.ros2.rcljava.concurrent.RCLFuture;
 import org.ros2.rcljava.consumers.Consumer;
 import org.ros2.rcljava.interfaces.Disposable;
@@ -38,6 +41,53 @@ public interface Client<T extends ServiceDefinition> extends Disposable {
   <U extends MessageDefinition, V extends MessageDefinition> Future<V> asyncSendRequest(
       final U request, final Consumer<Future<V>> callback);
 
+  /**
+   * Send a request to the service server, failing it if no response arrives in time.
+   *
+   * If the request times out, the future fails with a
+   * {@link java.util.concurrent.TimeoutException} and the callback is called from the thread
+   * that tracks the timeouts. A response arriving later is dropped.
+   *
+   * @param request The request to send.
+   * @param callback Called when the response arrives or the request times out.
+   * @param timeout The time to wait for the response, or a negative value to wait indefinitely.
+   * @param unit The unit of the timeout.
+   * @return A future completed with the response.
+   */
+  <U extends MessageDefinition, V extends MessageDefinition> Future<V> asyncSendRequest(
+      final U request, final Consumer<Future<V>> callback, final long timeout,
+      final TimeUnit unit);
+
+  /**
+   * Send a request to the service server.
+   *
+   * The returned future never spins the node of this client, so the node must be spun by an
+   * executor for the future to complete. Dependent stages that are not asynchronous run on the
+   * thread of that executor.
+   *
+   * @param request The request to send.
+   * @return A future completed with the response.
+   */
+  <U extends MessageDefinition, V extends MessageDefinition> CompletableFuture<V>
+  asyncSendRequestCompletable(final U request);
+
+  /**
+   * Send a request to the service server, failing it if no response arrives in time.
+   *
+   * @param request The request to send.
+   * @param timeout The time to wait for the response, or a negative value to wait indefinitely.
+   * @param unit The unit of the timeout.
+   * @return A future completed with the response, or failed with a
+   *     {@link java.util.concurrent.TimeoutException}.
+   */
+  <U extends MessageDefinition, V extends MessageDefinition> CompletableFuture<V>
+  asyncSendRequestCompletable(final U request, final long timeout, final TimeUnit unit);
+
+  /**
+   * @return The number of requests sent that did not get a response, time out or fail yet.
+   */
+  int getNumberOfPendingRequests();
+
   /**
    * Check if the service server is available.
    *
@@ -68,4 +118,9 @@ public interface Client<T extends ServiceDefinition> extends Disposable {
   boolean waitForService(Duration timeout);
 
   String getServiceName();
+
+  /**
+   * @return The callback group this client belongs to, or null if it was not created in one.
+   */
+  CallbackGroup getCallbackGroup();
 }
@@ -20,16 +20,27 @@ import java.lang.ref.WeakReference;
 import java.lang.IllegalStateException;
 import java.lang.InterruptedException;
 import java.lang.Long;
-import java.util.AbstractMap;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
 import org.ros2.rcljava.common.JNIUtils;
 import org.ros2.rcljava.concurrent.RCLFuture;
 import org.ros2.rcljava.consumers.Consumer;
+import org.ros2.rcljava.graph.GraphListener;
 import org.ros2.rcljava.interfaces.MessageDefinition;
 import org.ros2.rcljava.interfaces.ServiceDefinition;
 import org.ros2.rcljava.node.Node;
@@ -50,23 +61,57 @@ public class ClientImpl<T extends ServiceDefinition> implements Client<T> {
     }
   }
 
+  /**
+   * Fails the requests that time out, shared by all the clients.
+   */
+  private static ScheduledThreadPoolExecutor timeoutScheduler;
+
+  /**
+   * A request sent to the service server that did not get a response yet.
+   */
+  private static class PendingRequest {
+    private final Consumer callback;
+    private final RCLFuture future;
+    private volatile ScheduledFuture<?> timeoutTask;
+
+    PendingRequest(final Consumer callback, final RCLFuture future) {
+      this.callback = callback;
+      this.future = future;
+    }
+  }
+
   private final WeakReference<Node> nodeReference;
   private long handle;
   private final String serviceName;
-  private Map<Long, Map.Entry<Consumer, RCLFuture>> pendingRequests;
+  private final ConcurrentMap<Long, PendingRequest> pendingRequests;
+
+  /**
+   * Held shared while a request is sent and registered, and exclusively by
+   * {@link #handleResponse(RMWRequestId, MessageDefinition)} when a response arrives before its
+   * request was registered.
+   */
+  private final ReadWriteLock sendLock = new ReentrantReadWriteLock();
 
   private final Class<MessageDefinition> requestType;
   private final Class<MessageDefinition> responseType;
+  private final CallbackGroup callbackGroup;
 
   public ClientImpl(final WeakReference<Node> nodeReference, final long handle,
       final String serviceName, final Class<MessageDefinition> requestType,
-      final Class<MessageDefinition> responseType) {
+      final Class<MessageDefinition> responseType, final CallbackGroup callbackGroup) {
     this.nodeReference = nodeReference;
     this.handle = handle;
     this.serviceName = serviceName;
     this.requestType = requestType;
     this.responseType = responseType;
-    this.pendingRequests = new HashMap<Long, Map.Entry<Consumer, RCLFuture>>();
+    this.callbackGroup = callbackGroup;
+    this.pendingRequests = new ConcurrentHashMap<Long, PendingRequest>();
+  }
+
+  public ClientImpl(final WeakReference<Node> nodeReference, final long handle,
+      final String serviceName, final Class<MessageDefinition> requestType,
+      final Class<MessageDefinition> responseType) {
+    this(nodeReference, handle, serviceName, requestType, responseType, null);
   }
 
   public final <U extends MessageDefinition, V extends MessageDefinition> Future<V>
@@ -78,34 +123,117 @@ public class ClientImpl<T extends ServiceDefinition> implements Client<T> {
 
   public final <U extends MessageDefinition, V extends MessageDefinition> Future<V>
   asyncSendRequest(final U request, final Consumer<Future<V>> callback) {
-    synchronized (pendingRequests) {
-      long sequenceNumber = nativeSendClientRequest(
+    return asyncSendRequest(request, callback, -1, TimeUnit.NANOSECONDS);
+  }
+
+  public final <U extends MessageDefinition, V extends MessageDefinition> Future<V>
+  asyncSendRequest(final U request, final Consumer<Future<V>> callback, final long timeout,
+      final TimeUnit unit) {
+    final RCLFuture<V> future = new RCLFuture<V>(this.nodeReference);
+    final PendingRequest pendingRequest = new PendingRequest(callback, future);
+    final long sequenceNumber;
+
+    this.sendLock.readLock().lock();
+    try {
+      sequenceNumber = nativeSendClientRequest(
           handle, request.getFromJavaConverterInstance(),
           request.getToJavaConverterInstance(), request.getDestructorInstance(), request);
-      RCLFuture<V> future = new RCLFuture<V>(this.nodeReference);
+      pendingRequests.put(sequenceNumber, pendingRequest);
+    } finally {
+      this.sendLock.readLock().unlock();
+    }
 
-      Map.Entry<Consumer, RCLFuture> entry =
-          new AbstractMap.SimpleEntry<Consumer, RCLFuture>(callback, future);
-      pendingRequests.put(sequenceNumber, entry);
-      return future;
+    if (timeout >= 0) {
+      pendingRequest.timeoutTask = getTimeoutScheduler().schedule(new Runnable() {
+        public void run() {
+          // Only fails the request if the response did not arrive in the meantime
+          if (pendingRequests.remove(sequenceNumber, pendingRequest)) {
+            future.setException(new TimeoutException(
+                "No response to request " + sequenceNumber + " on " + serviceName));
+            callback.accept(future);
+          }
+        }
+      }, timeout, unit);
     }
+    return future;
+  }
+
+  private static synchronized ScheduledExecutorService getTimeoutScheduler() {
+    if (timeoutScheduler == null) {
+      timeoutScheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "rcljava-client-timeouts");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      // Responses usually arrive long before their timeouts, do not keep those around
+      timeoutScheduler.setRemoveOnCancelPolicy(true);
+    }
+    return timeoutScheduler;
+  }
+
+  public final <U extends MessageDefinition, V extends MessageDefinition> CompletableFuture<V>
+  asyncSendRequestCompletable(final U request) {
+    return asyncSendRequestCompletable(request, -1, TimeUnit.NANOSECONDS);
+  }
+
+  public final <U extends MessageDefinition, V extends MessageDefinition> CompletableFuture<V>
+  asyncSendRequestCompletable(final U request, final long timeout, final TimeUnit unit) {
+    final CompletableFuture<V> completableFuture = new CompletableFuture<V>();
+    asyncSendRequest(request, new Consumer<Future<V>>() {
+      public void accept(Future<V> future) {
+        // The future was completed before the callback is called, so this does not block
+        try {
+          completableFuture.complete(future.get());
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          completableFuture.completeExceptionally(ie);
+        } catch (ExecutionException ee) {
+          completableFuture.completeExceptionally(ee.getCause());
+        }
+      }
+    }, timeout, unit);
+    return completableFuture;
   }
 
   public final <U extends MessageDefinition> void handleResponse(
       final RMWRequestId header, final U response) {
-    synchronized (pendingRequests) {
-      long sequenceNumber = header.sequenceNumber;
-      Map.Entry<Consumer, RCLFuture> entry = pendingRequests.remove(sequenceNumber);
-      if (entry != null) {
-        Consumer<Future> callback = entry.getKey();
-        RCLFuture<U> future = entry.getValue();
-        future.set(response);
-        callback.accept(future);
-        return;
+    long sequenceNumber = header.sequenceNumber;
+    PendingRequest pendingRequest = pendingRequests.remove(sequenceNumber);
+    if (pendingRequest == null) {
+      // The thread that sent the request may not have registered it yet
+      this.sendLock.writeLock().lock();
+      try {
+        pendingRequest = pendingRequests.remove(sequenceNumber);
+      } finally {
+        this.sendLock.writeLock().unlock();
       }
-      throw new IllegalStateException(
-          "No request made with the given sequence number: " + sequenceNumber);
     }
+    if (pendingRequest == null) {
+      logger.debug("Dropping the response to request " + sequenceNumber + " on " + serviceName
+          + ", which timed out");
+      return;
+    }
+
+    ScheduledFuture<?> timeoutTask = pendingRequest.timeoutTask;
+    if (timeoutTask != null) {
+      timeoutTask.cancel(false);
+    }
+    RCLFuture<U> future = pendingRequest.future;
+    if (future.isCancelled()) {
+      return;
+    }
+    future.set(response);
+    Consumer<Future> callback = pendingRequest.callback;
+    callback.accept(future);
+  }
+
+  /**
+   * @return The number of requests sent that did not get a response, time out or fail yet.
+   */
+  public final int getNumberOfPendingRequests() {
+    return pendingRequests.size();
   }
 
   private static native long nativeSendClientRequest(
@@ -120,6 +248,10 @@ public class ClientImpl<T extends ServiceDefinition> implements Client<T> {
     return this.responseType;
   }
 
+  public final CallbackGroup getCallbackGroup() {
+    return this.callbackGroup;
+  }
+
   /**
    * Destroy a ROS2 client (rcl_client_t).
    *
@@ -140,6 +272,17 @@ public class ClientImpl<T extends ServiceDefinition> implements Client<T> {
       nativeDispose(node.getHandle(), this.handle);
       this.handle = 0;
     }
+    // No response can arrive anymore, wake up whoever waits for one
+    Iterator<PendingRequest> iterator = pendingRequests.values().iterator();
+    while (iterator.hasNext()) {
+      PendingRequest pendingRequest = iterator.next();
+      iterator.remove();
+      ScheduledFuture<?> timeoutTask = pendingRequest.timeoutTask;
+      if (timeoutTask != null) {
+        timeoutTask.cancel(false);
+      }
+      pendingRequest.future.cancel(false);
+    }
   }
 
   /**
@@ -177,24 +320,33 @@ public class ClientImpl<T extends ServiceDefinition> implements Client<T> {
     if (0L == timeoutNano) {
       return isServiceAvailable();
     }
+    Node node = this.nodeReference.get();
+    if (node == null) {
+      return false;
+    }
+    GraphListener graphListener = node.getGraphListener();
     long startTime = System.nanoTime();
-    long timeToWait = (timeoutNano >= 0L) ? timeoutNano : Long.MAX_VALUE;
-    while (RCLJava.ok() && timeToWait > 0L) {
-      // TODO(jacobperron): Wake up whenever graph changes instead of sleeping for a fixed duration
-      try {
-        TimeUnit.MILLISECONDS.sleep(10);
-      } catch (InterruptedException ex) {
-        Thread.currentThread().interrupt();
-        return false;
-      }
-
+    long timeToWait = (timeoutNano >= 0L) ? timeoutNano : -1L;
+    while (RCLJava.ok()) {
+      // Taken before checking, so that a change in between wakes up the wait below
+      long graphVersion = graphListener.getGraphVersion();
       if (isServiceAvailable()) {
         return true;
       }
 
-      // If timeout is negative, timeToWait will always be greater than zero
+      // If timeout is negative, timeToWait stays negative and the wait is indefinite
       if (timeoutNano > 0L) {
         timeToWait = timeoutNano - (System.nanoTime() - startTime);
+        if (timeToWait <= 0L) {
+          return false;
+        }
+      }
+
+      try {
+        graphListener.waitForGraphChange(node, graphVersion, timeToWait);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return false;
       }
     }
 
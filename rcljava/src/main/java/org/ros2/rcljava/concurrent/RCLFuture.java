@@ -16,21 +16,52 @@
 package org.ros2.rcljava.concurrent;
 
 import java.lang.ref.WeakReference;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.executors.BaseExecutor;
 import org.ros2.rcljava.executors.Executor;
+import org.ros2.rcljava.executors.SingleThreadedExecutor;
+import org.ros2.rcljava.node.ComposableNode;
 import org.ros2.rcljava.node.Node;
 
+/**
+ * A future that is completed by a call to {@link #set(Object)}.
+ *
+ * Threads calling {@link #get()} block until the future is completed. If the future was created
+ * for a node that no executor spins, the waiting thread spins the node itself so that the value
+ * can be delivered; likewise, a future created with an executor spins that executor.
+ */
 public class RCLFuture<V> implements Future<V> {
+  /**
+   * How long a waiting thread blocks before checking again whether the node of the future is
+   * still spun by an executor.
+   */
+  private static final long NODE_CHECK_INTERVAL_NS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  /**
+   * Makes checking whether a node is spun and adding it to the executor of a waiting thread
+   * atomic, so that only one waiting thread spins a given node.
+   */
+  private static final Object nodeExecutorLock = new Object();
+
   private WeakReference<Node> nodeReference;
   private boolean done = false;
+  private boolean cancelled = false;
   private V value = null;
+  private Throwable exception = null;
   private Executor executor = null;
 
+  /**
+   * Create a future that is completed by another thread, such as one of an executor.
+   */
+  public RCLFuture() {
+  }
+
   public RCLFuture(final WeakReference<Node> nodeReference) {
     this.nodeReference = nodeReference;
   }
@@ -40,74 +71,157 @@ public class RCLFuture<V> implements Future<V> {
   }
 
   public final V get() throws InterruptedException, ExecutionException {
-    if(this.value != null) {
-      return this.value;
-    }
-    while (RCLJava.ok() && !isDone()) {
-      if (executor != null) {
-        executor.spinOnce();
-      } else {
-        Node node = nodeReference.get();
-        if (node == null) {
-          return null; // TODO(esteve) do something
-        }
-        RCLJava.spinOnce(node);
-      }
+    if (!await(-1)) {
+      // The context was shutdown or the node was garbage collected
+      return null; // TODO(esteve) do something
     }
-    return this.value;
+    return getValue();
   }
 
   public final V get(final long timeout, final TimeUnit unit)
       throws InterruptedException, ExecutionException, TimeoutException {
-    if (isDone()) {
-      return value;
+    long timeoutNs = TimeUnit.NANOSECONDS.convert(timeout, unit);
+    if (!await(Math.max(timeoutNs, 0))) {
+      if (!RCLJava.ok()) {
+        throw new InterruptedException();
+      }
+      throw new TimeoutException();
     }
+    return getValue();
+  }
 
-    long endTime = TimeUnit.NANOSECONDS.convert(System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+  /**
+   * Block until the future is completed, spinning its node or executor if needed.
+   *
+   * @param timeoutNs The maximum time to wait, in nanoseconds, or a negative value to wait
+   *     indefinitely.
+   * @return true if the future was completed, false otherwise.
+   */
+  private boolean await(final long timeoutNs) throws InterruptedException {
+    // The node is spun by an executor private to this call, since the global executor may be
+    // used by other threads at the same time
+    SingleThreadedExecutor nodeExecutor = null;
+    try {
+      final long startTime = System.nanoTime();
+      while (!isDone()) {
+        long remainingNs = -1;
+        if (timeoutNs >= 0) {
+          remainingNs = timeoutNs - (System.nanoTime() - startTime);
+          if (remainingNs <= 0) {
+            return false;
+          }
+        }
 
-    long timeoutNS = TimeUnit.NANOSECONDS.convert(timeout, unit);
+        if (!RCLJava.ok()) {
+          return false;
+        }
 
-    if (timeoutNS > 0) {
-      endTime += timeoutNS;
-    }
+        if (this.executor != null) {
+          this.executor.spinOnce(remainingNs);
+          continue;
+        }
 
-    while (RCLJava.ok()) {
-      if (executor != null) {
-        executor.spinOnce();
-      } else {
-        Node node = nodeReference.get();
-        if (node == null) {
-          return null; // TODO(esteve) do something
+        if (nodeExecutor != null) {
+          nodeExecutor.spinOnce(remainingNs);
+          continue;
         }
-        RCLJava.spinOnce(node);
-      }
 
-      if (isDone()) {
-        return value;
-      }
+        if (this.nodeReference != null) {
+          final Node node = this.nodeReference.get();
+          if (node == null) {
+            return false;
+          }
+          synchronized (nodeExecutorLock) {
+            if (!BaseExecutor.isNodeAdded(node)) {
+              nodeExecutor = new SingleThreadedExecutor();
+              nodeExecutor.addNode(new ComposableNode() {
+                public Node getNode() {
+                  return node;
+                }
+              });
+            }
+          }
+          if (nodeExecutor != null) {
+            continue;
+          }
+          // Check again later in case the executor stops spinning the node
+          if (remainingNs < 0 || remainingNs > NODE_CHECK_INTERVAL_NS) {
+            remainingNs = NODE_CHECK_INTERVAL_NS;
+          }
+        }
 
-      long now = TimeUnit.NANOSECONDS.convert(System.currentTimeMillis(), TimeUnit.MILLISECONDS);
-      if (now >= endTime) {
-        throw new TimeoutException();
+        synchronized (this) {
+          if (!this.done) {
+            if (remainingNs < 0) {
+              this.wait();
+            } else {
+              TimeUnit.NANOSECONDS.timedWait(this, remainingNs);
+            }
+          }
+        }
+      }
+      return true;
+    } finally {
+      if (nodeExecutor != null) {
+        nodeExecutor.dispose();
       }
     }
-    throw new InterruptedException();
   }
 
-  public final boolean isDone() {
+  private synchronized V getValue() throws ExecutionException {
+    if (this.cancelled) {
+      throw new CancellationException();
+    }
+    if (this.exception != null) {
+      throw new ExecutionException(this.exception);
+    }
+    return this.value;
+  }
+
+  public final synchronized boolean isDone() {
     return done;
   }
 
-  public final boolean isCancelled() {
-    return false;
+  public final synchronized boolean isCancelled() {
+    return cancelled;
   }
 
-  public final boolean cancel(final boolean mayInterruptIfRunning) {
-    return false;
+  /**
+   * Cancel the future, unless it was already completed.
+   * Threads waiting for the future are woken up and get a {@link CancellationException}.
+   */
+  public final synchronized boolean cancel(final boolean mayInterruptIfRunning) {
+    if (done) {
+      return false;
+    }
+    cancelled = true;
+    done = true;
+    notifyAll();
+    return true;
   }
 
+  /**
+   * Complete the future with a value, unless it was already completed or cancelled.
+   */
   public final synchronized void set(final V value) {
+    if (done) {
+      return;
+    }
     this.value = value;
     done = true;
+    notifyAll();
+  }
+
+  /**
+   * Complete the future with an error, which waiting threads get wrapped in an
+   * {@link ExecutionException}, unless it was already completed or cancelled.
+   */
+  public final synchronized void setException(final Throwable exception) {
+    if (done) {
+      return;
+    }
+    this.exception = exception;
+    done = true;
+    notifyAll();
   }
 }
@@ -15,6 +15,7 @@
 
 package org.ros2.rcljava.contexts;
 
+import org.ros2.rcljava.concurrent.Callback;
 import org.ros2.rcljava.interfaces.Disposable;
 
 /**
@@ -46,4 +47,15 @@ public interface Context extends Disposable {
    * return true if the Context is valid, false otherwise.
    */
   boolean isValid();
+
+  /**
+   * Register a callback to be called once, right after the context is shut down.
+   * This is used to wake up threads that block on entities of the context, e.g. executors.
+   */
+  void addOnShutdownCallback(Callback callback);
+
+  /**
+   * Unregister a callback added with @{link #addOnShutdownCallback(Callback)}.
+   */
+  void removeOnShutdownCallback(Callback callback);
 }
@@ -15,7 +15,11 @@
 
 package org.ros2.rcljava.contexts;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.ros2.rcljava.common.JNIUtils;
+import org.ros2.rcljava.concurrent.Callback;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +44,11 @@ public class ContextImpl implements Context {
    */
   private long handle;
 
+  /**
+   * Callbacks to call when the context is shut down, cleared once they are called.
+   */
+  private final List<Callback> onShutdownCallbacks = new ArrayList<Callback>();
+
   /**
    * Constructor.
    *
@@ -100,6 +109,14 @@ public class ContextImpl implements Context {
    */
   public final void shutdown() {
     nativeShutdown(this.handle);
+    List<Callback> callbacks;
+    synchronized (this.onShutdownCallbacks) {
+      callbacks = new ArrayList<Callback>(this.onShutdownCallbacks);
+      this.onShutdownCallbacks.clear();
+    }
+    for (Callback callback : callbacks) {
+      callback.call();
+    }
   }
 
   /**
@@ -115,4 +132,22 @@ public class ContextImpl implements Context {
   public final boolean isValid() {
     return nativeIsValid(this.handle);
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final void addOnShutdownCallback(final Callback callback) {
+    synchronized (this.onShutdownCallbacks) {
+      this.onShutdownCallbacks.add(callback);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final void removeOnShutdownCallback(final Callback callback) {
+    synchronized (this.onShutdownCallbacks) {
+      this.onShutdownCallbacks.remove(callback);
+    }
+  }
 }
@@ -17,6 +17,7 @@ package org.ros2.rcljava.executors;
 
 import org.ros2.rcljava.client.Client;
 import org.ros2.rcljava.events.EventHandler;
+import org.ros2.rcljava.subscription.SerializedSubscription;
 import org.ros2.rcljava.subscription.Subscription;
 import org.ros2.rcljava.service.Service;
 import org.ros2.rcljava.timer.Timer;
@@ -24,7 +25,26 @@ import org.ros2.rcljava.timer.Timer;
 public class AnyExecutable {
   public Timer timer;
   public Subscription subscription;
+  public SerializedSubscription serializedSubscription;
   public Service service;
   public Client client;
   public EventHandler eventHandler;
+
+  /**
+   * @return The entity this executable executes a callback of.
+   */
+  public Object getEntity() {
+    if (this.timer != null) {
+      return this.timer;
+    } else if (this.subscription != null) {
+      return this.subscription;
+    } else if (this.serializedSubscription != null) {
+      return this.serializedSubscription;
+    } else if (this.service != null) {
+      return this.service;
+    } else if (this.client != null) {
+      return this.client;
+    }
+    return this.eventHandler;
+  }
 }
@@ -15,32 +15,48 @@
 
 package org.ros2.rcljava.executors;
 
-import java.util.AbstractMap;
+import java.nio.ByteBuffer;
+
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
 import org.ros2.rcljava.client.Client;
 import org.ros2.rcljava.common.JNIUtils;
+import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.consumers.Consumer;
+import org.ros2.rcljava.contexts.Context;
 import org.ros2.rcljava.events.EventHandler;
 import org.ros2.rcljava.executors.AnyExecutable;
 import org.ros2.rcljava.executors.Executor;
+import org.ros2.rcljava.interfaces.Disposable;
 import org.ros2.rcljava.interfaces.MessageDefinition;
 import org.ros2.rcljava.interfaces.ServiceDefinition;
 import org.ros2.rcljava.node.ComposableNode;
+import org.ros2.rcljava.node.Node;
 import org.ros2.rcljava.publisher.Publisher;
 import org.ros2.rcljava.service.RMWRequestId;
 import org.ros2.rcljava.service.Service;
+import org.ros2.rcljava.subscription.SerializedSubscription;
 import org.ros2.rcljava.subscription.Subscription;
 import org.ros2.rcljava.timer.Timer;
 
@@ -56,41 +72,383 @@ public class BaseExecutor {
     }
   }
 
+  /**
+   * How many executors each node has been added to, so that a future can tell whether the
+   * response it waits for will be delivered by an executor or whether it has to spin the node.
+   */
+  private static final Map<Node, Integer> addedNodes = new WeakHashMap<Node, Integer>();
+
   private BlockingQueue<ComposableNode> nodes = new LinkedBlockingQueue<ComposableNode>();
 
-  private List<Map.Entry<Long, Subscription>> subscriptionHandles =
-      new ArrayList<Map.Entry<Long, Subscription>>();
+  /**
+   * Set when a node is added or removed, so the entities are collected again before waiting.
+   */
+  private volatile boolean nodesChanged = true;
+
+  /**
+   * Sum of the entities versions of all the nodes the last time the entities were collected.
+   */
+  private long entitiesVersion = -1;
+
+  /**
+   * If set, the entities created after the entities were collected are ignored until a node is
+   * added or removed, or until {@link #refreshEntities()} is called. The entities that are
+   * disposed are still dropped as soon as the entities versions of the nodes change.
+   */
+  private volatile boolean staticEntities = false;
+
+  /**
+   * A pointer to the long-lived rcl_wait_set_t used by this executor, zero if not created yet.
+   */
+  private long waitSetHandle = 0;
+
+  /**
+   * The context that the wait set was initialized with.
+   */
+  private Context waitSetContext = null;
+
+  /**
+   * A pointer to a rcl_guard_condition_t that is always part of the wait set, used to wake up
+   * a thread blocked waiting for work, zero if not created yet.
+   */
+  private long interruptGuardConditionHandle = 0;
+
+  /**
+   * Held while waiting for work and while getting the next executable, so that
+   * {@link #dispose()} does not free the wait set while a thread still uses it.
+   */
+  private final Object waitLock = new Object();
+
+  /**
+   * Protects the interrupt guard condition from being triggered while it is being disposed.
+   */
+  private final Object interruptGuardConditionLock = new Object();
+
+  /**
+   * Set if @{link #interrupt()} was called before the interrupt guard condition was created,
+   * so that it is triggered as soon as it is.
+   */
+  private boolean interruptPending = false;
+
+  /**
+   * Set while a thread is waiting for work, so releasing an entity wakes it up.
+   */
+  private volatile boolean waiting = false;
+
+  /**
+   * Set while a spin loop runs, cleared by {@link #cancel()} to make it return.
+   */
+  private final AtomicBoolean spinning = new AtomicBoolean(false);
+
+  /**
+   * The context that {@link #cancelCallback} was added to when the spin loop started.
+   */
+  private Context spinningContext = null;
+
+  /**
+   * Cancels the spin loop when the context is shut down.
+   */
+  private final Callback cancelCallback = new Callback() {
+    public void call() {
+      cancel();
+    }
+  };
+
+  /**
+   * Added to every node of this executor, so that a thread waiting on the entities collected
+   * last is woken up when a node creates or disposes an entity.
+   */
+  private final Callback entitiesChangedCallback = new Callback() {
+    public void call() {
+      if (BaseExecutor.this.waiting) {
+        interrupt();
+      }
+    }
+  };
+
+  /**
+   * Entities whose callbacks are currently being executed.
+   * A claimed entity is neither returned by {@link #getNextExecutable()} nor added to the wait
+   * set until it is released, so it never runs twice concurrently. The same applies to the
+   * other entities of its callback group, if that group is mutually exclusive.
+   */
+  private final Set<Object> claimed =
+      Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+
+  private final List<Subscription> subscriptions = new ArrayList<Subscription>();
+
+  private final List<SerializedSubscription> serializedSubscriptions =
+      new ArrayList<SerializedSubscription>();
+
+  private final List<Timer> timers = new ArrayList<Timer>();
+
+  private final List<Service> services = new ArrayList<Service>();
+
+  private final List<Client> clients = new ArrayList<Client>();
+
+  private final List<EventHandler> eventHandlers = new ArrayList<EventHandler>();
+
+  /**
+   * Timers are not added to the wait set. Instead, the wait times out when the first timer
+   * is due, and the due timers are taken from this queue.
+   */
+  private final TimerQueue timerQueue = new TimerQueue(new Callback() {
+    public void call() {
+      if (BaseExecutor.this.waiting) {
+        // The wait may time out too late for the timer that was reset
+        interrupt();
+      }
+    }
+  });
+
+  /**
+   * Due timers that could not be executed yet because their callback group was busy.
+   */
+  private final List<Timer> blockedTimers = new ArrayList<Timer>();
+
+  private static final long[] NO_HANDLES = new long[0];
+
+  private long[] subscriptionHandles = new long[0];
+
+  private long[] serializedSubscriptionHandles = new long[0];
+
+  private long[] serviceHandles = new long[0];
+
+  private long[] clientHandles = new long[0];
+
+  private long[] eventHandles = new long[0];
 
-  private List<Map.Entry<Long, Timer>> timerHandles = new ArrayList<Map.Entry<Long, Timer>>();
+  /**
+   * Readiness of every entity in the wait set, one byte per entity, in the same order the
+   * entities are added to the wait set: subscriptions, serialized subscriptions, clients,
+   * services and events.
+   * This is filled natively in a single call after each wait.
+   */
+  private ByteBuffer readiness = ByteBuffer.allocateDirect(1);
 
-  private List<Map.Entry<Long, Service>> serviceHandles = new ArrayList<Map.Entry<Long, Service>>();
+  private final Queue<Timer> readyTimers = new ArrayDeque<Timer>();
 
-  private List<Map.Entry<Long, Client>> clientHandles = new ArrayList<Map.Entry<Long, Client>>();
+  /**
+   * Decides in which order the ready executables are executed.
+   */
+  private final SchedulingPolicy schedulingPolicy;
 
-  private List<Map.Entry<Long, EventHandler>> eventHandles = new ArrayList<Map.Entry<Long, EventHandler>>();
+  private final List<AnyExecutable> notExecuted = new ArrayList<AnyExecutable>();
+
+  public BaseExecutor() {
+    this(new FifoSchedulingPolicy());
+  }
+
+  public BaseExecutor(final SchedulingPolicy schedulingPolicy) {
+    this.schedulingPolicy = schedulingPolicy;
+  }
 
   protected void addNode(ComposableNode node) {
     this.nodes.add(node);
+    this.nodesChanged = true;
+    synchronized (addedNodes) {
+      Integer count = addedNodes.get(node.getNode());
+      addedNodes.put(node.getNode(), count == null ? 1 : count + 1);
+    }
+    node.getNode().addEntitiesChangedCallback(this.entitiesChangedCallback);
+    if (this.waiting) {
+      interrupt();
+    }
   }
 
   protected void removeNode(ComposableNode node) {
-    this.nodes.remove(node);
+    if (this.nodes.remove(node)) {
+      node.getNode().removeEntitiesChangedCallback(this.entitiesChangedCallback);
+      synchronized (addedNodes) {
+        Integer count = addedNodes.get(node.getNode());
+        if (count != null && count > 1) {
+          addedNodes.put(node.getNode(), count - 1);
+        } else {
+          addedNodes.remove(node.getNode());
+        }
+      }
+    }
+    this.nodesChanged = true;
+    if (this.waiting) {
+      interrupt();
+    }
+  }
+
+  /**
+   * Cancel the spin loop, remove all the nodes and free the wait set and the interrupt guard
+   * condition, once the thread waiting for work, if any, has woken up.
+   * The wait set is created again if the executor is used afterwards.
+   */
+  protected void dispose() {
+    cancel();
+    synchronized (this.waitLock) {
+      for (ComposableNode node : new ArrayList<ComposableNode>(this.nodes)) {
+        removeNode(node);
+      }
+      this.schedulingPolicy.drainTo(this.notExecuted);
+      this.notExecuted.clear();
+      this.blockedTimers.clear();
+      this.readyTimers.clear();
+      collectEntities();
+      disposeWaitSet();
+      synchronized (this.spinning) {
+        if (this.spinningContext != null) {
+          // The spin loop has not returned yet, make sure its next wait does not block
+          synchronized (this.interruptGuardConditionLock) {
+            this.interruptPending = true;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * @return true if the node was added to an executor, and was not removed since.
+   */
+  public static boolean isNodeAdded(Node node) {
+    synchronized (addedNodes) {
+      return addedNodes.containsKey(node);
+    }
+  }
+
+  protected void setStaticEntities(boolean staticEntities) {
+    this.staticEntities = staticEntities;
+  }
+
+  /**
+   * Collect the entities of the nodes again before the next wait.
+   */
+  protected void refreshEntities() {
+    this.nodesChanged = true;
+    if (this.waiting) {
+      interrupt();
+    }
+  }
+
+  /**
+   * Mark the executor as spinning, until {@link #cancel()} or {@link #stopSpinning()} is called
+   * or the context is shut down.
+   *
+   * @throws IllegalStateException if the executor is already spinning.
+   */
+  protected void startSpinning() {
+    if (!this.spinning.compareAndSet(false, true)) {
+      throw new IllegalStateException("The executor is already spinning");
+    }
+    Context context = RCLJava.getDefaultContext();
+    synchronized (this.spinning) {
+      if (this.spinningContext != null) {
+        this.spinningContext.removeOnShutdownCallback(this.cancelCallback);
+      }
+      this.spinningContext = context;
+      context.addOnShutdownCallback(this.cancelCallback);
+    }
+  }
+
+  /**
+   * Called by the spin loop when it returns.
+   */
+  protected void stopSpinning() {
+    this.spinning.set(false);
+    synchronized (this.spinning) {
+      if (this.spinningContext != null) {
+        this.spinningContext.removeOnShutdownCallback(this.cancelCallback);
+        this.spinningContext = null;
+      }
+    }
+  }
+
+  /**
+   * @return true until the spin loop is cancelled.
+   */
+  protected boolean isSpinning() {
+    return this.spinning.get();
+  }
+
+  /**
+   * Make the spin loop return, waking it up if it is waiting for work.
+   * Callbacks that are being executed are not interrupted.
+   */
+  protected void cancel() {
+    if (this.spinning.getAndSet(false)) {
+      interrupt();
+    }
+  }
+
+  /**
+   * Execute callbacks on the calling thread until the executor is cancelled or the context is
+   * shut down.
+   */
+  protected void spin() {
+    startSpinning();
+    try {
+      while (RCLJava.ok() && isSpinning()) {
+        spinOnce(-1);
+      }
+    } finally {
+      stopSpinning();
+    }
+  }
+
+  /**
+   * Wait for work and hand every ready executable over to a dispatcher, until the executor is
+   * cancelled or the context is shut down.
+   * This is the loop of the threads that only wait for work, while the callbacks are executed
+   * elsewhere.
+   *
+   * @param dispatcher Called with every ready executable, whose entity stays claimed until it
+   *     is released with {@link #releaseAnyExecutable(AnyExecutable)}.
+   */
+  protected void dispatchReady(Consumer<AnyExecutable> dispatcher) {
+    while (RCLJava.ok() && isSpinning()) {
+      waitForWork(-1, true);
+      AnyExecutable anyExecutable;
+      while ((anyExecutable = getNextExecutable()) != null) {
+        dispatcher.accept(anyExecutable);
+      }
+    }
   }
 
   protected void executeAnyExecutable(AnyExecutable anyExecutable) {
     if (anyExecutable.timer != null) {
       anyExecutable.timer.callTimer();
       anyExecutable.timer.executeCallback();
-      timerHandles.remove(anyExecutable.timer.getHandle());
     }
 
-    if (anyExecutable.subscription != null) {
-      MessageDefinition message = nativeTake(
-          anyExecutable.subscription.getHandle(), anyExecutable.subscription.getMessageType());
+    if (anyExecutable.serializedSubscription != null) {
+      SerializedSubscription subscription = anyExecutable.serializedSubscription;
+      long length = nativeTakeSerialized(
+          subscription.getHandle(), subscription.getSerializedMessageHandle());
+      if (length >= 0) {
+        subscription.executeSerializedCallback(length);
+      }
+    }
+
+    if (anyExecutable.subscription != null &&
+        anyExecutable.subscription.getMaxTakeBatch() > 1) {
+      Subscription subscription = anyExecutable.subscription;
+      MessageDefinition[] messages = new MessageDefinition[subscription.getMaxTakeBatch()];
+      for (int i = 0; i < messages.length; i++) {
+        messages[i] = subscription.peekReusedMessage(i);
+      }
+      int taken = nativeTakeBatch(subscription.getHandle(),
+          subscription.getFromJavaConverterHandle(), subscription.getToJavaConverterHandle(),
+          subscription.getDestructorHandle(), subscription.getMessageTemplate(), messages);
+      subscription.consumeReusedMessages(taken);
+      for (int i = 0; i < taken; i++) {
+        subscription.executeCallback(messages[i]);
+      }
+    } else if (anyExecutable.subscription != null) {
+      Subscription subscription = anyExecutable.subscription;
+      MessageDefinition message = nativeTake(subscription.getHandle(),
+          subscription.getFromJavaConverterHandle(), subscription.getToJavaConverterHandle(),
+          subscription.getDestructorHandle(), subscription.getMessageTemplate(),
+          subscription.peekReusedMessage(0));
       if (message != null) {
+        // Nothing may have been taken after all, in which case the instance was not used
+        subscription.consumeReusedMessages(1);
         anyExecutable.subscription.executeCallback(message);
       }
-      subscriptionHandles.remove(anyExecutable.subscription.getHandle());
     }
 
     if (anyExecutable.service != null) {
@@ -113,21 +471,17 @@ public class BaseExecutor {
         long requestFromJavaConverterHandle = requestMessage.getFromJavaConverterInstance();
         long requestToJavaConverterHandle = requestMessage.getToJavaConverterInstance();
         long requestDestructorHandle = requestMessage.getDestructorInstance();
-        long responseFromJavaConverterHandle = responseMessage.getFromJavaConverterInstance();
-        long responseToJavaConverterHandle = responseMessage.getToJavaConverterInstance();
-        long responseDestructorHandle = responseMessage.getDestructorInstance();
 
         RMWRequestId rmwRequestId =
             nativeTakeRequest(anyExecutable.service.getHandle(), requestFromJavaConverterHandle,
                 requestToJavaConverterHandle, requestDestructorHandle, requestMessage);
         if (rmwRequestId != null) {
           anyExecutable.service.executeCallback(rmwRequestId, requestMessage, responseMessage);
-          nativeSendServiceResponse(anyExecutable.service.getHandle(), rmwRequestId,
-              responseFromJavaConverterHandle, responseToJavaConverterHandle,
-              responseDestructorHandle, responseMessage);
+          if (!anyExecutable.service.isResponseDeferred()) {
+            anyExecutable.service.sendResponse(rmwRequestId, responseMessage);
+          }
         }
       }
-      serviceHandles.remove(anyExecutable.service.getHandle());
     }
 
     if (anyExecutable.client != null) {
@@ -161,224 +515,492 @@ public class BaseExecutor {
           anyExecutable.client.handleResponse(rmwRequestId, responseMessage);
         }
       }
-      clientHandles.remove(anyExecutable.client.getHandle());
     }
 
     if (anyExecutable.eventHandler != null) {
       anyExecutable.eventHandler.executeCallback();
-      eventHandles.remove(anyExecutable.eventHandler.getHandle());
     }
   }
 
-  protected void waitForWork(long timeout) {
-    this.subscriptionHandles.clear();
-    this.timerHandles.clear();
-    this.serviceHandles.clear();
-    this.clientHandles.clear();
-    this.eventHandles.clear();
+  private long getEntitiesVersion() {
+    long version = 0;
+    for (ComposableNode node : this.nodes) {
+      version += node.getNode().getEntitiesVersion();
+    }
+    return version;
+  }
+
+  private static long[] getHandles(List<? extends Disposable> entities) {
+    long[] handles = new long[entities.size()];
+    for (int i = 0; i < handles.length; ++i) {
+      handles[i] = entities.get(i).getHandle();
+    }
+    return handles;
+  }
+
+  private void collectEntities() {
+    collectEntities(false);
+  }
+
+  /**
+   * @param onlyCollected If set, do not add the entities that were not collected last time,
+   *     only drop the ones that were removed from their nodes.
+   */
+  private void collectEntities(boolean onlyCollected) {
+    Set<Object> collected = null;
+    if (onlyCollected) {
+      collected = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+      collected.addAll(this.subscriptions);
+      collected.addAll(this.serializedSubscriptions);
+      collected.addAll(this.timers);
+      collected.addAll(this.services);
+      collected.addAll(this.clients);
+      collected.addAll(this.eventHandlers);
+    }
+
+    this.subscriptions.clear();
+    this.serializedSubscriptions.clear();
+    this.timers.clear();
+    this.services.clear();
+    this.clients.clear();
+    this.eventHandlers.clear();
 
     for (ComposableNode node : this.nodes) {
       for (Subscription<MessageDefinition> subscription : node.getNode().getSubscriptions()) {
-        this.subscriptionHandles.add(new AbstractMap.SimpleEntry<Long, Subscription>(
-            subscription.getHandle(), subscription));
-        Collection<EventHandler> eventHandlers = subscription.getEventHandlers();
-        for (EventHandler eventHandler : eventHandlers) {
-          this.eventHandles.add(new AbstractMap.SimpleEntry<Long, EventHandler>(
-            eventHandler.getHandle(), eventHandler));
-        }
+        this.subscriptions.add(subscription);
+        this.eventHandlers.addAll(subscription.getEventHandlers());
       }
 
+      this.serializedSubscriptions.addAll(node.getNode().getSerializedSubscriptions());
+
       for (Publisher publisher : node.getNode().getPublishers()) {
-        Collection<EventHandler> eventHandlers = publisher.getEventHandlers();
-        for (EventHandler eventHandler : eventHandlers) {
-          this.eventHandles.add(new AbstractMap.SimpleEntry<Long, EventHandler>(
-            eventHandler.getHandle(), eventHandler));
-        }
+        Collection<EventHandler> publisherEventHandlers = publisher.getEventHandlers();
+        this.eventHandlers.addAll(publisherEventHandlers);
       }
 
-      for (Timer timer : node.getNode().getTimers()) {
-        this.timerHandles.add(new AbstractMap.SimpleEntry<Long, Timer>(timer.getHandle(), timer));
-      }
+      this.timers.addAll(node.getNode().getTimers());
+      this.services.addAll(node.getNode().getServices());
+      this.clients.addAll(node.getNode().getClients());
+    }
 
-      for (Service<ServiceDefinition> service : node.getNode().getServices()) {
-        this.serviceHandles.add(
-            new AbstractMap.SimpleEntry<Long, Service>(service.getHandle(), service));
-      }
+    if (collected != null) {
+      this.subscriptions.retainAll(collected);
+      this.serializedSubscriptions.retainAll(collected);
+      this.timers.retainAll(collected);
+      this.services.retainAll(collected);
+      this.clients.retainAll(collected);
+      this.eventHandlers.retainAll(collected);
+    }
 
-      for (Client<ServiceDefinition> client : node.getNode().getClients()) {
-        this.clientHandles.add(
-            new AbstractMap.SimpleEntry<Long, Client>(client.getHandle(), client));
+    this.subscriptionHandles = getHandles(this.subscriptions);
+    this.serializedSubscriptionHandles = getHandles(this.serializedSubscriptions);
+    this.serviceHandles = getHandles(this.services);
+    this.clientHandles = getHandles(this.clients);
+    this.eventHandles = getHandles(this.eventHandlers);
+
+    this.timerQueue.setTimers(this.timers);
+    Iterator<Timer> blockedTimers = this.blockedTimers.iterator();
+    while (blockedTimers.hasNext()) {
+      Timer timer = blockedTimers.next();
+      if (!this.timerQueue.contains(timer)) {
+        blockedTimers.remove();
+        this.timerQueue.release(timer);
       }
     }
 
-    int subscriptionsSize = 0;
-    int timersSize = 0;
-    int clientsSize = 0;
-    int servicesSize = 0;
-    int eventsSize = this.eventHandles.size();
-
-    for (ComposableNode node : this.nodes) {
-      subscriptionsSize += node.getNode().getSubscriptions().size();
-      timersSize += node.getNode().getTimers().size();
-      clientsSize += node.getNode().getClients().size();
-      servicesSize += node.getNode().getServices().size();
+    int numberOfEntities = this.subscriptionHandles.length
+        + this.serializedSubscriptionHandles.length + this.clientHandles.length
+        + this.serviceHandles.length + this.eventHandles.length;
+    if (this.readiness.capacity() < numberOfEntities) {
+      this.readiness = ByteBuffer.allocateDirect(numberOfEntities);
     }
+  }
 
-    if (subscriptionsSize == 0 && timersSize == 0 && clientsSize == 0 && servicesSize == 0) {
-      return;
+  private void disposeWaitSet() {
+    synchronized (this.interruptGuardConditionLock) {
+      if (this.interruptGuardConditionHandle != 0) {
+        long guardConditionHandle = this.interruptGuardConditionHandle;
+        this.interruptGuardConditionHandle = 0;
+        nativeDisposeGuardCondition(guardConditionHandle);
+      }
     }
-
-    long waitSetHandle = nativeGetZeroInitializedWaitSet();
-    long contextHandle = RCLJava.getDefaultContext().getHandle();
-    nativeWaitSetInit(
-      waitSetHandle, contextHandle, subscriptionsSize, 0,
-      timersSize, clientsSize, servicesSize, eventsSize);
-
-    nativeWaitSetClear(waitSetHandle);
-
-    for (Map.Entry<Long, Subscription> entry : this.subscriptionHandles) {
-      nativeWaitSetAddSubscription(waitSetHandle, entry.getKey());
+    if (this.waitSetHandle != 0) {
+      long waitSetHandle = this.waitSetHandle;
+      this.waitSetHandle = 0;
+      this.waitSetContext = null;
+      nativeDisposeWaitSet(waitSetHandle);
     }
+  }
 
-    for (Map.Entry<Long, Timer> entry : this.timerHandles) {
-      nativeWaitSetAddTimer(waitSetHandle, entry.getKey());
+  /**
+   * Wake up a thread blocked in {@link #waitForWork(long)}, or make the next wait return right
+   * away if no thread is waiting.
+   */
+  protected void interrupt() {
+    synchronized (this.interruptGuardConditionLock) {
+      if (this.interruptGuardConditionHandle != 0) {
+        nativeTriggerGuardCondition(this.interruptGuardConditionHandle);
+      } else {
+        this.interruptPending = true;
+      }
     }
+  }
 
-    for (Map.Entry<Long, Service> entry : this.serviceHandles) {
-      nativeWaitSetAddService(waitSetHandle, entry.getKey());
+  static CallbackGroup getCallbackGroup(Object entity) {
+    if (entity instanceof Subscription) {
+      return ((Subscription) entity).getCallbackGroup();
+    } else if (entity instanceof SerializedSubscription) {
+      return ((SerializedSubscription) entity).getCallbackGroup();
+    } else if (entity instanceof Timer) {
+      return ((Timer) entity).getCallbackGroup();
+    } else if (entity instanceof Service) {
+      return ((Service) entity).getCallbackGroup();
+    } else if (entity instanceof Client) {
+      return ((Client) entity).getCallbackGroup();
+    } else if (entity instanceof EventHandler) {
+      // As in rclcpp, event handlers are executed in the callback group of their parent
+      Object parent = ((EventHandler) entity).getParentReference().get();
+      return parent != null ? getCallbackGroup(parent) : null;
     }
+    return null;
+  }
 
-    for (Map.Entry<Long, Client> entry : this.clientHandles) {
-      nativeWaitSetAddClient(waitSetHandle, entry.getKey());
+  /**
+   * Claim an entity so it is not executed again until released.
+   * If the entity belongs to a callback group, the group is acquired as well.
+   *
+   * @return true if the entity was claimed, false if it or its mutually exclusive callback group
+   *     was already claimed.
+   */
+  protected boolean claim(Object entity) {
+    if (!this.claimed.add(entity)) {
+      return false;
+    }
+    CallbackGroup callbackGroup = getCallbackGroup(entity);
+    if (callbackGroup != null && !callbackGroup.tryAcquire()) {
+      this.claimed.remove(entity);
+      return false;
     }
+    return true;
+  }
 
-    for (Map.Entry<Long, EventHandler> entry : this.eventHandles) {
-      nativeWaitSetAddEvent(waitSetHandle, entry.getKey());
+  /**
+   * Release an entity previously claimed with {@link #claim(Object)}.
+   */
+  protected void release(Object entity) {
+    if (!this.claimed.contains(entity)) {
+      return;
+    }
+    CallbackGroup callbackGroup = getCallbackGroup(entity);
+    if (callbackGroup != null) {
+      callbackGroup.release();
+    }
+    if (entity instanceof Timer) {
+      this.timerQueue.release((Timer) entity);
     }
+    this.claimed.remove(entity);
+    if (this.waiting) {
+      // The entity, or other entities of its callback group, were left out of the wait set
+      // the waiting thread is blocked on
+      interrupt();
+    }
+  }
 
-    nativeWait(waitSetHandle, timeout);
+  /**
+   * Release the entity held by an executable returned by {@link #getNextExecutable()}.
+   */
+  protected void releaseAnyExecutable(AnyExecutable anyExecutable) {
+    if (anyExecutable.timer != null) {
+      release(anyExecutable.timer);
+    }
+    if (anyExecutable.subscription != null) {
+      release(anyExecutable.subscription);
+    }
+    if (anyExecutable.serializedSubscription != null) {
+      release(anyExecutable.serializedSubscription);
+    }
+    if (anyExecutable.service != null) {
+      release(anyExecutable.service);
+    }
+    if (anyExecutable.client != null) {
+      release(anyExecutable.client);
+    }
+    if (anyExecutable.eventHandler != null) {
+      release(anyExecutable.eventHandler);
+    }
+  }
 
-    for (int i = 0; i < this.subscriptionHandles.size(); ++i) {
-      if (!nativeWaitSetSubscriptionIsReady(waitSetHandle, i)) {
-        this.subscriptionHandles.get(i).setValue(null);
-      }
+  private void executeAndRelease(AnyExecutable anyExecutable) {
+    try {
+      executeAnyExecutable(anyExecutable);
+    } finally {
+      releaseAnyExecutable(anyExecutable);
     }
+  }
 
-    for (int i = 0; i < this.timerHandles.size(); ++i) {
-      if (!nativeWaitSetTimerIsReady(waitSetHandle, i)) {
-        this.timerHandles.get(i).setValue(null);
-      }
+  /**
+   * Make sure the wait set matches the entities of the nodes of this executor.
+   *
+   * The entities are only collected again, and the wait set resized, when a node was added or
+   * removed, or when any of the nodes reports that its entities changed.
+   * In the steady state this is a field read per node.
+   */
+  private void updateWaitSet() {
+    Context context = RCLJava.getDefaultContext();
+    boolean upToDate = this.waitSetHandle != 0 && this.waitSetContext == context
+        && !this.nodesChanged;
+    long version = getEntitiesVersion();
+    if (upToDate && version == this.entitiesVersion) {
+      return;
     }
 
-    for (int i = 0; i < this.serviceHandles.size(); ++i) {
-      if (!nativeWaitSetServiceIsReady(waitSetHandle, i)) {
-        this.serviceHandles.get(i).setValue(null);
+    // Read the flag and the version before collecting, so that any change that happens while
+    // collecting triggers another update in the next wait.
+    this.nodesChanged = false;
+    this.entitiesVersion = version;
+    // With static entities, a version change only drops the entities that were disposed
+    collectEntities(upToDate && this.staticEntities);
+
+    if (this.waitSetContext != context) {
+      // The wait set is bound to the context it was initialized with. The interrupt guard
+      // condition goes with it, and it may have been triggered already.
+      synchronized (this.interruptGuardConditionLock) {
+        this.interruptPending |= this.waitSetContext != null;
       }
+      disposeWaitSet();
     }
 
-    for (int i = 0; i < this.clientHandles.size(); ++i) {
-      if (!nativeWaitSetClientIsReady(waitSetHandle, i)) {
-        this.clientHandles.get(i).setValue(null);
+    if (this.waitSetHandle == 0) {
+      long waitSetHandle = nativeGetZeroInitializedWaitSet();
+      try {
+        nativeWaitSetInit(waitSetHandle, context.getHandle(), getNumberOfSubscriptions(), 1, 0,
+            this.clients.size(), this.services.size(), this.eventHandlers.size());
+      } catch (RuntimeException e) {
+        nativeDisposeWaitSet(waitSetHandle);
+        throw e;
       }
+      this.waitSetHandle = waitSetHandle;
+      this.waitSetContext = context;
+      synchronized (this.interruptGuardConditionLock) {
+        this.interruptGuardConditionHandle = nativeCreateGuardCondition(context.getHandle());
+        if (this.interruptPending) {
+          this.interruptPending = false;
+          nativeTriggerGuardCondition(this.interruptGuardConditionHandle);
+        }
+      }
+    } else {
+      nativeWaitSetResize(this.waitSetHandle, getNumberOfSubscriptions(), 1, 0,
+          this.clients.size(), this.services.size(), this.eventHandlers.size());
     }
+  }
 
-    for (int i = 0; i < this.eventHandles.size(); ++i) {
-      if (!nativeWaitSetEventIsReady(waitSetHandle, i)) {
-        this.eventHandles.get(i).setValue(null);
-      }
+  /**
+   * @return The number of subscriptions in the wait set, serialized ones included.
+   */
+  private int getNumberOfSubscriptions() {
+    return this.subscriptions.size() + this.serializedSubscriptions.size();
+  }
+
+  private boolean canBeTaken(Object entity) {
+    if (this.claimed.contains(entity)) {
+      return false;
     }
+    CallbackGroup callbackGroup = getCallbackGroup(entity);
+    return callbackGroup == null || callbackGroup.canBeTakenFrom();
+  }
 
-    Iterator<Map.Entry<Long, Subscription>> subscriptionIterator =
-        this.subscriptionHandles.iterator();
-    while (subscriptionIterator.hasNext()) {
-      Map.Entry<Long, Subscription> entry = subscriptionIterator.next();
-      if (entry.getValue() == null) {
-        subscriptionIterator.remove();
+  private <T> List<T> getUnclaimed(List<T> entities) {
+    if (this.claimed.isEmpty()) {
+      return entities;
+    }
+    List<T> unclaimed = new ArrayList<T>(entities.size());
+    for (T entity : entities) {
+      if (canBeTaken(entity)) {
+        unclaimed.add(entity);
       }
     }
+    return unclaimed;
+  }
 
-    Iterator<Map.Entry<Long, Timer>> timerIterator = this.timerHandles.iterator();
-    while (timerIterator.hasNext()) {
-      Map.Entry<Long, Timer> entry = timerIterator.next();
-      if (entry.getValue() == null) {
-        timerIterator.remove();
-      }
+  private static long[] getHandles(List<? extends Disposable> entities,
+      List<? extends Disposable> allEntities, long[] allHandles) {
+    if (entities == allEntities) {
+      return allHandles;
     }
+    return getHandles(entities);
+  }
 
-    Iterator<Map.Entry<Long, Service>> serviceIterator = this.serviceHandles.iterator();
-    while (serviceIterator.hasNext()) {
-      Map.Entry<Long, Service> entry = serviceIterator.next();
-      if (entry.getValue() == null) {
-        serviceIterator.remove();
-      }
+  private static long[] concat(long[] first, long[] second) {
+    if (second.length == 0) {
+      return first;
     }
+    long[] handles = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, handles, first.length, second.length);
+    return handles;
+  }
 
-    Iterator<Map.Entry<Long, Client>> clientIterator = this.clientHandles.iterator();
-    while (clientIterator.hasNext()) {
-      Map.Entry<Long, Client> entry = clientIterator.next();
-      if (entry.getValue() == null) {
-        clientIterator.remove();
-      }
+  protected boolean waitForWork(long timeout) {
+    return waitForWork(timeout, false);
+  }
+
+  /**
+   * Wait until any entity is ready or the timeout elapses, and collect the ready entities.
+   *
+   * @param timeout Maximum time to wait in nanoseconds, a negative value waits forever.
+   * @param waitWhenEmpty If false, return right away when there are no entities to wait on.
+   *     Otherwise wait anyway, until woken up with {@link #interrupt()}.
+   * @return false if it returned right away because there were no entities to wait on.
+   */
+  protected boolean waitForWork(long timeout, boolean waitWhenEmpty) {
+    synchronized (this.waitLock) {
+      return waitForWorkLocked(timeout, waitWhenEmpty);
     }
+  }
 
-    Iterator<Map.Entry<Long, EventHandler>> eventIterator = this.eventHandles.iterator();
-    while (eventIterator.hasNext()) {
-      Map.Entry<Long, EventHandler> entry = eventIterator.next();
-      if (entry.getValue() == null) {
-        eventIterator.remove();
+  private boolean waitForWorkLocked(long timeout, boolean waitWhenEmpty) {
+    // The executables that were not executed are found again by this wait if they are still
+    // ready, except for due timers, which stay due until they are executed
+    this.schedulingPolicy.drainTo(this.notExecuted);
+    for (AnyExecutable anyExecutable : this.notExecuted) {
+      if (anyExecutable.timer != null) {
+        this.blockedTimers.add(anyExecutable.timer);
       }
     }
+    this.notExecuted.clear();
 
-    nativeDisposeWaitSet(waitSetHandle);
-  }
+    // Setting this before collecting the entities and looking at the claimed ones makes sure
+    // that an entity created or released concurrently is either added to the wait set or wakes
+    // the wait up.
+    this.waiting = true;
+    try {
+      updateWaitSet();
 
-  protected AnyExecutable getNextExecutable() {
-    AnyExecutable anyExecutable = new AnyExecutable();
+      if (!waitWhenEmpty && getNumberOfSubscriptions() == 0 && this.timers.isEmpty()
+          && this.clients.isEmpty() && this.services.isEmpty()) {
+        return false;
+      }
 
-    for (Map.Entry<Long, Timer> entry : this.timerHandles) {
-      if (entry.getValue() != null) {
-        Timer timer = entry.getValue();
-        if (timer.isReady()) {
-          anyExecutable.timer = timer;
-          entry.setValue(null);
-          return anyExecutable;
+      Iterator<Timer> blockedTimers = this.blockedTimers.iterator();
+      while (blockedTimers.hasNext()) {
+        Timer timer = blockedTimers.next();
+        if (canBeTaken(timer)) {
+          blockedTimers.remove();
+          this.readyTimers.add(timer);
         }
       }
-    }
 
-    for (Map.Entry<Long, Subscription> entry : this.subscriptionHandles) {
-      if (entry.getValue() != null) {
-        anyExecutable.subscription = entry.getValue();
-        entry.setValue(null);
-        return anyExecutable;
+      List<Subscription> subscriptions = getUnclaimed(this.subscriptions);
+      List<SerializedSubscription> serializedSubscriptions =
+          getUnclaimed(this.serializedSubscriptions);
+      List<Client> clients = getUnclaimed(this.clients);
+      List<Service> services = getUnclaimed(this.services);
+      List<EventHandler> eventHandlers = getUnclaimed(this.eventHandlers);
+
+      // rcl_wait leaves only the ready entities in the wait set, so it has to be filled again
+      // before every wait. This is done natively in a single call.
+      nativeWaitSetFill(this.waitSetHandle,
+          concat(getHandles(subscriptions, this.subscriptions, this.subscriptionHandles),
+              getHandles(serializedSubscriptions, this.serializedSubscriptions,
+                  this.serializedSubscriptionHandles)),
+          new long[] {this.interruptGuardConditionHandle},
+          NO_HANDLES,
+          getHandles(clients, this.clients, this.clientHandles),
+          getHandles(services, this.services, this.serviceHandles),
+          getHandles(eventHandlers, this.eventHandlers, this.eventHandles));
+
+      // Wait no longer than until the next timer is due, or not at all if a timer is due
+      long waitTimeout = timeout;
+      if (!this.readyTimers.isEmpty()) {
+        waitTimeout = 0;
+      } else {
+        long timeUntilNextTimer = this.timerQueue.getTimeUntilNextWakeup(System.nanoTime());
+        if (timeUntilNextTimer >= 0 && (waitTimeout < 0 || timeUntilNextTimer < waitTimeout)) {
+          waitTimeout = timeUntilNextTimer;
+        }
       }
-    }
 
-    for (Map.Entry<Long, Service> entry : this.serviceHandles) {
-      if (entry.getValue() != null) {
-        anyExecutable.service = entry.getValue();
-        entry.setValue(null);
-        return anyExecutable;
+      nativeWait(this.waitSetHandle, waitTimeout);
+      nativeWaitSetGetReadiness(this.waitSetHandle, this.readiness);
+
+      this.timerQueue.takeDue(System.nanoTime(), this.readyTimers);
+      Timer timer;
+      while ((timer = this.readyTimers.poll()) != null) {
+        AnyExecutable anyExecutable = new AnyExecutable();
+        anyExecutable.timer = timer;
+        this.schedulingPolicy.add(anyExecutable);
       }
+
+      // The readiness buffer is laid out according to the size of the wait set, which may be
+      // larger than the number of entities that were actually added to it.
+      // Serialized subscriptions follow the subscriptions that were added to the wait set
+      int serializedSubscriptionsOffset = subscriptions.size();
+      int clientsOffset = getNumberOfSubscriptions();
+      int servicesOffset = clientsOffset + this.clients.size();
+      int eventHandlersOffset = servicesOffset + this.services.size();
+
+      // Timers first, then subscriptions, services, clients and events
+      collectReady(subscriptions, 0);
+      collectReady(serializedSubscriptions, serializedSubscriptionsOffset);
+      collectReady(services, servicesOffset);
+      collectReady(clients, clientsOffset);
+      collectReady(eventHandlers, eventHandlersOffset);
+      return true;
+    } finally {
+      this.waiting = false;
     }
+  }
 
-    for (Map.Entry<Long, Client> entry : this.clientHandles) {
-      if (entry.getValue() != null) {
-        anyExecutable.client = entry.getValue();
-        entry.setValue(null);
-        return anyExecutable;
+  private void collectReady(List<?> entities, int offset) {
+    int size = entities.size();
+    for (int i = 0; i < size; ++i) {
+      if (this.readiness.get(offset + i) != 0) {
+        this.schedulingPolicy.add(toAnyExecutable(entities.get(i)));
       }
     }
+  }
+
+  private static AnyExecutable toAnyExecutable(Object entity) {
+    AnyExecutable anyExecutable = new AnyExecutable();
+    if (entity instanceof Subscription) {
+      anyExecutable.subscription = (Subscription) entity;
+    } else if (entity instanceof SerializedSubscription) {
+      anyExecutable.serializedSubscription = (SerializedSubscription) entity;
+    } else if (entity instanceof Service) {
+      anyExecutable.service = (Service) entity;
+    } else if (entity instanceof Client) {
+      anyExecutable.client = (Client) entity;
+    } else {
+      anyExecutable.eventHandler = (EventHandler) entity;
+    }
+    return anyExecutable;
+  }
 
-    for (Map.Entry<Long, EventHandler> entry : this.eventHandles) {
-      if (entry.getValue() != null) {
-        anyExecutable.eventHandler = entry.getValue();
-        entry.setValue(null);
+  /**
+   * Get the next ready executable and claim its entity.
+   *
+   * The entity has to be released with {@link #releaseAnyExecutable(AnyExecutable)} once the
+   * executable has been executed.
+   */
+  protected AnyExecutable getNextExecutable() {
+    synchronized (this.waitLock) {
+      AnyExecutable anyExecutable;
+      while ((anyExecutable = this.schedulingPolicy.poll()) != null) {
+        Timer timer = anyExecutable.timer;
+        if (!claim(anyExecutable.getEntity())) {
+          if (timer != null) {
+            // Its callback group is busy, keep it until the group is released
+            this.blockedTimers.add(timer);
+          }
+          continue;
+        }
+        if (timer != null && !timer.isReady()) {
+          release(timer);
+          continue;
+        }
         return anyExecutable;
       }
+      return null;
     }
-
-    return null;
   }
 
   private boolean maxDurationNotElapsed(long maxDurationNs, long startNs) {
@@ -403,7 +1025,7 @@ public class BaseExecutor {
       }
       AnyExecutable anyExecutable = getNextExecutable();
       if (anyExecutable != null) {
-        executeAnyExecutable(anyExecutable);
+        executeAndRelease(anyExecutable);
       } else {
         if (!workAvailable || !exhaustive) {
           break;
@@ -429,7 +1051,7 @@ public class BaseExecutor {
     }
 
     if (anyExecutable != null) {
-      executeAnyExecutable(anyExecutable);
+      executeAndRelease(anyExecutable);
     }
   }
 
@@ -442,43 +1064,68 @@ public class BaseExecutor {
       int numberOfGuardConditions, int numberOfTimers, int numberOfClients,
       int numberOfServices, int numberOfEvents);
 
-  private static native void nativeWaitSetClear(long waitSetHandle);
-
-  private static native void nativeWaitSetAddSubscription(
-      long waitSetHandle, long subscriptionHandle);
+  private static native void nativeWaitSetResize(
+      long waitSetHandle, int numberOfSubscriptions, int numberOfGuardConditions,
+      int numberOfTimers, int numberOfClients, int numberOfServices, int numberOfEvents);
 
-  private static native void nativeWait(long waitSetHandle, long timeout);
+  /**
+   * Clear the wait set and add all the passed entities to it, in order.
+   *
+   * @param waitSetHandle A pointer to the underlying rcl_wait_set_t.
+   * @param subscriptionHandles Pointers to the rcl_subscription_t to add.
+   * @param guardConditionHandles Pointers to the rcl_guard_condition_t to add.
+   * @param timerHandles Pointers to the rcl_timer_t to add.
+   * @param clientHandles Pointers to the rcl_client_t to add.
+   * @param serviceHandles Pointers to the rcl_service_t to add.
+   * @param eventHandles Pointers to the rcl_event_t to add.
+   */
+  private static native void nativeWaitSetFill(long waitSetHandle, long[] subscriptionHandles,
+      long[] guardConditionHandles, long[] timerHandles, long[] clientHandles,
+      long[] serviceHandles, long[] eventHandles);
 
-  private static native MessageDefinition nativeTake(
-      long subscriptionHandle, Class<MessageDefinition> messageType);
+  private static native long nativeCreateGuardCondition(long contextHandle);
 
-  private static native void nativeWaitSetAddService(long waitSetHandle, long serviceHandle);
+  private static native void nativeTriggerGuardCondition(long guardConditionHandle);
 
-  private static native void nativeWaitSetAddClient(long waitSetHandle, long clientHandle);
+  private static native void nativeDisposeGuardCondition(long guardConditionHandle);
 
-  private static native void nativeWaitSetAddTimer(long waitSetHandle, long timerHandle);
+  private static native void nativeWait(long waitSetHandle, long timeout);
 
-  private static native void nativeWaitSetAddEvent(long waitSetHandle, long eventHandle);
+  private static native MessageDefinition nativeTake(long subscriptionHandle,
+      long fromJavaConverterHandle, long toJavaConverterHandle, long destructorHandle,
+      MessageDefinition messageTemplate, MessageDefinition reusedMessage);
+
+  /**
+   * Take up to as many messages as the length of the passed array from a subscription.
+   * If taking fails after some messages were taken, those are returned and the failure is only
+   * reported if it happens again for the first message of a later call.
+   *
+   * @param messages The array the taken messages are stored in, in order. Its non null elements
+   *     are message instances the taken messages are converted into.
+   * @return The number of messages taken.
+   */
+  private static native int nativeTakeBatch(long subscriptionHandle,
+      long fromJavaConverterHandle, long toJavaConverterHandle, long destructorHandle,
+      MessageDefinition messageTemplate, MessageDefinition[] messages);
+
+  private static native long nativeTakeSerialized(
+      long subscriptionHandle, long serializedMessageHandle);
 
   private static native RMWRequestId nativeTakeRequest(long serviceHandle,
       long requestFromJavaConverterHandle, long requestToJavaConverterHandle,
       long requestDestructorHandle, MessageDefinition requestMessage);
 
-  private static native void nativeSendServiceResponse(long serviceHandle, RMWRequestId header,
-      long responseFromJavaConverterHandle, long responseToJavaConverterHandle,
-      long responseDestructorHandle, MessageDefinition responseMessage);
-
   private static native RMWRequestId nativeTakeResponse(long clientHandle,
       long responseFromJavaConverterHandle, long responseToJavaConverterHandle,
       long responseDestructorHandle, MessageDefinition responseMessage);
 
-  private static native boolean nativeWaitSetSubscriptionIsReady(long waitSetHandle, long index);
-
-  private static native boolean nativeWaitSetTimerIsReady(long waitSetHandle, long index);
-
-  private static native boolean nativeWaitSetEventIsReady(long waitSetHandle, long index);
-
-  private static native boolean nativeWaitSetServiceIsReady(long waitSetHandle, long index);
-
-  private static native boolean nativeWaitSetClientIsReady(long waitSetHandle, long index);
+  /**
+   * Write the readiness of every entity of the wait set into a direct buffer.
+   *
+   * @param waitSetHandle A pointer to the underlying rcl_wait_set_t.
+   * @param readiness A direct buffer with room for one byte per entity in the wait set.
+   *     Entities are laid out as subscriptions, timers, clients, services and events, and a
+   *     non-zero byte means the entity is ready.
+   */
+  private static native void nativeWaitSetGetReadiness(long waitSetHandle, ByteBuffer readiness);
 }
@@ -0,0 +1,188 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.ros2.rcljava.qos.QoSProfile;
+import org.ros2.rcljava.timer.Timer;
+import org.ros2.rcljava.timer.WallTimer;
+
+/**
+ * Executes first the ready executable with the earliest absolute deadline.
+ *
+ * The deadline of a timer is its next expiry after the one being executed. The deadline of a
+ * subscription is the time its previous message was executed plus the deadline of its QoS
+ * profile. Any entity can also be given a relative deadline explicitly, which replaces its
+ * period or QoS deadline. Executables without a deadline are executed after all those with
+ * one, in the order they are found.
+ *
+ * The executables that start after their deadline are counted as missed deadlines.
+ */
+public class DeadlineSchedulingPolicy implements SchedulingPolicy {
+  private static final class Pending {
+    private final AnyExecutable anyExecutable;
+
+    private final boolean hasDeadline;
+
+    private final long deadline;
+
+    private final long sequence;
+
+    private Pending(final AnyExecutable anyExecutable, final boolean hasDeadline,
+        final long deadline, final long sequence) {
+      this.anyExecutable = anyExecutable;
+      this.hasDeadline = hasDeadline;
+      this.deadline = deadline;
+      this.sequence = sequence;
+    }
+  }
+
+  private static final Comparator<Pending> BY_DEADLINE = new Comparator<Pending>() {
+    public int compare(final Pending a, final Pending b) {
+      if (a.hasDeadline != b.hasDeadline) {
+        return a.hasDeadline ? -1 : 1;
+      }
+      if (a.hasDeadline && a.deadline != b.deadline) {
+        // Times from System.nanoTime() may only be compared by their difference
+        return Long.signum(a.deadline - b.deadline);
+      }
+      return a.sequence < b.sequence ? -1 : 1;
+    }
+  };
+
+  private final PriorityQueue<Pending> ready = new PriorityQueue<Pending>(11, BY_DEADLINE);
+
+  private long sequence = 0;
+
+  private final Map<Object, Long> relativeDeadlines =
+      Collections.synchronizedMap(new WeakHashMap<Object, Long>());
+
+  /**
+   * For every entity other than timers, the time its previous executable was executed.
+   */
+  private final Map<Object, Long> lastExecuted = new WeakHashMap<Object, Long>();
+
+  private volatile long deadlinesMet = 0;
+
+  private volatile long deadlinesMissed = 0;
+
+  private volatile long maxLatenessNs = 0;
+
+  /**
+   * Set the time within which an entity has to be executed again after it was last executed,
+   * or for a timer, after it is due.
+   */
+  public void setRelativeDeadline(final Object entity, final long deadline, final TimeUnit unit) {
+    this.relativeDeadlines.put(entity, unit.toNanos(deadline));
+  }
+
+  /**
+   * @return The number of executables that started before their deadline.
+   */
+  public long getDeadlinesMet() {
+    return this.deadlinesMet;
+  }
+
+  /**
+   * @return The number of executables that started after their deadline.
+   */
+  public long getDeadlinesMissed() {
+    return this.deadlinesMissed;
+  }
+
+  /**
+   * @return The longest time an executable started after its deadline, in nanoseconds.
+   */
+  public long getMaxLatenessNs() {
+    return this.maxLatenessNs;
+  }
+
+  private long getRelativeDeadline(final AnyExecutable anyExecutable) {
+    Long relativeDeadline = this.relativeDeadlines.get(anyExecutable.getEntity());
+    if (relativeDeadline != null) {
+      return relativeDeadline;
+    }
+    if (anyExecutable.timer instanceof WallTimer) {
+      return ((WallTimer) anyExecutable.timer).getTimerPeriodNS();
+    }
+    if (anyExecutable.subscription != null) {
+      QoSProfile qosProfile = anyExecutable.subscription.getQoSProfile();
+      if (qosProfile != null) {
+        Duration deadline = qosProfile.getDeadline();
+        if (deadline != null) {
+          return deadline.toNanos();
+        }
+      }
+    }
+    return 0;
+  }
+
+  public void add(AnyExecutable anyExecutable) {
+    long relativeDeadline = getRelativeDeadline(anyExecutable);
+    boolean hasDeadline = relativeDeadline > 0;
+    long deadline = 0;
+    if (hasDeadline) {
+      Timer timer = anyExecutable.timer;
+      Long lastExecuted = this.lastExecuted.get(anyExecutable.getEntity());
+      if (timer != null) {
+        deadline = timer.getNextCallTime() + relativeDeadline;
+      } else if (lastExecuted != null) {
+        deadline = lastExecuted + relativeDeadline;
+      } else {
+        deadline = System.nanoTime() + relativeDeadline;
+      }
+    }
+    this.ready.add(new Pending(anyExecutable, hasDeadline, deadline, this.sequence++));
+  }
+
+  public AnyExecutable poll() {
+    Pending pending = this.ready.poll();
+    if (pending == null) {
+      return null;
+    }
+    long now = System.nanoTime();
+    if (pending.hasDeadline) {
+      long lateness = now - pending.deadline;
+      if (lateness > 0) {
+        this.deadlinesMissed++;
+        if (lateness > this.maxLatenessNs) {
+          this.maxLatenessNs = lateness;
+        }
+      } else {
+        this.deadlinesMet++;
+      }
+    }
+    if (pending.anyExecutable.timer == null) {
+      this.lastExecuted.put(pending.anyExecutable.getEntity(), now);
+    }
+    return pending.anyExecutable;
+  }
+
+  public void drainTo(Collection<AnyExecutable> anyExecutables) {
+    for (Pending pending : this.ready) {
+      anyExecutables.add(pending.anyExecutable);
+    }
+    this.ready.clear();
+  }
+}
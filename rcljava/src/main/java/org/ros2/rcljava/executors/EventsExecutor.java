@@ -0,0 +1,256 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.consumers.Consumer;
+import org.ros2.rcljava.contexts.Context;
+import org.ros2.rcljava.node.ComposableNode;
+import org.ros2.rcljava.executors.BaseExecutor;
+
+/**
+ * An executor that runs callbacks from a queue of events.
+ *
+ * A dedicated thread waits for work and pushes an event for every ready entity into a
+ * lock-free queue, which the threads spinning this executor drain. Waiting on the entities
+ * never happens on the threads that run the callbacks, so taking the next event costs the same
+ * regardless of how many entities the nodes own.
+ * An entity has at most one event queued or in flight, so callbacks on the same entity never
+ * run concurrently, and the queue never holds more events than there are entities.
+ */
+public class EventsExecutor implements Executor {
+  private final BaseExecutor baseExecutor = new BaseExecutor();
+
+  private final Queue<AnyExecutable> events = new ConcurrentLinkedQueue<AnyExecutable>();
+
+  /**
+   * Counts the events in the queue, so that spinning threads can block until one is pushed.
+   */
+  private final Semaphore eventsAvailable = new Semaphore(0);
+
+  /**
+   * Pushed by {@link #cancel()} to wake up a thread blocked waiting for an event, so that the
+   * semaphore keeps counting exactly the events in the queue. Never executed.
+   */
+  private final AnyExecutable wakeUp = new AnyExecutable();
+
+  /**
+   * Set while @{link #wakeUp} is in the queue, so that it is queued at most once.
+   */
+  private final AtomicBoolean wakeUpQueued = new AtomicBoolean(false);
+
+  private Thread waitThread;
+
+  /**
+   * Set while @{link #spin()} runs, cleared by {@link #cancel()}.
+   */
+  private volatile boolean spinning = false;
+
+  /**
+   * Makes @{link #spin()} return when the context is shut down while it waits for an event.
+   */
+  private final Callback cancelCallback = new Callback() {
+    public void call() {
+      cancel();
+    }
+  };
+
+  /**
+   * Pushes the ready executables found by the thread that waits for work into the queue.
+   */
+  private final Consumer<AnyExecutable> enqueue = new Consumer<AnyExecutable>() {
+    public void accept(final AnyExecutable anyExecutable) {
+      // The entity stays claimed until its event is executed
+      EventsExecutor.this.events.add(anyExecutable);
+      EventsExecutor.this.eventsAvailable.release();
+    }
+  };
+
+  public void addNode(ComposableNode node) {
+    this.baseExecutor.addNode(node);
+  }
+
+  public void removeNode(ComposableNode node) {
+    this.baseExecutor.removeNode(node);
+  }
+
+  public void spinOnce() {
+    this.spinOnce(-1);
+  }
+
+  /**
+   * Execute the next event, waiting for one if the queue is empty.
+   *
+   * @param timeout Maximum time to wait in nanoseconds, a negative value waits forever.
+   */
+  public void spinOnce(long timeout) {
+    startWaitThread();
+    try {
+      if (timeout < 0) {
+        this.eventsAvailable.acquire();
+      } else if (!this.eventsAvailable.tryAcquire(timeout, TimeUnit.NANOSECONDS)) {
+        return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    AnyExecutable anyExecutable = pollEvent();
+    if (anyExecutable != null) {
+      executeAndRelease(anyExecutable);
+    }
+  }
+
+  public void spinSome() {
+    this.spinSome(0);
+  }
+
+  /**
+   * Execute the events that are already queued, without waiting for new ones.
+   */
+  public void spinSome(long maxDurationNs) {
+    startWaitThread();
+    int queued = this.eventsAvailable.availablePermits();
+    long startNs = System.nanoTime();
+    while (RCLJava.ok() && queued-- > 0 && maxDurationNotElapsed(maxDurationNs, startNs)) {
+      if (!executeNext()) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Execute events until the queue is empty, including the events pushed in the meantime.
+   */
+  public void spinAll(long maxDurationNs) {
+    startWaitThread();
+    long startNs = System.nanoTime();
+    while (RCLJava.ok() && maxDurationNotElapsed(maxDurationNs, startNs)) {
+      if (!executeNext()) {
+        break;
+      }
+    }
+  }
+
+  public void spin() {
+    this.spinning = true;
+    // Registered before checking the context, so that a shutdown is either seen by the loop or
+    // wakes it up
+    Context context = RCLJava.getDefaultContext();
+    context.addOnShutdownCallback(this.cancelCallback);
+    try {
+      while (RCLJava.ok() && this.spinning) {
+        this.spinOnce();
+      }
+    } finally {
+      context.removeOnShutdownCallback(this.cancelCallback);
+    }
+  }
+
+  /**
+   * Make @{link #spin()} return, and stop the thread that waits for events until the executor
+   * is spun again.
+   */
+  public void cancel() {
+    this.spinning = false;
+    this.baseExecutor.cancel();
+    // Wake up a thread blocked waiting for an event
+    if (this.wakeUpQueued.compareAndSet(false, true)) {
+      this.events.add(this.wakeUp);
+      this.eventsAvailable.release();
+    }
+  }
+
+  private boolean executeNext() {
+    if (!this.eventsAvailable.tryAcquire()) {
+      return false;
+    }
+    AnyExecutable anyExecutable = pollEvent();
+    if (anyExecutable != null) {
+      executeAndRelease(anyExecutable);
+    }
+    return true;
+  }
+
+  /**
+   * Take the event a permit was acquired for.
+   *
+   * @return The event to execute, or null if it was the wake up pushed by {@link #cancel()}.
+   */
+  private AnyExecutable pollEvent() {
+    AnyExecutable anyExecutable = this.events.poll();
+    if (anyExecutable == this.wakeUp) {
+      this.wakeUpQueued.set(false);
+      return null;
+    }
+    return anyExecutable;
+  }
+
+  private void executeAndRelease(AnyExecutable anyExecutable) {
+    try {
+      this.baseExecutor.executeAnyExecutable(anyExecutable);
+    } finally {
+      this.baseExecutor.releaseAnyExecutable(anyExecutable);
+    }
+  }
+
+  private static boolean maxDurationNotElapsed(long maxDurationNs, long startNs) {
+    return maxDurationNs == 0 || System.nanoTime() - startNs < maxDurationNs;
+  }
+
+  private synchronized void startWaitThread() {
+    if (this.waitThread != null) {
+      if (!this.baseExecutor.isSpinning()) {
+        // Cancelled but still running, keep it waiting
+        this.baseExecutor.startSpinning();
+      }
+      return;
+    }
+    this.baseExecutor.startSpinning();
+    this.waitThread = new Thread(new Runnable() {
+      public void run() {
+        EventsExecutor.this.run();
+      }
+    }, "rcljava-executor-events");
+    this.waitThread.setDaemon(true);
+    this.waitThread.start();
+  }
+
+  private void run() {
+    while (true) {
+      this.baseExecutor.dispatchReady(this.enqueue);
+      synchronized (this) {
+        if (!RCLJava.ok() || !this.baseExecutor.isSpinning()) {
+          this.baseExecutor.stopSpinning();
+          this.waitThread = null;
+          return;
+        }
+      }
+    }
+  }
+
+  public void dispose() {
+    this.cancel();
+    this.baseExecutor.dispose();
+  }
+}
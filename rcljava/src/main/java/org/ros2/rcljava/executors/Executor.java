@@ -33,4 +33,16 @@ public interface Executor {
   public void spinAll(long maxDurationNs);
 
   public void spin();
+
+  /**
+   * Make @{link #spin()} return, as soon as the callbacks being executed finish.
+   * This is also done when the context is shut down.
+   */
+  public void cancel();
+
+  /**
+   * Cancel the executor, remove all the nodes and free the native resources of this executor.
+   * The executor must not be used afterwards.
+   */
+  public void dispose();
 }
@@ -0,0 +1,42 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Queue;
+
+/**
+ * Executes the ready executables in the order they are found: timers first, then
+ * subscriptions, services, clients and events, each in the order of their nodes.
+ * This is the default scheduling policy.
+ */
+public class FifoSchedulingPolicy implements SchedulingPolicy {
+  private final Queue<AnyExecutable> ready = new ArrayDeque<AnyExecutable>();
+
+  public void add(AnyExecutable anyExecutable) {
+    this.ready.add(anyExecutable);
+  }
+
+  public AnyExecutable poll() {
+    return this.ready.poll();
+  }
+
+  public void drainTo(Collection<AnyExecutable> anyExecutables) {
+    anyExecutables.addAll(this.ready);
+    this.ready.clear();
+  }
+}
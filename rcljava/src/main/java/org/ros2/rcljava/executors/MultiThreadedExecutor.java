@@ -15,30 +15,98 @@
 
 package org.ros2.rcljava.executors;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ExecutorService;
 
 import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.consumers.Consumer;
 import org.ros2.rcljava.node.ComposableNode;
 import org.ros2.rcljava.executors.BaseExecutor;
 
+/**
+ * An executor that runs callbacks in parallel on a pool of threads.
+ *
+ * A single thread waits for work and hands every ready executable over to the thread pool.
+ * Each subscription, timer, service, client and event handler is claimed while its callback is
+ * in flight, so callbacks on the same entity never run concurrently, while callbacks on
+ * different entities do.
+ *
+ * On JDK 21 and later, {@link #newVirtualThreadExecutor()} creates an executor that runs every
+ * callback on its own virtual thread instead of a fixed pool, so that callbacks blocking on I/O
+ * do not hold up the others. The thread waiting for work is always a platform thread.
+ */
 public class MultiThreadedExecutor implements Executor {
   private BaseExecutor baseExecutor;
   private ExecutorService threadpool;
-  private Object mutex;
-  private int numberOfThreads;
 
   public MultiThreadedExecutor(int numberOfThreads) {
-    this.baseExecutor = new BaseExecutor();
-    this.threadpool = Executors.newFixedThreadPool(numberOfThreads);
-    this.mutex = new Object();
-    this.numberOfThreads = numberOfThreads;
+    this(numberOfThreads, new FifoSchedulingPolicy());
+  }
+
+  /**
+   * @param numberOfThreads The number of threads callbacks are executed on.
+   * @param schedulingPolicy Decides in which order the ready callbacks are dispatched to the
+   *     threads.
+   */
+  public MultiThreadedExecutor(int numberOfThreads, SchedulingPolicy schedulingPolicy) {
+    this(Executors.newFixedThreadPool(numberOfThreads), schedulingPolicy);
   }
 
   public MultiThreadedExecutor() {
     this(Runtime.getRuntime().availableProcessors());
   }
 
+  private MultiThreadedExecutor(ExecutorService threadpool, SchedulingPolicy schedulingPolicy) {
+    this.baseExecutor = new BaseExecutor(schedulingPolicy);
+    this.threadpool = threadpool;
+  }
+
+  /**
+   * @return true if the running JVM supports virtual threads, and so
+   *     {@link #newVirtualThreadExecutor()}.
+   */
+  public static boolean isVirtualThreadSupported() {
+    // On JDK 19 and 20 the method exists, but fails unless preview features are enabled
+    try {
+      newVirtualThreadPool().shutdown();
+      return true;
+    } catch (UnsupportedOperationException uoe) {
+      return false;
+    }
+  }
+
+  public static MultiThreadedExecutor newVirtualThreadExecutor() {
+    return newVirtualThreadExecutor(new FifoSchedulingPolicy());
+  }
+
+  /**
+   * Create an executor that runs each callback on a new virtual thread.
+   * Callbacks on the same entity still never run concurrently.
+   *
+   * @param schedulingPolicy Decides in which order the ready callbacks are dispatched.
+   * @throws UnsupportedOperationException if the running JVM has no virtual threads.
+   */
+  public static MultiThreadedExecutor newVirtualThreadExecutor(SchedulingPolicy schedulingPolicy) {
+    return new MultiThreadedExecutor(newVirtualThreadPool(), schedulingPolicy);
+  }
+
+  private static ExecutorService newVirtualThreadPool() {
+    // Looked up reflectively, virtual threads are only available since JDK 21
+    try {
+      Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) method.invoke(null);
+    } catch (NoSuchMethodException nsme) {
+      throw new UnsupportedOperationException("Virtual threads require JDK 21 or later", nsme);
+    } catch (IllegalAccessException iae) {
+      throw new UnsupportedOperationException("Virtual threads are not accessible", iae);
+    } catch (InvocationTargetException ite) {
+      throw new UnsupportedOperationException(
+          "Virtual threads could not be created", ite.getCause());
+    }
+  }
+
   public void addNode(ComposableNode node) {
     this.baseExecutor.addNode(node);
   }
@@ -67,23 +135,54 @@ public class MultiThreadedExecutor implements Executor {
     this.baseExecutor.spinAll(maxDurationNs);
   }
 
+  /**
+   * Start waiting for work on a new thread, and return right away.
+   * The ready callbacks are executed on the threads of this executor until
+   * {@link #cancel()} is called or the context is shut down.
+   */
   public void spin() {
-    synchronized (mutex) {
-      for (int i = 0; i < this.numberOfThreads; i++) {
-        this.threadpool.execute(new Runnable() {
-          public void run() {
-            MultiThreadedExecutor.this.run();
-          }
-        });
+    this.baseExecutor.startSpinning();
+    Thread waitThread = new Thread(new Runnable() {
+      public void run() {
+        MultiThreadedExecutor.this.run();
       }
-    }
+    }, "rcljava-executor-wait");
+    waitThread.start();
+  }
+
+  public void cancel() {
+    this.baseExecutor.cancel();
+  }
+
+  public void dispose() {
+    this.baseExecutor.dispose();
     this.threadpool.shutdown();
   }
 
+  private void dispatch(final AnyExecutable anyExecutable) {
+    this.threadpool.execute(new Runnable() {
+      public void run() {
+        try {
+          MultiThreadedExecutor.this.baseExecutor.executeAnyExecutable(anyExecutable);
+        } finally {
+          MultiThreadedExecutor.this.baseExecutor.releaseAnyExecutable(anyExecutable);
+        }
+      }
+    });
+  }
+
   private void run() {
-    while (RCLJava.ok()) {
-      synchronized (mutex) {
-        this.spinOnce();
+    try {
+      this.baseExecutor.dispatchReady(new Consumer<AnyExecutable>() {
+        public void accept(final AnyExecutable anyExecutable) {
+          dispatch(anyExecutable);
+        }
+      });
+    } finally {
+      this.baseExecutor.stopSpinning();
+      if (!RCLJava.ok()) {
+        // Nothing can be spun anymore, don't let the idle threads keep the process alive
+        this.threadpool.shutdown();
       }
     }
   }
@@ -0,0 +1,123 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes the ready executables by decreasing priority of their entities, and in the order
+ * they are found within a priority.
+ *
+ * Entities have priority 0 unless set otherwise with {@link #setPriority(Object, int)}.
+ * With load shedding enabled, low priority executables that could not be started soon enough
+ * after being found ready are deferred to the next wait, so that an overloaded executor keeps
+ * up with its high priority work. The messages of a deferred subscription stay in the
+ * middleware, where its QoS history decides which ones are dropped if more keep arriving.
+ */
+public class PrioritySchedulingPolicy implements SchedulingPolicy {
+  private static final class Pending {
+    private final AnyExecutable anyExecutable;
+
+    private final long readyTime;
+
+    private Pending(final AnyExecutable anyExecutable, final long readyTime) {
+      this.anyExecutable = anyExecutable;
+      this.readyTime = readyTime;
+    }
+  }
+
+  private final Map<Object, Integer> priorities =
+      Collections.synchronizedMap(new WeakHashMap<Object, Integer>());
+
+  /**
+   * The ready executables of every priority, highest priority first.
+   */
+  private final TreeMap<Integer, Queue<Pending>> lanes =
+      new TreeMap<Integer, Queue<Pending>>(Collections.<Integer>reverseOrder());
+
+  private final List<AnyExecutable> deferred = new ArrayList<AnyExecutable>();
+
+  private volatile int sheddingPriority = Integer.MIN_VALUE;
+
+  private volatile long maxLatencyNs = Long.MAX_VALUE;
+
+  /**
+   * Set the priority of an entity, i.e. a subscription, timer, service, client or event
+   * handler. Ready entities with a higher priority are executed first.
+   */
+  public void setPriority(final Object entity, final int priority) {
+    this.priorities.put(entity, priority);
+  }
+
+  public int getPriority(final Object entity) {
+    Integer priority = this.priorities.get(entity);
+    return priority == null ? 0 : priority;
+  }
+
+  /**
+   * Defer the executables of entities with a priority lower than <code>priority</code> when
+   * they could not be started within <code>maxLatency</code> of being found ready.
+   */
+  public void setLoadShedding(final int priority, final long maxLatency, final TimeUnit unit) {
+    this.maxLatencyNs = unit.toNanos(maxLatency);
+    this.sheddingPriority = priority;
+  }
+
+  public void add(AnyExecutable anyExecutable) {
+    int priority = getPriority(anyExecutable.getEntity());
+    Queue<Pending> lane = this.lanes.get(priority);
+    if (lane == null) {
+      lane = new ArrayDeque<Pending>();
+      this.lanes.put(priority, lane);
+    }
+    lane.add(new Pending(anyExecutable, System.nanoTime()));
+  }
+
+  public AnyExecutable poll() {
+    for (Map.Entry<Integer, Queue<Pending>> lane : this.lanes.entrySet()) {
+      boolean sheddable = lane.getKey() < this.sheddingPriority;
+      Pending pending;
+      while ((pending = lane.getValue().poll()) != null) {
+        if (sheddable && System.nanoTime() - pending.readyTime > this.maxLatencyNs) {
+          this.deferred.add(pending.anyExecutable);
+          continue;
+        }
+        return pending.anyExecutable;
+      }
+    }
+    return null;
+  }
+
+  public void drainTo(Collection<AnyExecutable> anyExecutables) {
+    for (Queue<Pending> lane : this.lanes.values()) {
+      for (Pending pending : lane) {
+        anyExecutables.add(pending.anyExecutable);
+      }
+      lane.clear();
+    }
+    anyExecutables.addAll(this.deferred);
+    this.deferred.clear();
+  }
+}
@@ -0,0 +1,69 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.WeakHashMap;
+
+/**
+ * Executes first the ready executable whose entity was served least recently.
+ *
+ * Unlike {@link FifoSchedulingPolicy}, an entity that is found ready early after every wait
+ * cannot keep the entities found after it waiting, e.g. when spinning for a limited time.
+ */
+public class RoundRobinSchedulingPolicy implements SchedulingPolicy {
+  /**
+   * For every entity, the value of {@link #served} when it was last polled.
+   */
+  private final Map<Object, Long> lastServed = new WeakHashMap<Object, Long>();
+
+  private long served = 0;
+
+  private final PriorityQueue<AnyExecutable> ready =
+      new PriorityQueue<AnyExecutable>(11, new Comparator<AnyExecutable>() {
+        public int compare(final AnyExecutable a, final AnyExecutable b) {
+          long servedA = getLastServed(a);
+          long servedB = getLastServed(b);
+          return servedA < servedB ? -1 : (servedA == servedB ? 0 : 1);
+        }
+      });
+
+  private long getLastServed(final AnyExecutable anyExecutable) {
+    Long lastServed = this.lastServed.get(anyExecutable.getEntity());
+    return lastServed == null ? -1 : lastServed;
+  }
+
+  public void add(AnyExecutable anyExecutable) {
+    this.ready.add(anyExecutable);
+  }
+
+  public AnyExecutable poll() {
+    AnyExecutable anyExecutable = this.ready.poll();
+    if (anyExecutable != null) {
+      // Only changes the order of the entity once it is out of the queue
+      this.lastServed.put(anyExecutable.getEntity(), this.served++);
+    }
+    return anyExecutable;
+  }
+
+  public void drainTo(Collection<AnyExecutable> anyExecutables) {
+    anyExecutables.addAll(this.ready);
+    this.ready.clear();
+  }
+}
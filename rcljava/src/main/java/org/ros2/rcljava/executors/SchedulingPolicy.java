@@ -0,0 +1,44 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import java.util.Collection;
+
+/**
+ * Decides in which order an executor executes the executables that are ready.
+ *
+ * After every wait, the executor adds the executables it found ready and then polls them one
+ * by one until none is returned. Before the next wait, the executables that were not polled
+ * are drained: those that are still ready are found again by that wait.
+ * A scheduling policy is only used by the thread that waits for work.
+ */
+public interface SchedulingPolicy {
+  /**
+   * Add an executable that is ready to be executed.
+   */
+  void add(AnyExecutable anyExecutable);
+
+  /**
+   * @return The next executable to execute, or null if there is none left, or the remaining
+   *     ones are deferred until the next wait.
+   */
+  AnyExecutable poll();
+
+  /**
+   * Remove all the executables that were added and not polled, including the deferred ones.
+   */
+  void drainTo(Collection<AnyExecutable> anyExecutables);
+}
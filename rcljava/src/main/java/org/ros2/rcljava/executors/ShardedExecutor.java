@@ -0,0 +1,277 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.consumers.Consumer;
+import org.ros2.rcljava.node.ComposableNode;
+import org.ros2.rcljava.executors.BaseExecutor;
+
+/**
+ * An executor that spreads its nodes over several wait sets, each waited on by its own thread.
+ *
+ * Every node belongs to one shard, which has its own wait set and waiting thread, so that no
+ * single thread has to wait on all the entities. Nodes go to the shard with the fewest nodes
+ * unless pinned to one. The ready executables of all the shards are dispatched to a shared
+ * pool of threads, and as in @{link MultiThreadedExecutor}, callbacks on the same entity never
+ * run concurrently.
+ */
+public class ShardedExecutor implements Executor {
+  private final BaseExecutor[] shards;
+
+  private final int[] nodesPerShard;
+
+  private final Map<ComposableNode, Integer> nodeShards = new HashMap<ComposableNode, Integer>();
+
+  private final ExecutorService threadpool;
+
+  /**
+   * The longest time, in nanoseconds, {@link #spinOnce(long)} waits on a shard without a
+   * timeout before looking at the other shards again.
+   */
+  private static final long WAIT_SLICE_NS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  /**
+   * The shard that {@link #spinOnce(long)} waits on next when no shard has work ready.
+   */
+  private int nextWaitShard = 0;
+
+  /**
+   * @param numberOfShards The number of wait sets, and threads waiting on them.
+   * @param numberOfThreads The number of threads callbacks are executed on.
+   */
+  public ShardedExecutor(int numberOfShards, int numberOfThreads) {
+    if (numberOfShards < 1) {
+      throw new IllegalArgumentException("There must be at least one shard");
+    }
+    this.shards = new BaseExecutor[numberOfShards];
+    for (int i = 0; i < numberOfShards; i++) {
+      this.shards[i] = new BaseExecutor();
+    }
+    this.nodesPerShard = new int[numberOfShards];
+    this.threadpool = Executors.newFixedThreadPool(numberOfThreads);
+  }
+
+  public ShardedExecutor(int numberOfShards) {
+    this(numberOfShards, Runtime.getRuntime().availableProcessors());
+  }
+
+  public int getNumberOfShards() {
+    return this.shards.length;
+  }
+
+  /**
+   * Add a node to the shard with the fewest nodes.
+   */
+  public synchronized void addNode(ComposableNode node) {
+    int shard = 0;
+    for (int i = 1; i < this.shards.length; i++) {
+      if (this.nodesPerShard[i] < this.nodesPerShard[shard]) {
+        shard = i;
+      }
+    }
+    addNode(node, shard);
+  }
+
+  /**
+   * Add a node to the given shard, so that its entities are waited on by the same thread as
+   * the other nodes of that shard.
+   */
+  public synchronized void addNode(ComposableNode node, int shard) {
+    if (shard < 0 || shard >= this.shards.length) {
+      throw new IllegalArgumentException("No shard " + shard);
+    }
+    removeNode(node);
+    this.nodeShards.put(node, shard);
+    this.nodesPerShard[shard]++;
+    this.shards[shard].addNode(node);
+  }
+
+  public synchronized void removeNode(ComposableNode node) {
+    Integer shard = this.nodeShards.remove(node);
+    if (shard != null) {
+      this.nodesPerShard[shard]--;
+      this.shards[shard].removeNode(node);
+    }
+  }
+
+  /**
+   * @return The shard a node was added to, or -1 if it was not added to this executor.
+   */
+  public synchronized int getShard(ComposableNode node) {
+    Integer shard = this.nodeShards.get(node);
+    return shard == null ? -1 : shard;
+  }
+
+  public void spinOnce() {
+    spinOnce(-1);
+  }
+
+  /**
+   * Execute the next ready executable of any shard, or, if no shard has work ready, wait on
+   * one shard at a time, in turn, until one has work or the timeout elapses.
+   * Every wait is bounded by a slice of the timeout, so that the work of the other shards is
+   * not left waiting behind one idle shard.
+   */
+  public void spinOnce(long timeout) {
+    for (BaseExecutor shard : this.shards) {
+      if (executeNext(shard)) {
+        return;
+      }
+    }
+    if (timeout == 0) {
+      return;
+    }
+    long deadline = System.nanoTime() + timeout;
+    long slice = timeout < 0 ? WAIT_SLICE_NS : Math.max(timeout / this.shards.length, 1);
+    while (RCLJava.ok()) {
+      boolean waited = false;
+      for (int i = 0; i < this.shards.length; i++) {
+        long waitTimeout = slice;
+        if (timeout > 0) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            return;
+          }
+          waitTimeout = Math.min(slice, remaining);
+        }
+        BaseExecutor shard = this.shards[this.nextWaitShard];
+        this.nextWaitShard = (this.nextWaitShard + 1) % this.shards.length;
+        AnyExecutable anyExecutable = shard.getNextExecutable();
+        if (anyExecutable == null) {
+          waited |= shard.waitForWork(waitTimeout);
+          anyExecutable = shard.getNextExecutable();
+        }
+        if (anyExecutable != null) {
+          execute(shard, anyExecutable);
+          return;
+        }
+      }
+      if (!waited) {
+        // No shard has anything to wait on
+        return;
+      }
+    }
+  }
+
+  private static boolean executeNext(BaseExecutor shard) {
+    AnyExecutable anyExecutable = shard.getNextExecutable();
+    if (anyExecutable == null) {
+      shard.waitForWork(0);
+      anyExecutable = shard.getNextExecutable();
+    }
+    if (anyExecutable == null) {
+      return false;
+    }
+    execute(shard, anyExecutable);
+    return true;
+  }
+
+  private static void execute(BaseExecutor shard, AnyExecutable anyExecutable) {
+    try {
+      shard.executeAnyExecutable(anyExecutable);
+    } finally {
+      shard.releaseAnyExecutable(anyExecutable);
+    }
+  }
+
+  public void spinSome() {
+    this.spinSome(0);
+  }
+
+  public void spinSome(long maxDurationNs) {
+    for (BaseExecutor shard : this.shards) {
+      shard.spinSome(maxDurationNs);
+    }
+  }
+
+  public void spinAll(long maxDurationNs) {
+    for (BaseExecutor shard : this.shards) {
+      shard.spinAll(maxDurationNs);
+    }
+  }
+
+  /**
+   * Start waiting for work on one new thread per shard, and return right away.
+   * The ready callbacks are executed on the threads of this executor until
+   * {@link #cancel()} is called or the context is shut down.
+   */
+  public void spin() {
+    for (BaseExecutor shard : this.shards) {
+      shard.startSpinning();
+    }
+    final AtomicInteger running = new AtomicInteger(this.shards.length);
+    for (int i = 0; i < this.shards.length; i++) {
+      final BaseExecutor shard = this.shards[i];
+      Thread waitThread = new Thread(new Runnable() {
+        public void run() {
+          try {
+            ShardedExecutor.this.run(shard);
+          } finally {
+            if (running.decrementAndGet() == 0 && !RCLJava.ok()) {
+              // Nothing can be spun anymore, don't let the idle threads keep the process alive
+              ShardedExecutor.this.threadpool.shutdown();
+            }
+          }
+        }
+      }, "rcljava-executor-wait-" + i);
+      waitThread.start();
+    }
+  }
+
+  public void cancel() {
+    for (BaseExecutor shard : this.shards) {
+      shard.cancel();
+    }
+  }
+
+  public synchronized void dispose() {
+    for (BaseExecutor shard : this.shards) {
+      shard.dispose();
+    }
+    this.nodeShards.clear();
+    Arrays.fill(this.nodesPerShard, 0);
+    this.threadpool.shutdown();
+  }
+
+  private void dispatch(final BaseExecutor shard, final AnyExecutable anyExecutable) {
+    this.threadpool.execute(new Runnable() {
+      public void run() {
+        execute(shard, anyExecutable);
+      }
+    });
+  }
+
+  private void run(final BaseExecutor shard) {
+    try {
+      shard.dispatchReady(new Consumer<AnyExecutable>() {
+        public void accept(final AnyExecutable anyExecutable) {
+          dispatch(shard, anyExecutable);
+        }
+      });
+    } finally {
+      shard.stopSpinning();
+    }
+  }
+}
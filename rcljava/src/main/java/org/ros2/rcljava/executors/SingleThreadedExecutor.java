@@ -15,12 +15,22 @@
 
 package org.ros2.rcljava.executors;
 
-import org.ros2.rcljava.RCLJava;
 import org.ros2.rcljava.node.ComposableNode;
 import org.ros2.rcljava.executors.BaseExecutor;
 
 public class SingleThreadedExecutor implements Executor {
-  private BaseExecutor baseExecutor = new BaseExecutor();
+  private BaseExecutor baseExecutor;
+
+  public SingleThreadedExecutor() {
+    this(new FifoSchedulingPolicy());
+  }
+
+  /**
+   * @param schedulingPolicy Decides in which order the ready callbacks are executed.
+   */
+  public SingleThreadedExecutor(final SchedulingPolicy schedulingPolicy) {
+    this.baseExecutor = new BaseExecutor(schedulingPolicy);
+  }
 
   public void addNode(ComposableNode node) {
     this.baseExecutor.addNode(node);
@@ -51,8 +61,14 @@ public class SingleThreadedExecutor implements Executor {
   }
 
   public void spin() {
-    while (RCLJava.ok()) {
-      this.spinOnce();
-    }
+    this.baseExecutor.spin();
+  }
+
+  public void cancel() {
+    this.baseExecutor.cancel();
+  }
+
+  public void dispose() {
+    this.baseExecutor.dispose();
   }
 }
@@ -0,0 +1,83 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import org.ros2.rcljava.node.ComposableNode;
+import org.ros2.rcljava.executors.BaseExecutor;
+
+/**
+ * A single threaded executor for nodes whose entities do not change once spinning starts.
+ *
+ * The entities of the nodes are collected into a wait set when the executor first waits, and
+ * no new entity is added to it until a node is added or removed, or {@link #refreshEntities()}
+ * is called. Subscriptions, timers, services and clients created afterwards are ignored until
+ * then. Entities disposed while spinning are dropped from the wait set before the next wait.
+ */
+public class StaticSingleThreadedExecutor implements Executor {
+  private BaseExecutor baseExecutor = new BaseExecutor();
+
+  public StaticSingleThreadedExecutor() {
+    this.baseExecutor.setStaticEntities(true);
+  }
+
+  public void addNode(ComposableNode node) {
+    this.baseExecutor.addNode(node);
+  }
+
+  public void removeNode(ComposableNode node) {
+    this.baseExecutor.removeNode(node);
+  }
+
+  /**
+   * Collect the entities of the nodes again, so that the entities created or disposed since
+   * they were last collected are taken into account.
+   */
+  public void refreshEntities() {
+    this.baseExecutor.refreshEntities();
+  }
+
+  public void spinOnce() {
+    this.spinOnce(-1);
+  }
+
+  public void spinOnce(long timeout) {
+    this.baseExecutor.spinOnce(timeout);
+  }
+
+  public void spinSome() {
+    this.spinSome(0);
+  }
+
+  public void spinSome(long maxDurationNs) {
+    this.baseExecutor.spinSome(maxDurationNs);
+  }
+
+  public void spinAll(long maxDurationNs) {
+    this.baseExecutor.spinAll(maxDurationNs);
+  }
+
+  public void spin() {
+    this.baseExecutor.spin();
+  }
+
+  public void cancel() {
+    this.baseExecutor.cancel();
+  }
+
+  public void dispose() {
+    this.baseExecutor.dispose();
+  }
+}
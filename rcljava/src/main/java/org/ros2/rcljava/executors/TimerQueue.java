@@ -0,0 +1,228 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.consumers.Consumer;
+import org.ros2.rcljava.timer.Timer;
+import org.ros2.rcljava.timer.WallTimer;
+
+/**
+ * The timers of an executor, ordered by when they are next due.
+ *
+ * The executor waits until the first timer is due and takes all the due timers out of the
+ * queue, without asking rcl about each timer. The wakeup is only delayed, by up to a hundredth
+ * of the period of each timer involved, when that lets other timers that are due shortly after
+ * be taken out in the same wakeup.
+ * A timer taken out of the queue is not scheduled again until it is released, which is when
+ * its callback has been executed.
+ *
+ * Apart from {@link #release(Timer)}, which may be called from any thread, this class is only
+ * used by the thread that waits for work.
+ */
+final class TimerQueue {
+  private static final class Entry {
+    private final Timer timer;
+
+    private final long nextCallTime;
+
+    /**
+     * The latest time the executor may wake up to call the timer, when batching it with others.
+     */
+    private final long latestCallTime;
+
+    /**
+     * Tells apart entries due at the same time.
+     */
+    private final long sequence;
+
+    private Entry(final Timer timer, final long nextCallTime, final long latestCallTime,
+        final long sequence) {
+      this.timer = timer;
+      this.nextCallTime = nextCallTime;
+      this.latestCallTime = latestCallTime;
+      this.sequence = sequence;
+    }
+  }
+
+  private static final Comparator<Entry> BY_NEXT_CALL_TIME = new Comparator<Entry>() {
+    public int compare(final Entry a, final Entry b) {
+      // Times from System.nanoTime() may only be compared by their difference
+      int order = Long.signum(a.nextCallTime - b.nextCallTime);
+      return order != 0 ? order : Long.signum(a.sequence - b.sequence);
+    }
+  };
+
+  private final TreeSet<Entry> queue = new TreeSet<Entry>(BY_NEXT_CALL_TIME);
+
+  private long nextSequence = 0;
+
+  private final Map<Timer, Entry> scheduled = new IdentityHashMap<Timer, Entry>();
+
+  private Set<Timer> timers = Collections.newSetFromMap(new IdentityHashMap<Timer, Boolean>());
+
+  /**
+   * Timers that were taken out of the queue and not released yet.
+   */
+  private final Set<Timer> taken = Collections.newSetFromMap(new IdentityHashMap<Timer, Boolean>());
+
+  private final Queue<Timer> released = new ConcurrentLinkedQueue<Timer>();
+
+  private final Queue<Timer> changed = new ConcurrentLinkedQueue<Timer>();
+
+  private final Consumer<Timer> scheduleListener;
+
+  /**
+   * @param onScheduleChanged Called, from any thread, when a timer is reset or canceled.
+   */
+  TimerQueue(final Callback onScheduleChanged) {
+    this.scheduleListener = new Consumer<Timer>() {
+      public void accept(final Timer timer) {
+        TimerQueue.this.changed.add(timer);
+        onScheduleChanged.call();
+      }
+    };
+  }
+
+  /**
+   * Replace the timers in the queue.
+   */
+  void setTimers(final Collection<Timer> timers) {
+    Set<Timer> newTimers = Collections.newSetFromMap(new IdentityHashMap<Timer, Boolean>());
+    newTimers.addAll(timers);
+    for (Timer timer : this.timers) {
+      if (!newTimers.contains(timer)) {
+        timer.removeScheduleListener(this.scheduleListener);
+      }
+    }
+    for (Timer timer : newTimers) {
+      if (!this.timers.contains(timer)) {
+        timer.addScheduleListener(this.scheduleListener);
+      }
+    }
+    this.timers = newTimers;
+
+    this.queue.clear();
+    this.scheduled.clear();
+    for (Timer timer : newTimers) {
+      if (!this.taken.contains(timer)) {
+        schedule(timer);
+      }
+    }
+  }
+
+  boolean contains(final Timer timer) {
+    return this.timers.contains(timer);
+  }
+
+  /**
+   * Schedule a timer taken out of the queue again, once its callback has been executed.
+   */
+  void release(final Timer timer) {
+    this.released.add(timer);
+  }
+
+  private void schedule(final Timer timer) {
+    Entry previous = this.scheduled.remove(timer);
+    if (previous != null) {
+      this.queue.remove(previous);
+    }
+    if (!this.timers.contains(timer) || timer.isCanceled()) {
+      // A canceled timer is scheduled again when reset
+      return;
+    }
+    long nextCallTime = timer.getNextCallTime();
+    long slack = 0;
+    if (timer instanceof WallTimer) {
+      slack = ((WallTimer) timer).getTimerPeriodNS() / 100;
+    }
+    Entry entry = new Entry(timer, nextCallTime, nextCallTime + slack, this.nextSequence++);
+    this.scheduled.put(timer, entry);
+    this.queue.add(entry);
+  }
+
+  private void applyChanges() {
+    Timer timer;
+    while ((timer = this.released.poll()) != null) {
+      this.taken.remove(timer);
+      schedule(timer);
+    }
+    while ((timer = this.changed.poll()) != null) {
+      if (!this.taken.contains(timer)) {
+        schedule(timer);
+      }
+    }
+  }
+
+  /**
+   * @return The time in nanoseconds until timers have to be taken out of the queue, or a
+   *     negative value if no timer is scheduled.
+   *     This is when the first timer is due, unless the timers due right after it can be
+   *     taken out together with it without making any of them later than it may be.
+   */
+  long getTimeUntilNextWakeup(final long now) {
+    applyChanges();
+    if (this.queue.isEmpty()) {
+      return -1;
+    }
+    Iterator<Entry> entries = this.queue.iterator();
+    Entry first = entries.next();
+    long wakeupTime = first.nextCallTime;
+    long latestWakeupTime = first.latestCallTime;
+    while (entries.hasNext()) {
+      Entry entry = entries.next();
+      if (entry.nextCallTime - latestWakeupTime > 0) {
+        break;
+      }
+      // Due before any of the timers so far has to be called, take it out with them
+      wakeupTime = entry.nextCallTime;
+      if (entry.latestCallTime - latestWakeupTime < 0) {
+        latestWakeupTime = entry.latestCallTime;
+      }
+    }
+    return Math.max(0, wakeupTime - now);
+  }
+
+  /**
+   * Take the timers that are due out of the queue.
+   */
+  void takeDue(final long now, final Queue<Timer> due) {
+    applyChanges();
+    Entry entry;
+    while (!this.queue.isEmpty() && (entry = this.queue.first()).nextCallTime - now <= 0) {
+      this.queue.pollFirst();
+      this.scheduled.remove(entry.timer);
+      if (entry.timer.isCanceled() || entry.timer.getNextCallTime() != entry.nextCallTime) {
+        // Changed without notifying the listener, put it back in its new place
+        schedule(entry.timer);
+        continue;
+      }
+      this.taken.add(entry.timer);
+      due.add(entry.timer);
+    }
+  }
+}
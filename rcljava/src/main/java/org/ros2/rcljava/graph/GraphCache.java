@@ -0,0 +1,543 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.graph;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.contexts.Context;
+import org.ros2.rcljava.node.Node;
+
+/**
+ * A view of the ROS graph that is only queried again after the graph changed.
+ *
+ * There is one cache per context, obtained with {@link Node#getGraphCache()}, until the
+ * context is shut down. The snapshots returned must not be modified, including the objects
+ * they contain.
+ *
+ * Between graph changes, queries return the same snapshots without going native. Graph
+ * changes are tracked while listeners are registered, and otherwise from the first query until
+ * the graph changed several times without being queried, so that an unused cache costs
+ * nothing.
+ *
+ * Listeners are told about topics, services, nodes and endpoints that were added or removed.
+ * They are called from the thread of the {@link GraphListener}, after each graph change.
+ * Endpoints are only tracked for the topics whose publishers or subscriptions were queried.
+ */
+public final class GraphCache {
+  private static final Logger logger = LoggerFactory.getLogger(GraphCache.class);
+
+  /**
+   * Told about the changes of the graph.
+   * Topics and services whose types change are removed and added again.
+   */
+  public interface Listener {
+    void topicAdded(NameAndTypes topic);
+
+    void topicRemoved(NameAndTypes topic);
+
+    void serviceAdded(NameAndTypes service);
+
+    void serviceRemoved(NameAndTypes service);
+
+    void nodeAdded(NodeNameInfo node);
+
+    void nodeRemoved(NodeNameInfo node);
+
+    void endpointAdded(String topicName, EndpointInfo endpoint);
+
+    void endpointRemoved(String topicName, EndpointInfo endpoint);
+  }
+
+  /**
+   * A listener that ignores every change, to be extended by listeners only interested in some.
+   */
+  public static class ListenerAdapter implements Listener {
+    public void topicAdded(NameAndTypes topic) {}
+
+    public void topicRemoved(NameAndTypes topic) {}
+
+    public void serviceAdded(NameAndTypes service) {}
+
+    public void serviceRemoved(NameAndTypes service) {}
+
+    public void nodeAdded(NodeNameInfo node) {}
+
+    public void nodeRemoved(NodeNameInfo node) {}
+
+    public void endpointAdded(String topicName, EndpointInfo endpoint) {}
+
+    public void endpointRemoved(String topicName, EndpointInfo endpoint) {}
+  }
+
+  private static final Map<Context, GraphCache> graphCaches = new HashMap<Context, GraphCache>();
+
+  /**
+   * The number of graph changes without any query after which a cache without listeners stops
+   * tracking the graph.
+   */
+  private static final int MAX_IDLE_CHANGES = 10;
+
+  private final Context context;
+
+  private final GraphListener graphListener;
+
+  /**
+   * The nodes the graph is queried with, all of them in the context of this cache.
+   * They are only referenced weakly, so that a node that is never disposed does not stay
+   * reachable through the cache of its context.
+   */
+  private final Set<Node> nodes = Collections.newSetFromMap(new WeakHashMap<Node, Boolean>());
+
+  private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+  private final Callback graphChangeCallback = new Callback() {
+    public void call() {
+      GraphCache.this.onGraphChange();
+    }
+  };
+
+  /**
+   * Forgets the cache when its context is shut down.
+   */
+  private final Callback shutdownCallback = new Callback() {
+    public void call() {
+      synchronized (graphCaches) {
+        if (graphCaches.get(GraphCache.this.context) == GraphCache.this) {
+          graphCaches.remove(GraphCache.this.context);
+        }
+      }
+      GraphCache.this.listeners.clear();
+      synchronized (GraphCache.this) {
+        updateTracking();
+      }
+    }
+  };
+
+  /**
+   * Whether the graph change callback is registered, in which case the snapshots are kept until
+   * the graph changes.
+   */
+  private boolean tracking = false;
+
+  /**
+   * Whether the cache was queried since the last graph change.
+   */
+  private boolean queried = false;
+
+  /**
+   * The number of graph changes in a row the cache was not queried in between.
+   * Nothing was queried yet when the cache is created.
+   */
+  private int idleChanges = MAX_IDLE_CHANGES;
+
+  /**
+   * Bumped on every graph change, each snapshot is valid while its version is the same.
+   */
+  private long graphVersion = 0;
+
+  private List<NameAndTypes> topics;
+  private long topicsVersion = -1;
+
+  private List<NameAndTypes> services;
+  private long servicesVersion = -1;
+
+  private List<NodeNameInfo> nodeNames;
+  private long nodeNamesVersion = -1;
+
+  private final Map<String, List<EndpointInfo>> publishers =
+      new HashMap<String, List<EndpointInfo>>();
+  private final Map<String, List<EndpointInfo>> subscriptions =
+      new HashMap<String, List<EndpointInfo>>();
+  private long endpointsVersion = -1;
+
+  private GraphCache(final Context context) {
+    this.context = context;
+    this.graphListener = GraphListener.getGraphListener(context);
+  }
+
+  /**
+   * @return The graph cache of the context, created if needed.
+   */
+  public static GraphCache getGraphCache(final Context context) {
+    synchronized (graphCaches) {
+      GraphCache graphCache = graphCaches.get(context);
+      if (graphCache == null) {
+        graphCache = new GraphCache(context);
+        graphCaches.put(context, graphCache);
+        context.addOnShutdownCallback(graphCache.shutdownCallback);
+      }
+      return graphCache;
+    }
+  }
+
+  /**
+   * Stop using the node, if the context has a cache.
+   * Unlike {@link #getGraphCache(Context)}, this never creates one, so it can be used while the
+   * context is being shut down.
+   */
+  public static void removeNodeIfPresent(final Context context, final Node node) {
+    GraphCache graphCache;
+    synchronized (graphCaches) {
+      graphCache = graphCaches.get(context);
+    }
+    if (graphCache != null) {
+      graphCache.removeNode(node);
+    }
+  }
+
+  /**
+   * Query the graph with the node when needed. The cache only listens for graph changes while
+   * it has nodes and listeners.
+   */
+  public final synchronized void addNode(final Node node) {
+    if (!this.nodes.add(node)) {
+      return;
+    }
+    this.graphListener.addNode(node);
+    updateTracking();
+  }
+
+  /**
+   * Stop using the node, which must be called before the node is disposed.
+   */
+  public final synchronized void removeNode(final Node node) {
+    if (this.nodes.remove(node)) {
+      updateTracking();
+    }
+  }
+
+  public final synchronized void addListener(final Listener listener) {
+    this.listeners.add(listener);
+    updateTracking();
+  }
+
+  public final synchronized void removeListener(final Listener listener) {
+    this.listeners.remove(listener);
+    updateTracking();
+  }
+
+  /**
+   * Listen for graph changes if and only if there is a node to query the graph with, and
+   * someone to tell about the changes or someone still querying the graph.
+   */
+  private void updateTracking() {
+    boolean tracking = (!this.listeners.isEmpty() || this.idleChanges < MAX_IDLE_CHANGES)
+        && !this.nodes.isEmpty() && this.context.isValid();
+    if (tracking == this.tracking) {
+      return;
+    }
+    this.tracking = tracking;
+    if (tracking) {
+      // Changes were not tracked until now
+      this.graphVersion++;
+      this.graphListener.addGraphChangeCallback(this.graphChangeCallback);
+    } else {
+      this.graphListener.removeGraphChangeCallback(this.graphChangeCallback);
+    }
+  }
+
+  /**
+   * Make the next query go native, unless the snapshots are kept up to date, and keep them up
+   * to date from now on.
+   */
+  private void refresh() {
+    this.queried = true;
+    if (!this.tracking) {
+      this.graphVersion++;
+      this.idleChanges = 0;
+      updateTracking();
+    }
+  }
+
+  public final synchronized Collection<NameAndTypes> getTopicNamesAndTypes() {
+    refresh();
+    if (this.topicsVersion != this.graphVersion) {
+      this.topics = snapshot(getNode().getTopicNamesAndTypes());
+      this.topicsVersion = this.graphVersion;
+    }
+    return this.topics;
+  }
+
+  public final synchronized Collection<NameAndTypes> getServiceNamesAndTypes() {
+    refresh();
+    if (this.servicesVersion != this.graphVersion) {
+      this.services = snapshot(getNode().getServiceNamesAndTypes());
+      this.servicesVersion = this.graphVersion;
+    }
+    return this.services;
+  }
+
+  public final synchronized Collection<NodeNameInfo> getNodeNames() {
+    refresh();
+    if (this.nodeNamesVersion != this.graphVersion) {
+      this.nodeNames = snapshot(getNode().getNodeNames());
+      this.nodeNamesVersion = this.graphVersion;
+    }
+    return this.nodeNames;
+  }
+
+  public final synchronized Collection<EndpointInfo> getPublishersInfo(final String topicName) {
+    refresh();
+    invalidateEndpoints();
+    List<EndpointInfo> endpoints = this.publishers.get(topicName);
+    if (endpoints == null) {
+      endpoints = snapshot(getNode().getPublishersInfo(topicName));
+      this.publishers.put(topicName, endpoints);
+    }
+    return endpoints;
+  }
+
+  public final synchronized Collection<EndpointInfo> getSubscriptionsInfo(final String topicName) {
+    refresh();
+    invalidateEndpoints();
+    List<EndpointInfo> endpoints = this.subscriptions.get(topicName);
+    if (endpoints == null) {
+      endpoints = snapshot(getNode().getSubscriptionsInfo(topicName));
+      this.subscriptions.put(topicName, endpoints);
+    }
+    return endpoints;
+  }
+
+  /**
+   * Forget the endpoints after a graph change, keeping the topics so that they are still tracked.
+   */
+  private void invalidateEndpoints() {
+    if (this.endpointsVersion != this.graphVersion) {
+      for (Map.Entry<String, List<EndpointInfo>> entry : this.publishers.entrySet()) {
+        entry.setValue(null);
+      }
+      for (Map.Entry<String, List<EndpointInfo>> entry : this.subscriptions.entrySet()) {
+        entry.setValue(null);
+      }
+      this.endpointsVersion = this.graphVersion;
+    }
+  }
+
+  private Node getNode() {
+    for (Node node : this.nodes) {
+      if (node.getHandle() != 0) {
+        return node;
+      }
+    }
+    throw new IllegalStateException("No node to query the graph with");
+  }
+
+  private static <T> List<T> snapshot(final Collection<T> collection) {
+    return Collections.unmodifiableList(new ArrayList<T>(collection));
+  }
+
+  private void onGraphChange() {
+    if (this.listeners.isEmpty()) {
+      synchronized (this) {
+        this.graphVersion++;
+        countIdleChange();
+      }
+      return;
+    }
+
+    List<Runnable> events = new ArrayList<Runnable>();
+    synchronized (this) {
+      countIdleChange();
+      if (this.nodes.isEmpty()) {
+        // The nodes were garbage collected
+        updateTracking();
+        return;
+      }
+      // Only the snapshots taken before are compared, missing ones are not worth the queries
+      List<NameAndTypes> oldTopics = this.topics;
+      List<NameAndTypes> oldServices = this.services;
+      List<NodeNameInfo> oldNodeNames = this.nodeNames;
+      invalidateEndpoints();
+      Map<String, List<EndpointInfo>> oldPublishers =
+          new HashMap<String, List<EndpointInfo>>(this.publishers);
+      Map<String, List<EndpointInfo>> oldSubscriptions =
+          new HashMap<String, List<EndpointInfo>>(this.subscriptions);
+      this.graphVersion++;
+
+      try {
+        if (oldTopics != null) {
+          diff(oldTopics, getTopicNamesAndTypes(), events, TOPIC_EVENTS);
+        }
+        if (oldServices != null) {
+          diff(oldServices, getServiceNamesAndTypes(), events, SERVICE_EVENTS);
+        }
+        if (oldNodeNames != null) {
+          diff(oldNodeNames, getNodeNames(), events, NODE_EVENTS);
+        }
+        for (Map.Entry<String, List<EndpointInfo>> entry : oldPublishers.entrySet()) {
+          diffEndpoints(entry.getKey(), entry.getValue(), getPublishersInfo(entry.getKey()),
+              events);
+        }
+        for (Map.Entry<String, List<EndpointInfo>> entry : oldSubscriptions.entrySet()) {
+          diffEndpoints(entry.getKey(), entry.getValue(), getSubscriptionsInfo(entry.getKey()),
+              events);
+        }
+      } catch (IllegalStateException ise) {
+        // All the nodes were disposed in the meantime
+        return;
+      } finally {
+        // These queries do not keep the cache tracking the graph
+        this.queried = false;
+      }
+    }
+
+    for (Runnable event : events) {
+      event.run();
+    }
+  }
+
+  /**
+   * Count a graph change, and stop tracking the graph if it is not queried anymore.
+   */
+  private void countIdleChange() {
+    if (this.queried) {
+      this.idleChanges = 0;
+    } else if (this.idleChanges < MAX_IDLE_CHANGES) {
+      this.idleChanges++;
+    }
+    this.queried = false;
+    updateTracking();
+  }
+
+  /**
+   * Turns an element that was added or removed into the calls to the listeners.
+   */
+  private interface EventFactory<T> {
+    void added(Listener listener, T element);
+
+    void removed(Listener listener, T element);
+  }
+
+  private static final EventFactory<NameAndTypes> TOPIC_EVENTS =
+      new EventFactory<NameAndTypes>() {
+        public void added(Listener listener, NameAndTypes element) {
+          listener.topicAdded(element);
+        }
+
+        public void removed(Listener listener, NameAndTypes element) {
+          listener.topicRemoved(element);
+        }
+      };
+
+  private static final EventFactory<NameAndTypes> SERVICE_EVENTS =
+      new EventFactory<NameAndTypes>() {
+        public void added(Listener listener, NameAndTypes element) {
+          listener.serviceAdded(element);
+        }
+
+        public void removed(Listener listener, NameAndTypes element) {
+          listener.serviceRemoved(element);
+        }
+      };
+
+  private static final EventFactory<NodeNameInfo> NODE_EVENTS =
+      new EventFactory<NodeNameInfo>() {
+        public void added(Listener listener, NodeNameInfo element) {
+          listener.nodeAdded(element);
+        }
+
+        public void removed(Listener listener, NodeNameInfo element) {
+          listener.nodeRemoved(element);
+        }
+      };
+
+  private <T> void diff(final Collection<T> oldElements, final Collection<T> newElements,
+      final List<Runnable> events, final EventFactory<T> eventFactory) {
+    Set<T> oldSet = new HashSet<T>(oldElements);
+    Set<T> newSet = new HashSet<T>(newElements);
+    for (T element : oldElements) {
+      if (!newSet.contains(element)) {
+        addEvent(events, element, false, eventFactory);
+      }
+    }
+    for (T element : newElements) {
+      if (!oldSet.contains(element)) {
+        addEvent(events, element, true, eventFactory);
+      }
+    }
+  }
+
+  /**
+   * Endpoints are compared by their GIDs.
+   */
+  private void diffEndpoints(final String topicName, final Collection<EndpointInfo> oldEndpoints,
+      final Collection<EndpointInfo> newEndpoints, final List<Runnable> events) {
+    if (oldEndpoints == null) {
+      return;
+    }
+    EventFactory<EndpointInfo> eventFactory = new EventFactory<EndpointInfo>() {
+      public void added(Listener listener, EndpointInfo element) {
+        listener.endpointAdded(topicName, element);
+      }
+
+      public void removed(Listener listener, EndpointInfo element) {
+        listener.endpointRemoved(topicName, element);
+      }
+    };
+
+    Map<ByteBuffer, EndpointInfo> oldByGID = new HashMap<ByteBuffer, EndpointInfo>();
+    for (EndpointInfo endpoint : oldEndpoints) {
+      oldByGID.put(ByteBuffer.wrap(endpoint.endpointGID), endpoint);
+    }
+    Map<ByteBuffer, EndpointInfo> newByGID = new HashMap<ByteBuffer, EndpointInfo>();
+    for (EndpointInfo endpoint : newEndpoints) {
+      newByGID.put(ByteBuffer.wrap(endpoint.endpointGID), endpoint);
+    }
+    for (Map.Entry<ByteBuffer, EndpointInfo> entry : oldByGID.entrySet()) {
+      if (!newByGID.containsKey(entry.getKey())) {
+        addEvent(events, entry.getValue(), false, eventFactory);
+      }
+    }
+    for (Map.Entry<ByteBuffer, EndpointInfo> entry : newByGID.entrySet()) {
+      if (!oldByGID.containsKey(entry.getKey())) {
+        addEvent(events, entry.getValue(), true, eventFactory);
+      }
+    }
+  }
+
+  private <T> void addEvent(final List<Runnable> events, final T element, final boolean added,
+      final EventFactory<T> eventFactory) {
+    events.add(new Runnable() {
+      public void run() {
+        for (Listener listener : GraphCache.this.listeners) {
+          try {
+            if (added) {
+              eventFactory.added(listener, element);
+            } else {
+              eventFactory.removed(listener, element);
+            }
+          } catch (RuntimeException re) {
+            logger.error("Graph cache listener failed", re);
+          }
+        }
+      }
+    });
+  }
+}
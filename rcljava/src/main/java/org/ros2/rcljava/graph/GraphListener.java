@@ -0,0 +1,341 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.graph;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.common.JNIUtils;
+import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.contexts.Context;
+import org.ros2.rcljava.node.Node;
+
+/**
+ * Wakes up threads waiting for the ROS graph to change.
+ *
+ * There is one listener per context, until the context is shut down. While any thread waits
+ * for a graph change, or any graph change callback is registered, a single thread waits on the
+ * graph guard conditions of the nodes added to the listener, and bumps the graph version
+ * whenever one of them is triggered. The thread stops as soon as no one waits anymore.
+ */
+public final class GraphListener {
+  private static final Logger logger = LoggerFactory.getLogger(GraphListener.class);
+
+  static {
+    try {
+      JNIUtils.loadImplementation(GraphListener.class);
+    } catch (UnsatisfiedLinkError ule) {
+      logger.error("Native code library failed to load.\n" + ule);
+      System.exit(1);
+    }
+  }
+
+  private static final Map<Context, GraphListener> graphListeners =
+      new HashMap<Context, GraphListener>();
+
+  private final Context context;
+
+  /**
+   * Held by the listening thread while waiting on the graph guard conditions, so that a node is
+   * not disposed while its guard condition is in use.
+   */
+  private final Object waitLock = new Object();
+
+  /**
+   * The nodes are only referenced weakly, so that a node that is never disposed does not stay
+   * reachable through the listener of its context.
+   */
+  private final Set<Node> nodes = Collections.newSetFromMap(new WeakHashMap<Node, Boolean>());
+
+  private long graphVersion = 0;
+
+  private int waiters = 0;
+
+  /**
+   * Called from the listening thread after every graph change.
+   */
+  private final List<Callback> graphChangeCallbacks = new CopyOnWriteArrayList<Callback>();
+
+  private boolean listening = false;
+
+  /**
+   * A pointer to the guard condition that interrupts the listening thread, as an integer, or
+   * zero if the thread is not running.
+   */
+  private long interruptGuardConditionHandle = 0;
+
+  /**
+   * Forgets the listener and wakes up the threads using it when its context is shut down.
+   */
+  private final Callback shutdownCallback = new Callback() {
+    public void call() {
+      synchronized (graphListeners) {
+        if (graphListeners.get(GraphListener.this.context) == GraphListener.this) {
+          graphListeners.remove(GraphListener.this.context);
+        }
+      }
+      synchronized (GraphListener.this) {
+        interrupt();
+        GraphListener.this.notifyAll();
+      }
+    }
+  };
+
+  private GraphListener(final Context context) {
+    this.context = context;
+  }
+
+  /**
+   * @return The graph listener of the context, created if needed.
+   */
+  public static GraphListener getGraphListener(final Context context) {
+    synchronized (graphListeners) {
+      GraphListener graphListener = graphListeners.get(context);
+      if (graphListener == null) {
+        graphListener = new GraphListener(context);
+        graphListeners.put(context, graphListener);
+        context.addOnShutdownCallback(graphListener.shutdownCallback);
+      }
+      return graphListener;
+    }
+  }
+
+  /**
+   * Stop waiting on the graph guard condition of the node, if the context has a listener.
+   * Unlike {@link #getGraphListener(Context)}, this never creates one, so it can be used while
+   * the context is being shut down.
+   */
+  public static void removeNodeIfPresent(final Context context, final Node node) {
+    GraphListener graphListener;
+    synchronized (graphListeners) {
+      graphListener = graphListeners.get(context);
+    }
+    if (graphListener != null) {
+      graphListener.removeNode(node);
+    }
+  }
+
+  /**
+   * @return A version number that changes every time the graph changes while someone waits
+   *     for it, to be passed to {@link #waitForGraphChange(Node, long, long)}.
+   */
+  public final synchronized long getGraphVersion() {
+    return this.graphVersion;
+  }
+
+  /**
+   * Block until the graph as seen by the node changes.
+   *
+   * Get the graph version before checking the graph, so that a change between the check and
+   * this call is not missed.
+   *
+   * @param node The node whose graph guard condition is waited on.
+   * @param graphVersion The graph version returned by {@link #getGraphVersion()}.
+   * @param timeout The maximum time to wait, in nanoseconds, or a negative value to wait
+   *     indefinitely.
+   * @return true if the graph changed, false on timeout or if the context was shutdown.
+   */
+  public final synchronized boolean waitForGraphChange(final Node node, final long graphVersion,
+      final long timeout) throws InterruptedException {
+    addNode(node);
+    this.waiters++;
+    try {
+      final long startTime = System.nanoTime();
+      while (this.graphVersion == graphVersion && RCLJava.ok(this.context)) {
+        if (!this.listening) {
+          startListening();
+        }
+        if (timeout < 0) {
+          this.wait();
+        } else {
+          long remaining = timeout - (System.nanoTime() - startTime);
+          if (remaining <= 0) {
+            break;
+          }
+          TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+      }
+      return this.graphVersion != graphVersion;
+    } finally {
+      this.waiters--;
+      stopListeningIfUnused();
+    }
+  }
+
+  /**
+   * Wait on the graph guard condition of the node too, for as long as the listener runs.
+   */
+  public final synchronized void addNode(final Node node) {
+    if (this.nodes.add(node)) {
+      interrupt();
+    }
+  }
+
+  /**
+   * Call the callback after every graph change, from the listening thread, which keeps running
+   * until the callback is removed.
+   * The graph guard conditions waited on are the ones of the nodes added to the listener.
+   */
+  public final synchronized void addGraphChangeCallback(final Callback callback) {
+    this.graphChangeCallbacks.add(callback);
+    if (!this.listening && RCLJava.ok(this.context)) {
+      startListening();
+    }
+  }
+
+  public final synchronized void removeGraphChangeCallback(final Callback callback) {
+    this.graphChangeCallbacks.remove(callback);
+    stopListeningIfUnused();
+  }
+
+  /**
+   * Stop waiting on the graph guard condition of the node, which must be called before the node
+   * is disposed.
+   */
+  public final void removeNode(final Node node) {
+    synchronized (this) {
+      if (!this.nodes.remove(node)) {
+        return;
+      }
+      interrupt();
+    }
+    // Wait for the listening thread to be done with the guard condition of the node
+    synchronized (this.waitLock) {
+    }
+  }
+
+  /**
+   * Wake up the listening thread so that it stops, if no one waits for a graph change anymore.
+   */
+  private void stopListeningIfUnused() {
+    if (this.waiters == 0 && this.graphChangeCallbacks.isEmpty()) {
+      interrupt();
+    }
+  }
+
+  private void interrupt() {
+    if (this.interruptGuardConditionHandle != 0) {
+      nativeTriggerGuardCondition(this.interruptGuardConditionHandle);
+    }
+  }
+
+  private void startListening() {
+    final long guardConditionHandle = nativeCreateGuardCondition(this.context.getHandle());
+    this.interruptGuardConditionHandle = guardConditionHandle;
+    this.listening = true;
+    Thread thread = new Thread(new Runnable() {
+      public void run() {
+        try {
+          listen(guardConditionHandle);
+        } finally {
+          synchronized (GraphListener.this) {
+            // Unless stopped normally, in which case another thread may already be listening
+            if (GraphListener.this.interruptGuardConditionHandle == guardConditionHandle) {
+              GraphListener.this.listening = false;
+              GraphListener.this.interruptGuardConditionHandle = 0;
+            }
+            GraphListener.this.notifyAll();
+          }
+          nativeDisposeGuardCondition(guardConditionHandle);
+        }
+      }
+    }, "rcljava-graph-listener");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private void listen(final long guardConditionHandle) {
+    long waitSetHandle = 0;
+    int waitSetSize = 0;
+    try {
+      while (true) {
+        boolean graphChanged;
+        synchronized (this.waitLock) {
+          long[] nodeHandles;
+          synchronized (this) {
+            if ((this.waiters == 0 && this.graphChangeCallbacks.isEmpty())
+                || !RCLJava.ok(this.context)) {
+              this.listening = false;
+              this.interruptGuardConditionHandle = 0;
+              return;
+            }
+            nodeHandles = new long[this.nodes.size()];
+            int i = 0;
+            for (Node node : this.nodes) {
+              nodeHandles[i++] = node.getHandle();
+            }
+          }
+          if (nodeHandles.length + 1 > waitSetSize) {
+            if (waitSetHandle != 0) {
+              nativeDisposeWaitSet(waitSetHandle);
+              waitSetHandle = 0;
+            }
+            waitSetSize = nodeHandles.length + 1;
+            waitSetHandle = nativeCreateWaitSet(this.context.getHandle(), waitSetSize);
+          }
+          // Woken up by the interrupt guard condition when the nodes change, when no one waits
+          // anymore and when the context is shut down
+          graphChanged = nativeWait(waitSetHandle, guardConditionHandle, nodeHandles, -1);
+        }
+        if (graphChanged) {
+          synchronized (this) {
+            this.graphVersion++;
+            this.notifyAll();
+          }
+          for (Callback callback : this.graphChangeCallbacks) {
+            try {
+              callback.call();
+            } catch (RuntimeException re) {
+              logger.error("Graph change callback failed", re);
+            }
+          }
+        }
+      }
+    } finally {
+      if (waitSetHandle != 0) {
+        nativeDisposeWaitSet(waitSetHandle);
+      }
+    }
+  }
+
+  private static native long nativeCreateWaitSet(long contextHandle, int numberOfGuardConditions);
+
+  private static native void nativeDisposeWaitSet(long waitSetHandle);
+
+  private static native long nativeCreateGuardCondition(long contextHandle);
+
+  private static native void nativeTriggerGuardCondition(long guardConditionHandle);
+
+  private static native void nativeDisposeGuardCondition(long guardConditionHandle);
+
+  /**
+   * Wait on the interrupt guard condition and the graph guard conditions of the nodes.
+   *
+   * @return true if a graph guard condition was triggered, false otherwise.
+   */
+  private static native boolean nativeWait(long waitSetHandle, long interruptGuardConditionHandle,
+      long[] nodeHandles, long timeout);
+}
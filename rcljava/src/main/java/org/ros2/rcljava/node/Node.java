@@ -15,16 +15,22 @@
 
 package org.ros2.rcljava.node;
 
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
+import org.ros2.rcljava.callbackgroups.CallbackGroupType;
 import org.ros2.rcljava.client.Client;
 import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.consumers.BiConsumer;
 import org.ros2.rcljava.consumers.Consumer;
 import org.ros2.rcljava.consumers.TriConsumer;
 import org.ros2.rcljava.graph.EndpointInfo;
+import org.ros2.rcljava.graph.GraphCache;
+import org.ros2.rcljava.graph.GraphListener;
 import org.ros2.rcljava.graph.NameAndTypes;
 import org.ros2.rcljava.graph.NodeNameInfo;
 import org.ros2.rcljava.interfaces.Disposable;
@@ -36,7 +42,10 @@ import org.ros2.rcljava.parameters.ParameterVariant;
 import org.ros2.rcljava.publisher.Publisher;
 import org.ros2.rcljava.qos.QoSProfile;
 import org.ros2.rcljava.service.RMWRequestId;
+import org.ros2.rcljava.subscription.SerializedSubscription;
+import org.ros2.rcljava.subscription.SubscriptionOptions;
 import org.ros2.rcljava.service.Service;
+import org.ros2.rcljava.service.ServiceResponder;
 import org.ros2.rcljava.subscription.Subscription;
 import org.ros2.rcljava.timer.Timer;
 import org.ros2.rcljava.timer.WallTimer;
@@ -61,6 +70,11 @@ public interface Node extends Disposable {
    */
   Collection<Subscription> getSubscriptions();
 
+  /**
+   * @return All the @{link SerializedSubscription}s that were created by this instance.
+   */
+  Collection<SerializedSubscription> getSerializedSubscriptions();
+
   /**
    * @return All the @{link Publisher}s that were created by this instance.
    */
@@ -71,6 +85,37 @@ public interface Node extends Disposable {
    */
   Collection<Timer> getTimers();
 
+  /**
+   * Get a counter that changes every time an entity is added to or removed from this node.
+   *
+   * Executors compare it with the value they saw last to know when the entities they wait on
+   * have to be collected again.
+   *
+   * @return The current entities version of this node.
+   */
+  long getEntitiesVersion();
+
+  /**
+   * Signal that the entities of this node have changed, see @{link #getEntitiesVersion()}.
+   *
+   * This is called by the node itself, and by the entities that it owns when they add or
+   * remove other waitable entities (e.g. event handlers).
+   */
+  void notifyEntitiesChanged();
+
+  /**
+   * Register a callback to be called every time the entities of this node change.
+   *
+   * Executors use it to wake up a thread blocked waiting on the entities they collected last,
+   * so that the new entities are waited on too.
+   */
+  void addEntitiesChangedCallback(Callback callback);
+
+  /**
+   * Unregister a callback added with @{link #addEntitiesChangedCallback(Callback)}.
+   */
+  void removeEntitiesChangedCallback(Callback callback);
+
   /**
    * Create a Subscription&lt;T&gt;.
    *
@@ -91,6 +136,114 @@ public interface Node extends Disposable {
   <T extends MessageDefinition> Subscription<T> createSubscription(
       final Class<T> messageType, final String topic, final Consumer<T> callback);
 
+  /**
+   * Create a Subscription&lt;T&gt; in a callback group.
+   *
+   * @param callbackGroup The callback group the created @{link Subscription} belongs to,
+   *     created with @{link #createCallbackGroup(CallbackGroupType)}.
+   * @see #createSubscription(Class, String, Consumer, QoSProfile)
+   */
+  <T extends MessageDefinition> Subscription<T> createSubscription(final Class<T> messageType,
+      final String topic, final Consumer<T> callback, final QoSProfile qosProfile,
+      final CallbackGroup callbackGroup);
+
+  /**
+   * Create a Subscription&lt;T&gt; with options.
+   *
+   * @param options The options of the created @{link Subscription}, such as its callback group
+   *     or the message instances it reuses.
+   * @see #createSubscription(Class, String, Consumer, QoSProfile)
+   */
+  <T extends MessageDefinition> Subscription<T> createSubscription(final Class<T> messageType,
+      final String topic, final Consumer<T> callback, final QoSProfile qosProfile,
+      final SubscriptionOptions options);
+
+  /**
+   * Create a Subscription&lt;T&gt; that delivers the messages it receives in batches.
+   * A batch is delivered when it contains <code>maxBatchSize</code> messages, or when its first
+   * message has waited for <code>maxLinger</code>, whichever comes first.
+   *
+   * @param <T> The type of the messages that will be received by the
+   *     created @{link Subscription}.
+   * @param messageType The class of the messages that will be received by the
+   *     created @{link Subscription}.
+   * @param topic The topic from which the created @{link Subscription} will
+   *     receive messages.
+   * @param callback The callback function that will be triggered with each batch of messages,
+   *     in the order they were received.
+   * @param maxBatchSize The maximum number of messages in a batch.
+   * @param maxLinger The maximum time the first message of a batch waits to be delivered.
+   * @param unit The unit of <code>maxLinger</code>.
+   * @return A @{link Subscription} that represents the underlying ROS2
+   *     subscription structure.
+   */
+  <T extends MessageDefinition> Subscription<T> createSubscription(final Class<T> messageType,
+      final String topic, final Consumer<List<T>> callback, final int maxBatchSize,
+      final long maxLinger, final TimeUnit unit, final QoSProfile qosProfile);
+
+  <T extends MessageDefinition> Subscription<T> createSubscription(final Class<T> messageType,
+      final String topic, final Consumer<List<T>> callback, final int maxBatchSize,
+      final long maxLinger, final TimeUnit unit);
+
+  /**
+   * Create a Subscription&lt;T&gt; that delivers the messages it receives in batches, in a
+   * callback group.
+   *
+   * @param callbackGroup The callback group the created @{link Subscription} belongs to,
+   *     created with @{link #createCallbackGroup(CallbackGroupType)}.
+   * @see #createSubscription(Class, String, Consumer, int, long, TimeUnit, QoSProfile)
+   */
+  <T extends MessageDefinition> Subscription<T> createSubscription(final Class<T> messageType,
+      final String topic, final Consumer<List<T>> callback, final int maxBatchSize,
+      final long maxLinger, final TimeUnit unit, final QoSProfile qosProfile,
+      final CallbackGroup callbackGroup);
+
+  /**
+   * Create a SerializedSubscription&lt;T&gt;, which receives the messages in their serialized
+   * (CDR) form instead of converting them to Java objects.
+   *
+   * @param <T> The type of the messages that will be received by the
+   *     created @{link SerializedSubscription}.
+   * @param messageType The class of the messages that will be received by the
+   *     created @{link SerializedSubscription}.
+   * @param topic The topic from which the created @{link SerializedSubscription} will
+   *     receive messages.
+   * @param callback The callback function that will be triggered when a
+   *     message is received. The direct buffer passed to it holds the serialized message
+   *     between its position and its limit, and is only valid during the callback.
+   * @return A @{link SerializedSubscription} that represents the underlying ROS2
+   *     subscription structure.
+   */
+  <T extends MessageDefinition> SerializedSubscription<T> createSerializedSubscription(
+      final Class<T> messageType, final String topic, final Consumer<ByteBuffer> callback,
+      final QoSProfile qosProfile);
+
+  <T extends MessageDefinition> SerializedSubscription<T> createSerializedSubscription(
+      final Class<T> messageType, final String topic, final Consumer<ByteBuffer> callback);
+
+  /**
+   * Create a SerializedSubscription&lt;T&gt; in a callback group.
+   *
+   * @param callbackGroup The callback group the created @{link SerializedSubscription} belongs
+   *     to, created with @{link #createCallbackGroup(CallbackGroupType)}.
+   * @see #createSerializedSubscription(Class, String, Consumer, QoSProfile)
+   */
+  <T extends MessageDefinition> SerializedSubscription<T> createSerializedSubscription(
+      final Class<T> messageType, final String topic, final Consumer<ByteBuffer> callback,
+      final QoSProfile qosProfile, final CallbackGroup callbackGroup);
+
+  /**
+   * Create a callback group.
+   *
+   * Callbacks of entities created in a mutually exclusive group are never executed concurrently,
+   * while entities in a reentrant group can be executed in parallel by a multi-threaded
+   * executor.
+   *
+   * @param type The type of the callback group.
+   * @return A @{link CallbackGroup} to pass when creating entities of this node.
+   */
+  CallbackGroup createCallbackGroup(final CallbackGroupType type);
+
   /**
    * Create a Publisher&lt;T&gt;.
    *
@@ -120,6 +273,40 @@ public interface Node extends Disposable {
       final TriConsumer<RMWRequestId, ? extends MessageDefinition, ? extends MessageDefinition>
           callback) throws NoSuchFieldException, IllegalAccessException;
 
+  <T extends ServiceDefinition> Service<T> createService(final Class<T> serviceType,
+      final String serviceName,
+      final TriConsumer<RMWRequestId, ? extends MessageDefinition, ? extends MessageDefinition>
+          callback,
+      final QoSProfile qosProfile, final CallbackGroup callbackGroup)
+      throws NoSuchFieldException, IllegalAccessException;
+
+  /**
+   * Create a service whose responses are sent through a @{link ServiceResponder}.
+   *
+   * The callback gets the request and a responder, which may be used after the callback
+   * returned and from any thread, so that slow requests do not hold up the executor.
+   *
+   * @param <T> The type of the service for the created @{link Service}.
+   * @param serviceType Service type.
+   * @param serviceName The service name.
+   * @param callback Called with every request and the responder for it.
+   * @param qosProfile The quality of service profile of the service.
+   * @param callbackGroup The callback group of the service, or null.
+   * @return A @{link Service} that represents the underlying ROS2 service structure.
+   */
+  <T extends ServiceDefinition> Service<T> createDeferredService(final Class<T> serviceType,
+      final String serviceName,
+      final BiConsumer<? extends MessageDefinition,
+          ? extends ServiceResponder<? extends MessageDefinition>> callback,
+      final QoSProfile qosProfile, final CallbackGroup callbackGroup)
+      throws NoSuchFieldException, IllegalAccessException;
+
+  <T extends ServiceDefinition> Service<T> createDeferredService(final Class<T> serviceType,
+      final String serviceName,
+      final BiConsumer<? extends MessageDefinition,
+          ? extends ServiceResponder<? extends MessageDefinition>> callback)
+      throws NoSuchFieldException, IllegalAccessException;
+
   <T extends ServiceDefinition> Client<T> createClient(
       final Class<T> serviceType, final String serviceName, final QoSProfile qosProfile)
       throws NoSuchFieldException, IllegalAccessException;
@@ -127,6 +314,10 @@ public interface Node extends Disposable {
   <T extends ServiceDefinition> Client<T> createClient(final Class<T> serviceType,
       final String serviceName) throws NoSuchFieldException, IllegalAccessException;
 
+  <T extends ServiceDefinition> Client<T> createClient(final Class<T> serviceType,
+      final String serviceName, final QoSProfile qosProfile, final CallbackGroup callbackGroup)
+      throws NoSuchFieldException, IllegalAccessException;
+
   /**
    * Remove a Subscription created by this Node.
    *
@@ -139,6 +330,18 @@ public interface Node extends Disposable {
    */
   boolean removeSubscription(final Subscription subscription);
 
+  /**
+   * Remove a SerializedSubscription created by this Node.
+   *
+   * Calling this method effectively invalidates the passed @{link SerializedSubscription}.
+   * If the subscription was not created by this Node, then nothing happens.
+   *
+   * @param subscription The object to remove from this node.
+   * @return true if the subscription was removed, false if the subscription was already
+   *   removed or was never created by this Node.
+   */
+  boolean removeSerializedSubscription(final SerializedSubscription subscription);
+
   /**
    * Remove a Publisher created by this Node.
    *
@@ -175,9 +378,24 @@ public interface Node extends Disposable {
    */
   boolean removeClient(final Client client);
 
+  /**
+   * Remove a Timer created by this Node.
+   *
+   * Calling this method effectively invalidates the passed @{link Timer}.
+   * If the timer was not created by this Node, then nothing happens.
+   *
+   * @param timer The object to remove from this node.
+   * @return true if the timer was removed, false if the timer was already
+   *   removed or was never created by this Node.
+   */
+  boolean removeTimer(final Timer timer);
+
 
   WallTimer createWallTimer(final long period, final TimeUnit unit, final Callback callback);
 
+  WallTimer createWallTimer(final long period, final TimeUnit unit, final Callback callback,
+      final CallbackGroup callbackGroup);
+
   /** Get the name of the node.
    *
    * @return The name of the node.
@@ -598,4 +816,21 @@ public interface Node extends Disposable {
    *    passed topic.
    */
   Collection<EndpointInfo> getSubscriptionsInfo(final String topicName);
+
+  /**
+   * Get the listener that wakes up threads waiting for the graph to change, e.g. for a service
+   * to become available.
+   *
+   * @return The graph listener of the context of this node.
+   */
+  GraphListener getGraphListener();
+
+  /**
+   * Get a view of the graph that is only queried again after the graph changed.
+   * Unlike @{link #getTopicNamesAndTypes()} and the other graph queries of the node, it returns
+   * immutable snapshots, and it notifies listeners about graph changes.
+   *
+   * @return The graph cache of the context of this node.
+   */
+  GraphCache getGraphCache();
 }
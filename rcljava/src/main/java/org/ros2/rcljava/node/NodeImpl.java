@@ -16,15 +16,21 @@
 package org.ros2.rcljava.node;
 
 import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
+import org.ros2.rcljava.callbackgroups.CallbackGroupImpl;
+import org.ros2.rcljava.callbackgroups.CallbackGroupType;
 import org.ros2.rcljava.client.Client;
 import org.ros2.rcljava.client.ClientImpl;
 import org.ros2.rcljava.common.JNIUtils;
 import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.consumers.BiConsumer;
 import org.ros2.rcljava.consumers.Consumer;
 import org.ros2.rcljava.consumers.TriConsumer;
 import org.ros2.rcljava.graph.NodeNameInfo;
 import org.ros2.rcljava.contexts.Context;
 import org.ros2.rcljava.graph.EndpointInfo;
+import org.ros2.rcljava.graph.GraphCache;
+import org.ros2.rcljava.graph.GraphListener;
 import org.ros2.rcljava.graph.NameAndTypes;
 import org.ros2.rcljava.interfaces.Disposable;
 import org.ros2.rcljava.interfaces.MessageDefinition;
@@ -39,11 +45,17 @@ import org.ros2.rcljava.parameters.ParameterVariant;
 import org.ros2.rcljava.publisher.Publisher;
 import org.ros2.rcljava.publisher.PublisherImpl;
 import org.ros2.rcljava.qos.QoSProfile;
+import org.ros2.rcljava.service.DeferredServiceImpl;
 import org.ros2.rcljava.service.RMWRequestId;
 import org.ros2.rcljava.service.Service;
 import org.ros2.rcljava.service.ServiceImpl;
+import org.ros2.rcljava.service.ServiceResponder;
+import org.ros2.rcljava.subscription.BatchSubscriptionImpl;
+import org.ros2.rcljava.subscription.SerializedSubscription;
+import org.ros2.rcljava.subscription.SerializedSubscriptionImpl;
 import org.ros2.rcljava.subscription.Subscription;
 import org.ros2.rcljava.subscription.SubscriptionImpl;
+import org.ros2.rcljava.subscription.SubscriptionOptions;
 import org.ros2.rcljava.time.Clock;
 import org.ros2.rcljava.time.ClockType;
 import org.ros2.rcljava.timer.Timer;
@@ -54,6 +66,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -63,8 +76,10 @@ import java.util.List;
 import java.util.Map;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * {@inheritDoc}
@@ -103,6 +118,11 @@ public class NodeImpl implements Node {
    */
   private final Collection<Subscription> subscriptions;
 
+  /**
+   * All the @{link SerializedSubscription}s that have been created through this instance.
+   */
+  private final Collection<SerializedSubscription> serializedSubscriptions;
+
   /**
    * All the @{link Publisher}s that have been created through this instance.
    */
@@ -123,6 +143,16 @@ public class NodeImpl implements Node {
    */
   private final Collection<Timer> timers;
 
+  /**
+   * Bumped every time an entity is added to or removed from this node.
+   */
+  private final AtomicLong entitiesVersion;
+
+  /**
+   * Called every time the entities version is bumped.
+   */
+  private final Collection<Callback> entitiesChangedCallbacks;
+
   private Object parametersMutex;
 
   class ParameterAndDescriptor {
@@ -148,9 +178,12 @@ public class NodeImpl implements Node {
     this.context = context;
     this.publishers = new LinkedBlockingQueue<Publisher>();
     this.subscriptions = new LinkedBlockingQueue<Subscription>();
+    this.serializedSubscriptions = new LinkedBlockingQueue<SerializedSubscription>();
     this.services = new LinkedBlockingQueue<Service>();
     this.clients = new LinkedBlockingQueue<Client>();
     this.timers = new LinkedBlockingQueue<Timer>();
+    this.entitiesVersion = new AtomicLong();
+    this.entitiesChangedCallbacks = new CopyOnWriteArrayList<Callback>();
     this.parametersMutex = new Object();
     this.parameters = new ConcurrentHashMap<String, ParameterAndDescriptor>();
     this.allowUndeclaredParameters = allowUndeclaredParameters;
@@ -219,8 +252,9 @@ public class NodeImpl implements Node {
     RCLJava.disposeQoSProfile(qosProfileHandle);
 
     Publisher<T> publisher =
-        new PublisherImpl<T>(new WeakReference<Node>(this), publisherHandle, topic);
+        new PublisherImpl<T>(new WeakReference<Node>(this), publisherHandle, messageType, topic);
     this.publishers.add(publisher);
+    this.notifyEntitiesChanged();
 
     return publisher;
   }
@@ -236,15 +270,42 @@ public class NodeImpl implements Node {
   public final <T extends MessageDefinition> Subscription<T> createSubscription(
       final Class<T> messageType, final String topic, final Consumer<T> callback,
       final QoSProfile qosProfile) {
+    return this.<T>createSubscription(messageType, topic, callback, qosProfile,
+        new SubscriptionOptions());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final <T extends MessageDefinition> Subscription<T> createSubscription(
+      final Class<T> messageType, final String topic, final Consumer<T> callback,
+      final QoSProfile qosProfile, final CallbackGroup callbackGroup) {
+    return this.<T>createSubscription(messageType, topic, callback, qosProfile,
+        new SubscriptionOptions().setCallbackGroup(callbackGroup));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final <T extends MessageDefinition> Subscription<T> createSubscription(
+      final Class<T> messageType, final String topic, final Consumer<T> callback,
+      final QoSProfile qosProfile, final SubscriptionOptions options) {
+    if (options.getReusedMessages() > 0 &&
+        options.getReusedMessages() < options.getMaxTakeBatch()) {
+      throw new IllegalArgumentException(
+        "At least as many messages as taken at once must be reused");
+    }
+
     long qosProfileHandle = RCLJava.convertQoSProfileToHandle(qosProfile);
     long subscriptionHandle =
         nativeCreateSubscriptionHandle(this.handle, messageType, topic, qosProfileHandle);
     RCLJava.disposeQoSProfile(qosProfileHandle);
 
-    Subscription<T> subscription = new SubscriptionImpl<T>(
-        new WeakReference<Node>(this), subscriptionHandle, messageType, topic, callback);
+    Subscription<T> subscription = new SubscriptionImpl<T>(new WeakReference<Node>(this),
+        subscriptionHandle, messageType, topic, callback, qosProfile, options);
 
     this.subscriptions.add(subscription);
+    this.notifyEntitiesChanged();
 
     return subscription;
   }
@@ -254,18 +315,116 @@ public class NodeImpl implements Node {
     return this.<T>createSubscription(messageType, topic, callback, QoSProfile.DEFAULT);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  public final <T extends MessageDefinition> Subscription<T> createSubscription(
+      final Class<T> messageType, final String topic, final Consumer<List<T>> callback,
+      final int maxBatchSize, final long maxLinger, final TimeUnit unit,
+      final QoSProfile qosProfile) {
+    return this.<T>createSubscription(
+        messageType, topic, callback, maxBatchSize, maxLinger, unit, qosProfile, null);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final <T extends MessageDefinition> Subscription<T> createSubscription(
+      final Class<T> messageType, final String topic, final Consumer<List<T>> callback,
+      final int maxBatchSize, final long maxLinger, final TimeUnit unit,
+      final QoSProfile qosProfile, final CallbackGroup callbackGroup) {
+    long qosProfileHandle = RCLJava.convertQoSProfileToHandle(qosProfile);
+    long subscriptionHandle =
+        nativeCreateSubscriptionHandle(this.handle, messageType, topic, qosProfileHandle);
+    RCLJava.disposeQoSProfile(qosProfileHandle);
+
+    // Take the messages of a batch at once when they are already queued
+    Subscription<T> subscription = new BatchSubscriptionImpl<T>(new WeakReference<Node>(this),
+        subscriptionHandle, messageType, topic, callback, maxBatchSize, maxLinger, unit,
+        qosProfile, new SubscriptionOptions().setMaxTakeBatch(maxBatchSize)
+            .setCallbackGroup(callbackGroup));
+
+    this.subscriptions.add(subscription);
+    this.notifyEntitiesChanged();
+
+    return subscription;
+  }
+
+  public final <T extends MessageDefinition> Subscription<T> createSubscription(
+      final Class<T> messageType, final String topic, final Consumer<List<T>> callback,
+      final int maxBatchSize, final long maxLinger, final TimeUnit unit) {
+    return this.<T>createSubscription(
+        messageType, topic, callback, maxBatchSize, maxLinger, unit, QoSProfile.DEFAULT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final <T extends MessageDefinition> SerializedSubscription<T>
+  createSerializedSubscription(final Class<T> messageType, final String topic,
+      final Consumer<ByteBuffer> callback, final QoSProfile qosProfile) {
+    return this.<T>createSerializedSubscription(messageType, topic, callback, qosProfile, null);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final <T extends MessageDefinition> SerializedSubscription<T>
+  createSerializedSubscription(final Class<T> messageType, final String topic,
+      final Consumer<ByteBuffer> callback, final QoSProfile qosProfile,
+      final CallbackGroup callbackGroup) {
+    long qosProfileHandle = RCLJava.convertQoSProfileToHandle(qosProfile);
+    long subscriptionHandle =
+        nativeCreateSubscriptionHandle(this.handle, messageType, topic, qosProfileHandle);
+    RCLJava.disposeQoSProfile(qosProfileHandle);
+
+    SerializedSubscription<T> subscription = new SerializedSubscriptionImpl<T>(
+        new WeakReference<Node>(this), subscriptionHandle, messageType, topic, callback,
+        callbackGroup);
+
+    this.serializedSubscriptions.add(subscription);
+    this.notifyEntitiesChanged();
+
+    return subscription;
+  }
+
+  public final <T extends MessageDefinition> SerializedSubscription<T>
+  createSerializedSubscription(final Class<T> messageType, final String topic,
+      final Consumer<ByteBuffer> callback) {
+    return this.<T>createSerializedSubscription(messageType, topic, callback, QoSProfile.DEFAULT);
+  }
+
   /**
    * {@inheritDoc}
    */
   public boolean removeSubscription(final Subscription subscription) {
-    return this.subscriptions.remove(subscription);
+    boolean removed = this.subscriptions.remove(subscription);
+    if (removed) {
+      this.notifyEntitiesChanged();
+    }
+    return removed;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public boolean removeSerializedSubscription(final SerializedSubscription subscription) {
+    boolean removed = this.serializedSubscriptions.remove(subscription);
+    if (removed) {
+      this.notifyEntitiesChanged();
+    }
+    return removed;
   }
 
   /**
    * {@inheritDoc}
    */
   public boolean removePublisher(final Publisher publisher) {
-    return this.publishers.remove(publisher);
+    boolean removed = this.publishers.remove(publisher);
+    if (removed) {
+      this.notifyEntitiesChanged();
+    }
+    return removed;
   }
 
   /**
@@ -275,6 +434,13 @@ public class NodeImpl implements Node {
     return this.subscriptions;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  public final Collection<SerializedSubscription> getSerializedSubscriptions() {
+    return this.serializedSubscriptions;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -290,6 +456,15 @@ public class NodeImpl implements Node {
       final TriConsumer<RMWRequestId, ? extends MessageDefinition, ? extends MessageDefinition>
           callback,
       final QoSProfile qosProfile) throws NoSuchFieldException, IllegalAccessException {
+    return this.<T>createService(serviceType, serviceName, callback, qosProfile, null);
+  }
+
+  public final <T extends ServiceDefinition> Service<T> createService(final Class<T> serviceType,
+      final String serviceName,
+      final TriConsumer<RMWRequestId, ? extends MessageDefinition, ? extends MessageDefinition>
+          callback,
+      final QoSProfile qosProfile, final CallbackGroup callbackGroup)
+      throws NoSuchFieldException, IllegalAccessException {
     Class<MessageDefinition> requestType = (Class) serviceType.getField("RequestType").get(null);
 
     Class<MessageDefinition> responseType = (Class) serviceType.getField("ResponseType").get(null);
@@ -300,8 +475,9 @@ public class NodeImpl implements Node {
     RCLJava.disposeQoSProfile(qosProfileHandle);
 
     Service<T> service = new ServiceImpl<T>(new WeakReference<Node>(this), serviceHandle,
-        serviceName, callback, requestType, responseType);
+        serviceName, callback, requestType, responseType, callbackGroup);
     this.services.add(service);
+    this.notifyEntitiesChanged();
 
     return service;
   }
@@ -313,6 +489,38 @@ public class NodeImpl implements Node {
     return this.<T>createService(serviceType, serviceName, callback, QoSProfile.SERVICES_DEFAULT);
   }
 
+  public final <T extends ServiceDefinition> Service<T> createDeferredService(
+      final Class<T> serviceType, final String serviceName,
+      final BiConsumer<? extends MessageDefinition,
+          ? extends ServiceResponder<? extends MessageDefinition>> callback,
+      final QoSProfile qosProfile, final CallbackGroup callbackGroup)
+      throws NoSuchFieldException, IllegalAccessException {
+    Class<MessageDefinition> requestType = (Class) serviceType.getField("RequestType").get(null);
+
+    Class<MessageDefinition> responseType = (Class) serviceType.getField("ResponseType").get(null);
+
+    long qosProfileHandle = RCLJava.convertQoSProfileToHandle(qosProfile);
+    long serviceHandle =
+        nativeCreateServiceHandle(this.handle, serviceType, serviceName, qosProfileHandle);
+    RCLJava.disposeQoSProfile(qosProfileHandle);
+
+    Service<T> service = new DeferredServiceImpl<T>(new WeakReference<Node>(this), serviceHandle,
+        serviceName, callback, requestType, responseType, callbackGroup);
+    this.services.add(service);
+    this.notifyEntitiesChanged();
+
+    return service;
+  }
+
+  public <T extends ServiceDefinition> Service<T> createDeferredService(
+      final Class<T> serviceType, final String serviceName,
+      final BiConsumer<? extends MessageDefinition,
+          ? extends ServiceResponder<? extends MessageDefinition>> callback)
+      throws NoSuchFieldException, IllegalAccessException {
+    return this.<T>createDeferredService(
+        serviceType, serviceName, callback, QoSProfile.SERVICES_DEFAULT, null);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -323,6 +531,12 @@ public class NodeImpl implements Node {
   public final <T extends ServiceDefinition> Client<T> createClient(
       final Class<T> serviceType, final String serviceName, final QoSProfile qosProfile)
       throws NoSuchFieldException, IllegalAccessException {
+    return this.<T>createClient(serviceType, serviceName, qosProfile, null);
+  }
+
+  public final <T extends ServiceDefinition> Client<T> createClient(
+      final Class<T> serviceType, final String serviceName, final QoSProfile qosProfile,
+      final CallbackGroup callbackGroup) throws NoSuchFieldException, IllegalAccessException {
     Class<MessageDefinition> requestType = (Class) serviceType.getField("RequestType").get(null);
 
     Class<MessageDefinition> responseType = (Class) serviceType.getField("ResponseType").get(null);
@@ -332,9 +546,10 @@ public class NodeImpl implements Node {
         nativeCreateClientHandle(this.handle, serviceType, serviceName, qosProfileHandle);
     RCLJava.disposeQoSProfile(qosProfileHandle);
 
-    Client<T> client = new ClientImpl<T>(
-        new WeakReference<Node>(this), clientHandle, serviceName, requestType, responseType);
+    Client<T> client = new ClientImpl<T>(new WeakReference<Node>(this), clientHandle,
+        serviceName, requestType, responseType, callbackGroup);
     this.clients.add(client);
+    this.notifyEntitiesChanged();
 
     return client;
   }
@@ -351,14 +566,33 @@ public class NodeImpl implements Node {
    * {@inheritDoc}
    */
   public boolean removeService(final Service service) {
-    return this.services.remove(service);
+    boolean removed = this.services.remove(service);
+    if (removed) {
+      this.notifyEntitiesChanged();
+    }
+    return removed;
   }
 
   /**
    * {@inheritDoc}
    */
   public boolean removeClient(final Client client) {
-    return this.clients.remove(client);
+    boolean removed = this.clients.remove(client);
+    if (removed) {
+      this.notifyEntitiesChanged();
+    }
+    return removed;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public boolean removeTimer(final Timer timer) {
+    boolean removed = this.timers.remove(timer);
+    if (removed) {
+      this.notifyEntitiesChanged();
+    }
+    return removed;
   }
 
   /**
@@ -381,10 +615,12 @@ public class NodeImpl implements Node {
       disposable.dispose();
     }
     disposables.clear();
+    this.notifyEntitiesChanged();
   }
 
   private void cleanup() {
     cleanupDisposables(subscriptions);
+    cleanupDisposables(serializedSubscriptions);
     cleanupDisposables(publishers);
     cleanupDisposables(timers);
     cleanupDisposables(services);
@@ -396,6 +632,9 @@ public class NodeImpl implements Node {
    */
   public final void dispose() {
     cleanup();
+    // The context may already be shut down, which must not create another cache or listener
+    GraphCache.removeNodeIfPresent(this.context, this);
+    GraphListener.removeNodeIfPresent(this.context, this);
     nativeDispose(this.handle);
     this.handle = 0;
   }
@@ -411,11 +650,17 @@ public class NodeImpl implements Node {
 
   public WallTimer createWallTimer(
       final long period, final TimeUnit unit, final Callback callback) {
+    return this.createWallTimer(period, unit, callback, null);
+  }
+
+  public WallTimer createWallTimer(final long period, final TimeUnit unit,
+      final Callback callback, final CallbackGroup callbackGroup) {
     long timerPeriodNS = TimeUnit.NANOSECONDS.convert(period, unit);
     long timerHandle = nativeCreateTimerHandle(clock.getHandle(), context.getHandle(), timerPeriodNS);
-    WallTimer timer =
-        new WallTimerImpl(new WeakReference<Node>(this), timerHandle, callback, timerPeriodNS);
+    WallTimer timer = new WallTimerImpl(
+        new WeakReference<Node>(this), timerHandle, callback, timerPeriodNS, callbackGroup);
     this.timers.add(timer);
+    this.notifyEntitiesChanged();
     return timer;
   }
 
@@ -426,6 +671,44 @@ public class NodeImpl implements Node {
     return this.timers;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  public final CallbackGroup createCallbackGroup(final CallbackGroupType type) {
+    return new CallbackGroupImpl(type);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final long getEntitiesVersion() {
+    return this.entitiesVersion.get();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final void notifyEntitiesChanged() {
+    this.entitiesVersion.incrementAndGet();
+    for (Callback callback : this.entitiesChangedCallbacks) {
+      callback.call();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final void addEntitiesChangedCallback(final Callback callback) {
+    this.entitiesChangedCallbacks.add(callback);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final void removeEntitiesChangedCallback(final Callback callback) {
+    this.entitiesChangedCallbacks.remove(callback);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -800,4 +1083,14 @@ public class NodeImpl implements Node {
 
   private native static final void nativeGetSubscriptionsInfo(
     final long handle, final String topicName, ArrayList<EndpointInfo> endpointInfo);
+
+  public final GraphListener getGraphListener() {
+    return GraphListener.getGraphListener(this.context);
+  }
+
+  public final GraphCache getGraphCache() {
+    GraphCache graphCache = GraphCache.getGraphCache(this.context);
+    graphCache.addNode(this);
+    return graphCache;
+  }
 }
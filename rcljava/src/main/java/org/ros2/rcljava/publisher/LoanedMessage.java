@@ -0,0 +1,74 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.publisher;
+
+import org.ros2.rcljava.interfaces.MessageDefinition;
+
+/**
+ * A message borrowed from a @{link Publisher}.
+ * If the middleware supports loaning messages, the message is converted directly into memory
+ * owned by the middleware when published, saving the copy from a native message.
+ * Otherwise, the publisher falls back to its own native buffer.
+ * A loaned message must be either published or returned to its publisher, exactly once.
+ *
+ * @param <T> The type of the message.
+ */
+public final class LoanedMessage<T extends MessageDefinition> {
+  private final T message;
+
+  /**
+   * An integer that represents a pointer to the memory loaned by the middleware, or zero if
+   * the message is not backed by a middleware loan.
+   */
+  private long handle;
+
+  private boolean consumed;
+
+  LoanedMessage(final T message, final long handle) {
+    this.message = message;
+    this.handle = handle;
+  }
+
+  /**
+   * @return The message to be filled in before publishing it.
+   */
+  public final T getMessage() {
+    return this.message;
+  }
+
+  /**
+   * @return true if the message is backed by memory loaned by the middleware, false if the
+   *     publisher fell back to its own native buffer.
+   */
+  public final boolean isLoaned() {
+    return this.handle != 0;
+  }
+
+  /**
+   * Mark the loan as published or returned.
+   *
+   * @return The pointer to the loaned memory, which is no longer owned by this object.
+   */
+  final long consume() {
+    if (this.consumed) {
+      throw new IllegalStateException("Loaned message was already published or returned");
+    }
+    this.consumed = true;
+    long loanedHandle = this.handle;
+    this.handle = 0;
+    return loanedHandle;
+  }
+}
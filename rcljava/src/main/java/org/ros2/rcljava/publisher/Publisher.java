@@ -16,6 +16,7 @@
 package org.ros2.rcljava.publisher;
 
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.function.Supplier;
 
@@ -36,11 +37,50 @@ import org.ros2.rcljava.node.Node;
 public interface Publisher<T extends MessageDefinition> extends Disposable {
   /**
    * Publish a message.
+   * It can be called from several threads at the same time.
    *
    * @param message An instance of the &lt;T&gt; parameter.
    */
   void publish(final T message);
 
+  /**
+   * Publish a message that is already serialized, without converting it from a Java object.
+   *
+   * @param serializedMessage A direct buffer with the serialized (CDR) message between its
+   *     position and its limit.
+   */
+  void publishSerialized(final ByteBuffer serializedMessage);
+
+  /**
+   * Borrow a message to be published with @{link #publishLoanedMessage(LoanedMessage)}.
+   * If the middleware supports loaning messages of type &lt;T&gt;, the message will be
+   * converted directly into memory owned by the middleware, which avoids one copy of the
+   * message when publishing.
+   *
+   * @return A loaned message, which must be published or returned to this publisher.
+   */
+  LoanedMessage<T> borrowLoanedMessage();
+
+  /**
+   * Publish a message previously borrowed from this publisher.
+   * The loaned message must not be used afterwards.
+   *
+   * @param loanedMessage A message borrowed with @{link #borrowLoanedMessage()}.
+   */
+  void publishLoanedMessage(final LoanedMessage<T> loanedMessage);
+
+  /**
+   * Return a message previously borrowed from this publisher without publishing it.
+   *
+   * @param loanedMessage A message borrowed with @{link #borrowLoanedMessage()}.
+   */
+  void returnLoanedMessage(final LoanedMessage<T> loanedMessage);
+
+  /**
+   * @return true if the middleware can loan messages for this publisher.
+   */
+  boolean canLoanMessages();
+
   /**
    * A @{link java.lang.ref.WeakReference} to the @{link org.ros2.rcljava.Node}
    * that created this publisher.
@@ -16,8 +16,10 @@
 package org.ros2.rcljava.publisher;
 
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 import org.slf4j.Logger;
@@ -60,8 +62,36 @@ public class PublisherImpl<T extends MessageDefinition> implements Publisher<T>
    */
   private final String topic;
 
+  /**
+   * The type of the messages published, if known.
+   */
+  private final Class<T> messageType;
+
   private final Collection<EventHandler> eventHandlers;
 
+  /**
+   * Pointers to the native functions that convert and destroy messages of this publisher.
+   * They are resolved from the first published message, instead of for every message.
+   */
+  private long fromJavaConverterHandle;
+
+  private long destructorHandle;
+
+  /**
+   * A pointer to the native message that is refilled and published on every call to
+   * {@link #publish(MessageDefinition)}, zero until the first message is published.
+   * Reusing it avoids allocating and destroying a native message, including its sequences, for
+   * every message published.
+   */
+  private long messageHandle;
+
+  /**
+   * Protects the native message, which can only be filled by one thread at a time.
+   * Threads that publish while it is held use a native message of their own instead of
+   * waiting for it.
+   */
+  private final ReentrantLock messageLock = new ReentrantLock();
+
   /**
    * Constructor.
    *
@@ -73,8 +103,25 @@ public class PublisherImpl<T extends MessageDefinition> implements Publisher<T>
    */
   public PublisherImpl(
       final WeakReference<Node> nodeReference, final long handle, final String topic) {
+    this(nodeReference, handle, null, topic);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param nodeReference A {@link java.lang.ref.WeakReference} to the
+   *     @{link org.ros2.rcljava.Node} that created this publisher.
+   * @param handle A pointer to the underlying ROS2 publisher
+   *     structure, as an integer. Must not be zero.
+   * @param messageType The <code>Class</code> of the messages that this
+   *     publisher will publish, required for borrowing messages.
+   * @param topic The topic to which this publisher will publish messages.
+   */
+  public PublisherImpl(final WeakReference<Node> nodeReference, final long handle,
+      final Class<T> messageType, final String topic) {
     this.nodeReference = nodeReference;
     this.handle = handle;
+    this.messageType = messageType;
     this.topic = topic;
     this.eventHandlers = new LinkedBlockingQueue<EventHandler>();
   }
@@ -85,16 +132,169 @@ public class PublisherImpl<T extends MessageDefinition> implements Publisher<T>
    * @param <T> The type of the messages that this publisher will publish.
    * @param handle A pointer to the underlying ROS2 publisher
    *     structure, as an integer. Must not be zero.
+   * @param messageFromJavaConverter A pointer to the function that converts the message to
+   *     its native representation.
+   * @param messageDestructor A pointer to the function that destroys the native message.
+   * @param messageHandle A pointer to a native message to refill in place, or zero to create
+   *     a new one.
+   * @param keepMessage If true, a native message created by this call is returned to the
+   *     caller when the message was published. Otherwise it is destroyed before returning.
+   *     A native message created by this call is destroyed on failure either way.
    * @param message An instance of the &lt;T&gt; parameter.
+   * @return A pointer to the native message that was published, which is owned by the caller,
+   *     or zero if it was not kept.
+   */
+  private static native <T extends MessageDefinition> long nativePublish(long handle,
+      long messageFromJavaConverter, long messageDestructor, long messageHandle,
+      boolean keepMessage, T message);
+
+  /**
+   * Destroy a native message.
+   *
+   * @param messageDestructor A pointer to the function that destroys the native message.
+   * @param messageHandle A pointer to the native message to destroy.
    */
-  private static native <T extends MessageDefinition> void nativePublish(
-      long handle, long messageDestructor, T message);
+  private static native void nativeDestroyMessage(long messageDestructor, long messageHandle);
+
+  /**
+   * Publish a serialized message via the underlying ROS2 mechanisms.
+   *
+   * @param handle A pointer to the underlying ROS2 publisher
+   *     structure, as an integer. Must not be zero.
+   * @param serializedMessage A direct buffer with the serialized message.
+   * @param offset The offset of the serialized message in the buffer.
+   * @param length The length of the serialized message, in bytes.
+   */
+  private static native void nativePublishSerialized(
+      long handle, ByteBuffer serializedMessage, int offset, int length);
+
+  /**
+   * Check if the middleware can loan messages for a publisher.
+   *
+   * @param handle A pointer to the underlying ROS2 publisher structure.
+   * @return true if messages can be loaned.
+   */
+  private static native boolean nativeCanLoanMessages(long handle);
+
+  /**
+   * Borrow a message from the middleware.
+   *
+   * @param handle A pointer to the underlying ROS2 publisher structure.
+   * @param typeSupportHandle A pointer to the type support of the messages.
+   * @return A pointer to the loaned message.
+   */
+  private static native long nativeBorrowLoanedMessage(long handle, long typeSupportHandle);
+
+  /**
+   * Convert a message into memory loaned by the middleware and publish it.
+   * The ownership of the loaned memory is transferred back to the middleware.
+   *
+   * @param <T> The type of the messages that this publisher will publish.
+   * @param handle A pointer to the underlying ROS2 publisher structure.
+   * @param messageFromJavaConverter A pointer to the function that converts the message to
+   *     its native representation.
+   * @param loanedMessageHandle A pointer to the loaned message.
+   * @param message An instance of the &lt;T&gt; parameter.
+   */
+  private static native <T extends MessageDefinition> void nativePublishLoanedMessage(
+      long handle, long messageFromJavaConverter, long loanedMessageHandle, T message);
+
+  /**
+   * Return a message to the middleware without publishing it.
+   *
+   * @param handle A pointer to the underlying ROS2 publisher structure.
+   * @param loanedMessageHandle A pointer to the loaned message.
+   */
+  private static native void nativeReturnLoanedMessage(long handle, long loanedMessageHandle);
 
   /**
    * {@inheritDoc}
    */
   public final void publish(final T message) {
-    nativePublish(this.handle, message.getDestructorInstance(), message);
+    if (!this.messageLock.tryLock()) {
+      // Another thread is publishing with the native message of this publisher, do not
+      // serialize the publishers behind it
+      nativePublish(this.handle, message.getFromJavaConverterInstance(),
+          message.getDestructorInstance(), 0, false, message);
+      return;
+    }
+    try {
+      if (this.destructorHandle == 0) {
+        // All the messages of a publisher share the same type
+        this.fromJavaConverterHandle = message.getFromJavaConverterInstance();
+        this.destructorHandle = message.getDestructorInstance();
+      }
+      this.messageHandle = nativePublish(this.handle, this.fromJavaConverterHandle,
+          this.destructorHandle, this.messageHandle, true, message);
+    } finally {
+      this.messageLock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final void publishSerialized(final ByteBuffer serializedMessage) {
+    if (!serializedMessage.isDirect()) {
+      throw new IllegalArgumentException("Serialized messages must be in a direct buffer");
+    }
+    nativePublishSerialized(this.handle, serializedMessage, serializedMessage.position(),
+        serializedMessage.remaining());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final boolean canLoanMessages() {
+    return nativeCanLoanMessages(this.handle);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final LoanedMessage<T> borrowLoanedMessage() {
+    if (this.messageType == null) {
+      throw new IllegalStateException("The message type of the publisher is unknown");
+    }
+    T message;
+    try {
+      message = this.messageType.newInstance();
+    } catch (InstantiationException ie) {
+      throw new IllegalArgumentException("Failed to instantiate message", ie);
+    } catch (IllegalAccessException iae) {
+      throw new IllegalArgumentException("Failed to instantiate message", iae);
+    }
+    long loanedMessageHandle = 0;
+    if (nativeCanLoanMessages(this.handle)) {
+      loanedMessageHandle =
+          nativeBorrowLoanedMessage(this.handle, message.getTypeSupportInstance());
+    }
+    return new LoanedMessage<T>(message, loanedMessageHandle);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final void publishLoanedMessage(final LoanedMessage<T> loanedMessage) {
+    long loanedMessageHandle = loanedMessage.consume();
+    if (loanedMessageHandle == 0) {
+      // Not loaned by the middleware, use the native buffer of this publisher instead
+      this.publish(loanedMessage.getMessage());
+      return;
+    }
+    nativePublishLoanedMessage(this.handle,
+        loanedMessage.getMessage().getFromJavaConverterInstance(), loanedMessageHandle,
+        loanedMessage.getMessage());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final void returnLoanedMessage(final LoanedMessage<T> loanedMessage) {
+    long loanedMessageHandle = loanedMessage.consume();
+    if (loanedMessageHandle != 0) {
+      nativeReturnLoanedMessage(this.handle, loanedMessageHandle);
+    }
   }
 
   /**
@@ -119,12 +319,17 @@ public class PublisherImpl<T extends MessageDefinition> implements Publisher<T>
   createEventHandler(Supplier<T> factory, Consumer<T> callback) {
     final WeakReference<Collection<EventHandler>> weakEventHandlers = new WeakReference(
       this.eventHandlers);
+    final WeakReference<Node> nodeReference = this.nodeReference;
     Consumer<EventHandler> disposeCallback = new Consumer<EventHandler>() {
       public void accept(EventHandler eventHandler) {
         Collection<EventHandler> eventHandlers = weakEventHandlers.get();
         if (eventHandlers != null) {
           eventHandlers.remove(eventHandler);
         }
+        Node node = nodeReference.get();
+        if (node != null) {
+          node.notifyEntitiesChanged();
+        }
       }
     };
     T status = factory.get();
@@ -132,6 +337,10 @@ public class PublisherImpl<T extends MessageDefinition> implements Publisher<T>
     EventHandler<T, Publisher> eventHandler = new EventHandlerImpl(
       new WeakReference<Publisher>(this), eventHandle, factory, callback, disposeCallback);
     this.eventHandlers.add(eventHandler);
+    Node node = this.nodeReference.get();
+    if (node != null) {
+      node.notifyEntitiesChanged();
+    }
     return eventHandler;
   }
 
@@ -186,6 +395,15 @@ public class PublisherImpl<T extends MessageDefinition> implements Publisher<T>
       eventHandler.dispose();
     }
     this.eventHandlers.clear();
+    this.messageLock.lock();
+    try {
+      if (this.messageHandle != 0) {
+        nativeDestroyMessage(this.destructorHandle, this.messageHandle);
+        this.messageHandle = 0;
+      }
+    } finally {
+      this.messageLock.unlock();
+    }
     Node node = this.nodeReference.get();
     if (node != null) {
       node.removePublisher(this);
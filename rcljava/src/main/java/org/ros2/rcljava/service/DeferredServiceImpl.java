@@ -0,0 +1,65 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.service;
+
+import java.lang.ref.WeakReference;
+
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
+import org.ros2.rcljava.consumers.BiConsumer;
+import org.ros2.rcljava.interfaces.MessageDefinition;
+import org.ros2.rcljava.interfaces.ServiceDefinition;
+import org.ros2.rcljava.node.Node;
+
+/**
+ * A service whose callback sends the response through a @{link ServiceResponder}, rather than
+ * the executor sending it once the callback returns.
+ * This lets slow requests be handed over to other threads while the executor keeps running.
+ */
+public class DeferredServiceImpl<T extends ServiceDefinition> extends ServiceImpl<T> {
+  private final BiConsumer<MessageDefinition, ServiceResponder<MessageDefinition>> callback;
+
+  public DeferredServiceImpl(final WeakReference<Node> nodeReference, final long handle,
+      final String serviceName,
+      final BiConsumer<? extends MessageDefinition,
+          ? extends ServiceResponder<? extends MessageDefinition>> callback,
+      final Class<MessageDefinition> requestType, final Class<MessageDefinition> responseType,
+      final CallbackGroup callbackGroup) {
+    super(nodeReference, handle, serviceName, null, requestType, responseType, callbackGroup);
+    this.callback = toCallback(callback);
+  }
+
+  /**
+   * The executor only passes requests of the request type of the service, and the callback
+   * only sends responses of its response type, which the types of the callback stand for.
+   */
+  @SuppressWarnings("unchecked")
+  private static BiConsumer<MessageDefinition, ServiceResponder<MessageDefinition>> toCallback(
+      final BiConsumer<? extends MessageDefinition,
+          ? extends ServiceResponder<? extends MessageDefinition>> callback) {
+    return (BiConsumer<MessageDefinition, ServiceResponder<MessageDefinition>>) callback;
+  }
+
+  @Override
+  public void executeCallback(
+      RMWRequestId rmwRequestId, MessageDefinition request, MessageDefinition response) {
+    this.callback.accept(request, new ServiceResponder<MessageDefinition>(this, rmwRequestId));
+  }
+
+  @Override
+  public boolean isResponseDeferred() {
+    return true;
+  }
+}
@@ -15,6 +15,7 @@
 
 package org.ros2.rcljava.service;
 
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
 import org.ros2.rcljava.consumers.TriConsumer;
 import org.ros2.rcljava.interfaces.Disposable;
 import org.ros2.rcljava.interfaces.MessageDefinition;
@@ -27,5 +28,25 @@ public interface Service<T extends ServiceDefinition> extends Disposable {
 
   void executeCallback(RMWRequestId rmwRequestId, MessageDefinition request, MessageDefinition response);
 
+  /**
+   * @return true if the responses are sent by the callback through a @{link ServiceResponder},
+   *     false if the executor sends the response once the callback returns.
+   */
+  boolean isResponseDeferred();
+
+  /**
+   * Send the response to a request.
+   * This is thread-safe, so responses can be sent from any thread.
+   *
+   * @param rmwRequestId The id of the request, as passed to the callback.
+   * @param response The response to send.
+   */
+  void sendResponse(RMWRequestId rmwRequestId, MessageDefinition response);
+
   String getServiceName();
+
+  /**
+   * @return The callback group this service belongs to, or null if it was not created in one.
+   */
+  CallbackGroup getCallbackGroup();
 }
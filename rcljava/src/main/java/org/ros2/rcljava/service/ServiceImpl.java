@@ -18,6 +18,7 @@ package org.ros2.rcljava.service;
 import java.lang.ref.WeakReference;
 
 import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
 import org.ros2.rcljava.common.JNIUtils;
 import org.ros2.rcljava.consumers.TriConsumer;
 import org.ros2.rcljava.interfaces.MessageDefinition;
@@ -47,18 +48,35 @@ public class ServiceImpl<T extends ServiceDefinition> implements Service<T> {
 
   private final Class<MessageDefinition> requestType;
   private final Class<MessageDefinition> responseType;
+  private final CallbackGroup callbackGroup;
+
+  /**
+   * Held while sending a response or disposing, so that responses sent from other threads never
+   * use a disposed service.
+   */
+  private final Object handleLock = new Object();
 
   public ServiceImpl(final WeakReference<Node> nodeReference, final long handle,
       final String serviceName,
       final TriConsumer<RMWRequestId, ? extends MessageDefinition, ? extends MessageDefinition>
           callback,
-      final Class<MessageDefinition> requestType, final Class<MessageDefinition> responseType) {
+      final Class<MessageDefinition> requestType, final Class<MessageDefinition> responseType,
+      final CallbackGroup callbackGroup) {
     this.nodeReference = nodeReference;
     this.handle = handle;
     this.serviceName = serviceName;
     this.callback = callback;
     this.requestType = requestType;
     this.responseType = responseType;
+    this.callbackGroup = callbackGroup;
+  }
+
+  public ServiceImpl(final WeakReference<Node> nodeReference, final long handle,
+      final String serviceName,
+      final TriConsumer<RMWRequestId, ? extends MessageDefinition, ? extends MessageDefinition>
+          callback,
+      final Class<MessageDefinition> requestType, final Class<MessageDefinition> responseType) {
+    this(nodeReference, handle, serviceName, callback, requestType, responseType, null);
   }
 
   public final Class<MessageDefinition> getRequestType() {
@@ -69,6 +87,10 @@ public class ServiceImpl<T extends ServiceDefinition> implements Service<T> {
     return this.responseType;
   }
 
+  public final CallbackGroup getCallbackGroup() {
+    return this.callbackGroup;
+  }
+
   /**
    * Destroy a ROS2 service (rcl_service_t).
    *
@@ -86,8 +108,10 @@ public class ServiceImpl<T extends ServiceDefinition> implements Service<T> {
     Node node = this.nodeReference.get();
     if (node != null) {
       node.removeService(this);
-      nativeDispose(node.getHandle(), this.handle);
-      this.handle = 0;
+      synchronized (this.handleLock) {
+        nativeDispose(node.getHandle(), this.handle);
+        this.handle = 0;
+      }
     }
   }
 
@@ -107,4 +131,23 @@ public class ServiceImpl<T extends ServiceDefinition> implements Service<T> {
   public String getServiceName() {
     return this.serviceName;
   }
+
+  public boolean isResponseDeferred() {
+    return false;
+  }
+
+  private static native void nativeSendResponse(long handle, long sequenceNumber,
+      byte[] writerGUID, long responseFromJavaConverterHandle, long responseDestructorHandle,
+      MessageDefinition responseMessage);
+
+  public final void sendResponse(
+      final RMWRequestId rmwRequestId, final MessageDefinition response) {
+    synchronized (this.handleLock) {
+      if (this.handle == 0) {
+        throw new IllegalStateException("Service " + this.serviceName + " was disposed");
+      }
+      nativeSendResponse(this.handle, rmwRequestId.sequenceNumber, rmwRequestId.writerGUID,
+          response.getFromJavaConverterInstance(), response.getDestructorInstance(), response);
+    }
+  }
 }
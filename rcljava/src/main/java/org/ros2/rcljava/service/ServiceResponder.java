@@ -0,0 +1,65 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.ros2.rcljava.interfaces.MessageDefinition;
+
+/**
+ * Sends the response to one request of a service created with deferred responses.
+ * The response may be sent later and from any thread, but exactly once.
+ *
+ * @param <U> The type of the response.
+ */
+public final class ServiceResponder<U extends MessageDefinition> {
+  private final Service<?> service;
+
+  private final RMWRequestId rmwRequestId;
+
+  private final AtomicBoolean responded = new AtomicBoolean(false);
+
+  ServiceResponder(final Service<?> service, final RMWRequestId rmwRequestId) {
+    this.service = service;
+    this.rmwRequestId = rmwRequestId;
+  }
+
+  /**
+   * @return The id of the request to respond to.
+   */
+  public final RMWRequestId getRequestId() {
+    return this.rmwRequestId;
+  }
+
+  /**
+   * @return true if the response was already sent.
+   */
+  public final boolean isResponded() {
+    return this.responded.get();
+  }
+
+  /**
+   * Send the response to the client that made the request.
+   *
+   * @param response The response to send.
+   */
+  public final void sendResponse(final U response) {
+    if (!this.responded.compareAndSet(false, true)) {
+      throw new IllegalStateException("The response to this request was already sent");
+    }
+    this.service.sendResponse(this.rmwRequestId, response);
+  }
+}
@@ -0,0 +1,149 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.subscription;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.consumers.Consumer;
+import org.ros2.rcljava.interfaces.MessageDefinition;
+import org.ros2.rcljava.node.Node;
+import org.ros2.rcljava.qos.QoSProfile;
+import org.ros2.rcljava.timer.WallTimer;
+
+/**
+ * A subscription that delivers the messages it receives in batches.
+ * A batch is delivered when it reaches its maximum size, or when its first message has waited
+ * for the maximum linger time, whichever comes first.
+ *
+ * @param <T> The type of the messages that this subscription will receive.
+ */
+public class BatchSubscriptionImpl<T extends MessageDefinition> extends SubscriptionImpl<T> {
+  /**
+   * The callback function that will be triggered when a batch of messages is complete.
+   */
+  private final Consumer<List<T>> batchCallback;
+
+  private final int maxBatchSize;
+
+  /**
+   * A timer that delivers the pending messages when the linger time elapses, only running
+   * while there are pending messages.
+   */
+  private final WallTimer lingerTimer;
+
+  private List<T> pendingMessages;
+
+  /**
+   * Protects the pending messages, which are added by this subscription and may be delivered
+   * by the linger timer at the same time.
+   */
+  private final Object batchLock = new Object();
+
+  /**
+   * Held while a batch is delivered, so that batches are delivered in order and one at a time
+   * without holding @{link #batchLock} during the callback.
+   */
+  private final Object deliveryLock = new Object();
+
+  /**
+   * Constructor.
+   *
+   * @param nodeReference A {@link java.lang.ref.WeakReference} to the
+   *     @{link org.ros2.rcljava.Node} that created this subscription.
+   * @param handle A pointer to the underlying ROS2 subscription
+   *     structure, as an integer. Must not be zero.
+   * @param messageType The <code>Class</code> of the messages that this
+   *     subscription will receive.
+   * @param topic The topic to which this subscription will be subscribed.
+   * @param callback The callback function that will be triggered with each batch of messages.
+   * @param maxBatchSize The maximum number of messages in a batch.
+   * @param maxLinger The maximum time the first message of a batch waits to be delivered.
+   * @param unit The unit of <code>maxLinger</code>.
+   * @param qosProfile The QoS profile this subscription was created with, may be null.
+   * @param options The options of this subscription.
+   */
+  public BatchSubscriptionImpl(final WeakReference<Node> nodeReference, final long handle,
+      final Class<T> messageType, final String topic, final Consumer<List<T>> callback,
+      final int maxBatchSize, final long maxLinger, final TimeUnit unit,
+      final QoSProfile qosProfile, final SubscriptionOptions options) {
+    super(nodeReference, handle, messageType, topic, null, qosProfile, options);
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("A batch must contain at least one message");
+    }
+    this.batchCallback = callback;
+    this.maxBatchSize = maxBatchSize;
+    this.pendingMessages = new ArrayList<T>(maxBatchSize);
+
+    this.lingerTimer = nodeReference.get().createWallTimer(maxLinger, unit, new Callback() {
+      public void call() {
+        deliverPendingMessages();
+      }
+    }, options.getCallbackGroup());
+    this.lingerTimer.cancel();
+  }
+
+  /**
+   * Add a message to the current batch, and deliver it if it is complete.
+   */
+  public void executeCallback(T message) {
+    boolean complete;
+    synchronized (this.batchLock) {
+      this.pendingMessages.add(message);
+      complete = this.pendingMessages.size() >= this.maxBatchSize;
+      if (!complete && this.pendingMessages.size() == 1) {
+        // Start waiting for the linger time from the first message of the batch
+        this.lingerTimer.reset();
+      }
+    }
+    if (complete) {
+      this.deliverPendingMessages();
+    }
+  }
+
+  private void deliverPendingMessages() {
+    synchronized (this.deliveryLock) {
+      List<T> batch;
+      synchronized (this.batchLock) {
+        this.lingerTimer.cancel();
+        if (this.pendingMessages.isEmpty()) {
+          return;
+        }
+        batch = this.pendingMessages;
+        this.pendingMessages = new ArrayList<T>(this.maxBatchSize);
+      }
+      // Called without the batch lock, so that the linger timer and dispose() never wait for
+      // the callback
+      this.batchCallback.accept(batch);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void dispose() {
+    super.dispose();
+    synchronized (this.batchLock) {
+      this.lingerTimer.cancel();
+      this.pendingMessages.clear();
+    }
+    // Also removes it from the node, and from the executors spinning it
+    this.lingerTimer.dispose();
+  }
+}
@@ -0,0 +1,64 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.subscription;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
+import org.ros2.rcljava.interfaces.Disposable;
+import org.ros2.rcljava.interfaces.MessageDefinition;
+import org.ros2.rcljava.node.Node;
+
+/**
+ * A subscription that receives messages in their serialized (CDR) form, without converting
+ * them to Java objects.
+ * A SerializedSubscription must be created via
+ * @{link Node#createSerializedSubscription(Class&lt;T&gt;, String, Consumer&lt;ByteBuffer&gt;)}
+ *
+ * @param <T> The type of the messages that this subscription will receive.
+ */
+public interface SerializedSubscription<T extends MessageDefinition> extends Disposable {
+  /**
+   * @return The type of the messages that this subscription may receive.
+   */
+  Class<T> getMessageType();
+
+  /**
+   * @return A @{link java.lang.ref.WeakReference} to the
+   * @{link org.ros2.rcljava.Node} that created this subscription.
+   */
+  WeakReference<Node> getNodeReference();
+
+  /**
+   * @return The callback group this subscription belongs to, or null if it was not created in one.
+   */
+  CallbackGroup getCallbackGroup();
+
+  /**
+   * @return A pointer to the native serialized message (rcl_serialized_message_t) messages are
+   *     taken into. It is reused for every message taken by this subscription.
+   */
+  long getSerializedMessageHandle();
+
+  /**
+   * Trigger the callback of this subscription for the message that was last taken into
+   * the native serialized message.
+   *
+   * @param length The length of the serialized message, in bytes.
+   */
+  void executeSerializedCallback(long length);
+}
@@ -0,0 +1,207 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.subscription;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
+import org.ros2.rcljava.common.JNIUtils;
+import org.ros2.rcljava.consumers.Consumer;
+import org.ros2.rcljava.interfaces.MessageDefinition;
+import org.ros2.rcljava.node.Node;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@inheritDoc}
+ */
+public class SerializedSubscriptionImpl<T extends MessageDefinition>
+    implements SerializedSubscription<T> {
+  private static final Logger logger = LoggerFactory.getLogger(SerializedSubscriptionImpl.class);
+
+  static {
+    try {
+      JNIUtils.loadImplementation(SerializedSubscriptionImpl.class);
+    } catch (UnsatisfiedLinkError ule) {
+      logger.error("Native code library failed to load.\n" + ule);
+      System.exit(1);
+    }
+  }
+
+  private final WeakReference<Node> nodeReference;
+
+  /**
+   * A pointer to the underlying ROS2 subscription structure (rcl_subscription_t).
+   */
+  private long handle;
+
+  /**
+   * The class of the messages that this subscription may receive.
+   */
+  private final Class<T> messageType;
+
+  /**
+   * The topic to which this subscription is subscribed.
+   */
+  private final String topic;
+
+  /**
+   * The callback function that will be triggered when a new serialized message is received.
+   */
+  private final Consumer<ByteBuffer> serializedCallback;
+
+  /**
+   * The callback group this subscription belongs to, may be null.
+   */
+  private final CallbackGroup callbackGroup;
+
+  /**
+   * An integer that represents a pointer to the native serialized message
+   * (rcl_serialized_message_t) that messages are taken into.
+   */
+  private long serializedMessageHandle;
+
+  /**
+   * A direct buffer over the memory of the native serialized message, only recreated when the
+   * middleware reallocates that memory.
+   */
+  private ByteBuffer buffer;
+
+  /**
+   * Constructor.
+   *
+   * @param nodeReference A {@link java.lang.ref.WeakReference} to the
+   *     @{link org.ros2.rcljava.Node} that created this subscription.
+   * @param handle A pointer to the underlying ROS2 subscription
+   *     structure, as an integer. Must not be zero.
+   * @param messageType The <code>Class</code> of the messages that this
+   *     subscription will receive.
+   * @param topic The topic to which this subscription will be subscribed.
+   * @param callback The callback function that will be triggered when a new
+   *     message is received. The buffer passed to it is only valid during the callback.
+   * @param callbackGroup The callback group this subscription belongs to, may be null.
+   */
+  public SerializedSubscriptionImpl(final WeakReference<Node> nodeReference, final long handle,
+      final Class<T> messageType, final String topic, final Consumer<ByteBuffer> callback,
+      final CallbackGroup callbackGroup) {
+    this.nodeReference = nodeReference;
+    this.handle = handle;
+    this.messageType = messageType;
+    this.topic = topic;
+    this.serializedCallback = callback;
+    this.callbackGroup = callbackGroup;
+    this.serializedMessageHandle = nativeCreateSerializedMessage();
+  }
+
+  /**
+   * Create a native serialized message (rcl_serialized_message_t).
+   *
+   * @return A pointer to the native serialized message.
+   */
+  private static native long nativeCreateSerializedMessage();
+
+  /**
+   * Destroy a native serialized message (rcl_serialized_message_t).
+   *
+   * @param serializedMessageHandle A pointer to the native serialized message.
+   */
+  private static native void nativeDisposeSerializedMessage(long serializedMessageHandle);
+
+  /**
+   * Get a direct buffer over the memory of a native serialized message.
+   *
+   * @param serializedMessageHandle A pointer to the native serialized message.
+   * @param buffer A buffer previously returned by this function, may be null.
+   * @return The passed buffer if it still wraps the memory of the serialized message,
+   *     a new direct buffer otherwise.
+   */
+  private static native ByteBuffer nativeGetBuffer(
+      long serializedMessageHandle, ByteBuffer buffer);
+
+  /**
+   * Destroy a ROS2 subscription (rcl_subscription_t).
+   *
+   * @param nodeHandle A pointer to the underlying ROS2 node structure that
+   *     created this subscription, as an integer. Must not be zero.
+   * @param handle A pointer to the underlying ROS2 subscription
+   *     structure, as an integer. Must not be zero.
+   */
+  private static native void nativeDispose(long nodeHandle, long handle);
+
+  /**
+   * {@inheritDoc}
+   */
+  public final Class<T> getMessageType() {
+    return this.messageType;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final WeakReference<Node> getNodeReference() {
+    return this.nodeReference;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final CallbackGroup getCallbackGroup() {
+    return this.callbackGroup;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final long getHandle() {
+    return this.handle;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final long getSerializedMessageHandle() {
+    return this.serializedMessageHandle;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final void executeSerializedCallback(final long length) {
+    this.buffer = nativeGetBuffer(this.serializedMessageHandle, this.buffer);
+    this.buffer.clear();
+    this.buffer.limit((int) length);
+    this.serializedCallback.accept(this.buffer);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final void dispose() {
+    Node node = this.nodeReference.get();
+    if (node != null) {
+      node.removeSerializedSubscription(this);
+      nativeDispose(node.getHandle(), this.handle);
+      this.handle = 0;
+    }
+    if (this.serializedMessageHandle != 0) {
+      nativeDisposeSerializedMessage(this.serializedMessageHandle);
+      this.serializedMessageHandle = 0;
+      this.buffer = null;
+    }
+  }
+}
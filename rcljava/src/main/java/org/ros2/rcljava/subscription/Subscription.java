@@ -19,12 +19,14 @@ import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.function.Supplier;
 
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
 import org.ros2.rcljava.consumers.Consumer;
 import org.ros2.rcljava.events.EventHandler;
 import org.ros2.rcljava.events.SubscriptionEventStatus;
 import org.ros2.rcljava.interfaces.Disposable;
 import org.ros2.rcljava.interfaces.MessageDefinition;
 import org.ros2.rcljava.node.Node;
+import org.ros2.rcljava.qos.QoSProfile;
 
 /**
  * This class serves as a bridge between ROS2's rcl_subscription_t and RCLJava.
@@ -39,6 +41,58 @@ public interface Subscription<T extends MessageDefinition> extends Disposable {
    */
   Class<T> getMessageType();
 
+  /**
+   * @return A default constructed message of the type of this subscription, used to create
+   *     the native messages taken from the underlying subscription. It must not be modified.
+   */
+  T getMessageTemplate();
+
+  /**
+   * @return A pointer to the native function that converts messages of this subscription from
+   *     Java, resolved once when the subscription is created.
+   */
+  long getFromJavaConverterHandle();
+
+  /**
+   * @return A pointer to the native function that converts messages of this subscription to
+   *     Java, resolved once when the subscription is created.
+   */
+  long getToJavaConverterHandle();
+
+  /**
+   * @return A pointer to the native function that destroys messages of this subscription,
+   *     resolved once when the subscription is created.
+   */
+  long getDestructorHandle();
+
+  /**
+   * @param offset The position of the message among the next messages taken, zero for the next
+   *     one.
+   * @return The message instance that message will be converted into, or null if a new
+   *     instance is created for every message.
+   * @see SubscriptionOptions#setReusedMessages(int)
+   */
+  T peekReusedMessage(int offset);
+
+  /**
+   * Move on to the next message instances once messages were taken into the current ones, so
+   * that an instance is only reused after as many messages as there are instances were taken.
+   *
+   * @param count The number of messages that were actually taken.
+   */
+  void consumeReusedMessages(int count);
+
+  /**
+   * @return The maximum number of messages taken at once from this subscription.
+   * @see SubscriptionOptions#setMaxTakeBatch(int)
+   */
+  int getMaxTakeBatch();
+
+  /**
+   * @return The QoS profile this subscription was created with, or null if not known.
+   */
+  QoSProfile getQoSProfile();
+
   /**
    * @return A @{link java.lang.ref.WeakReference} to the
    * @{link org.ros2.rcljava.Node}that created this subscription.
@@ -72,4 +126,9 @@ public interface Subscription<T extends MessageDefinition> extends Disposable {
    * @return The registered event handlers.
    */
   Collection<EventHandler> getEventHandlers();
+
+  /**
+   * @return The callback group this subscription belongs to, or null if it was not created in one.
+   */
+  CallbackGroup getCallbackGroup();
 }
@@ -16,11 +16,14 @@
 package org.ros2.rcljava.subscription;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Supplier;
 
 import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
 import org.ros2.rcljava.common.JNIUtils;
 import org.ros2.rcljava.consumers.BiConsumer;
 import org.ros2.rcljava.consumers.Consumer;
@@ -29,6 +32,7 @@ import org.ros2.rcljava.events.EventHandlerImpl;
 import org.ros2.rcljava.events.SubscriptionEventStatus;
 import org.ros2.rcljava.interfaces.MessageDefinition;
 import org.ros2.rcljava.node.Node;
+import org.ros2.rcljava.qos.QoSProfile;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -75,8 +79,37 @@ public class SubscriptionImpl<T extends MessageDefinition> implements Subscripti
    */
   private final Consumer<T> callback;
 
+  /**
+   * A default constructed message, also used to resolve the native converters once instead of
+   * for every message taken.
+   */
+  private final T messageTemplate;
+
+  private final long fromJavaConverterHandle;
+
+  private final long toJavaConverterHandle;
+
+  private final long destructorHandle;
+
+  /**
+   * The ring of message instances taken messages are converted into, empty if a new instance is
+   * created for every message.
+   */
+  private final List<T> reusedMessages;
+
+  private int nextReusedMessage;
+
+  private final int maxTakeBatch;
+
+  private final QoSProfile qosProfile;
+
   private final Collection<EventHandler> eventHandlers;
 
+  /**
+   * The callback group this subscription belongs to, may be null.
+   */
+  private final CallbackGroup callbackGroup;
+
   /**
    * Constructor.
    *
@@ -91,15 +124,60 @@ public class SubscriptionImpl<T extends MessageDefinition> implements Subscripti
    * @param topic The topic to which this subscription will be subscribed.
    * @param callback The callback function that will be triggered when a new
    *     message is received.
+   * @param qosProfile The QoS profile this subscription was created with, may be null.
+   * @param options The options of this subscription.
    */
   public SubscriptionImpl(final WeakReference<Node> nodeReference, final long handle,
-      final Class<T> messageType, final String topic, final Consumer<T> callback) {
+      final Class<T> messageType, final String topic, final Consumer<T> callback,
+      final QoSProfile qosProfile, final SubscriptionOptions options) {
     this.nodeReference = nodeReference;
+    this.qosProfile = qosProfile;
     this.handle = handle;
     this.messageType = messageType;
     this.topic = topic;
     this.callback = callback;
+    this.callbackGroup = options.getCallbackGroup();
     this.eventHandlers = new LinkedBlockingQueue<EventHandler>();
+
+    this.messageTemplate = this.newMessage();
+    this.fromJavaConverterHandle = this.messageTemplate.getFromJavaConverterInstance();
+    this.toJavaConverterHandle = this.messageTemplate.getToJavaConverterInstance();
+    this.destructorHandle = this.messageTemplate.getDestructorInstance();
+
+    this.maxTakeBatch = options.getMaxTakeBatch();
+
+    this.reusedMessages = new ArrayList<T>(options.getReusedMessages());
+    for (int i = 0; i < options.getReusedMessages(); i++) {
+      this.reusedMessages.add(this.newMessage());
+    }
+  }
+
+  public SubscriptionImpl(final WeakReference<Node> nodeReference, final long handle,
+      final Class<T> messageType, final String topic, final Consumer<T> callback,
+      final SubscriptionOptions options) {
+    this(nodeReference, handle, messageType, topic, callback, null, options);
+  }
+
+  public SubscriptionImpl(final WeakReference<Node> nodeReference, final long handle,
+      final Class<T> messageType, final String topic, final Consumer<T> callback,
+      final CallbackGroup callbackGroup) {
+    this(nodeReference, handle, messageType, topic, callback,
+        new SubscriptionOptions().setCallbackGroup(callbackGroup));
+  }
+
+  public SubscriptionImpl(final WeakReference<Node> nodeReference, final long handle,
+      final Class<T> messageType, final String topic, final Consumer<T> callback) {
+    this(nodeReference, handle, messageType, topic, callback, new SubscriptionOptions());
+  }
+
+  private T newMessage() {
+    try {
+      return this.messageType.newInstance();
+    } catch (InstantiationException ie) {
+      throw new IllegalArgumentException("Cannot instantiate message type " + messageType, ie);
+    } catch (IllegalAccessException iae) {
+      throw new IllegalArgumentException("Cannot instantiate message type " + messageType, iae);
+    }
   }
 
   /**
@@ -109,6 +187,75 @@ public class SubscriptionImpl<T extends MessageDefinition> implements Subscripti
     return messageType;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  public final T getMessageTemplate() {
+    return this.messageTemplate;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final long getFromJavaConverterHandle() {
+    return this.fromJavaConverterHandle;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final long getToJavaConverterHandle() {
+    return this.toJavaConverterHandle;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final long getDestructorHandle() {
+    return this.destructorHandle;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final T peekReusedMessage(int offset) {
+    if (this.reusedMessages.isEmpty()) {
+      return null;
+    }
+    // Only called by the executor taking from this subscription, one take at a time
+    return this.reusedMessages.get((this.nextReusedMessage + offset) % this.reusedMessages.size());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final void consumeReusedMessages(int count) {
+    if (!this.reusedMessages.isEmpty()) {
+      this.nextReusedMessage = (this.nextReusedMessage + count) % this.reusedMessages.size();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final int getMaxTakeBatch() {
+    return this.maxTakeBatch;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final QoSProfile getQoSProfile() {
+    return this.qosProfile;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public final CallbackGroup getCallbackGroup() {
+    return this.callbackGroup;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -131,12 +278,17 @@ public class SubscriptionImpl<T extends MessageDefinition> implements Subscripti
   createEventHandler(Supplier<T> factory, Consumer<T> callback) {
     final WeakReference<Collection<EventHandler>> weakEventHandlers = new WeakReference(
       this.eventHandlers);
+    final WeakReference<Node> nodeReference = this.nodeReference;
     Consumer<EventHandler> disposeCallback = new Consumer<EventHandler>() {
       public void accept(EventHandler eventHandler) {
         Collection<EventHandler> eventHandlers = weakEventHandlers.get();
         if (eventHandlers != null) {
           eventHandlers.remove(eventHandler);
         }
+        Node node = nodeReference.get();
+        if (node != null) {
+          node.notifyEntitiesChanged();
+        }
       }
     };
     T status = factory.get();
@@ -144,6 +296,10 @@ public class SubscriptionImpl<T extends MessageDefinition> implements Subscripti
     EventHandler<T, Subscription> eventHandler = new EventHandlerImpl(
       new WeakReference<Subscription>(this), eventHandle, factory, callback, disposeCallback);
     this.eventHandlers.add(eventHandler);
+    Node node = this.nodeReference.get();
+    if (node != null) {
+      node.notifyEntitiesChanged();
+    }
     return eventHandler;
   }
 
@@ -194,7 +350,7 @@ public class SubscriptionImpl<T extends MessageDefinition> implements Subscripti
   /**
    * {@inheritDoc}
    */
-  public final void dispose() {
+  public void dispose() {
     for (EventHandler eventHandler : this.eventHandlers) {
       eventHandler.dispose();
     }
@@ -0,0 +1,83 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.subscription;
+
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
+
+public class SubscriptionOptions {
+  private CallbackGroup callbackGroup;
+  private int reusedMessages;
+  private int maxTakeBatch;
+
+  public SubscriptionOptions() {
+    this.callbackGroup = null;
+    this.reusedMessages = 0;
+    this.maxTakeBatch = 1;
+  }
+
+  public final CallbackGroup getCallbackGroup() {
+    return this.callbackGroup;
+  }
+
+  /**
+   * @param callbackGroup The callback group the subscription belongs to, may be null.
+   */
+  public SubscriptionOptions setCallbackGroup(CallbackGroup callbackGroup) {
+    this.callbackGroup = callbackGroup;
+    return this;
+  }
+
+  public final int getReusedMessages() {
+    return this.reusedMessages;
+  }
+
+  /**
+   * Take messages into a ring of message instances owned by the subscription, instead of
+   * creating a new instance for every message received.
+   * A message passed to the callback is overwritten when it comes up again in the ring, that is,
+   * after <code>reusedMessages</code> more messages have been received. With a single instance,
+   * it must not be used after the callback returns.
+   *
+   * @param reusedMessages The number of message instances to reuse, zero to create a new instance
+   *     for every message.
+   */
+  public SubscriptionOptions setReusedMessages(int reusedMessages) {
+    if (reusedMessages < 0) {
+      throw new IllegalArgumentException("The number of reused messages cannot be negative");
+    }
+    this.reusedMessages = reusedMessages;
+    return this;
+  }
+
+  public final int getMaxTakeBatch() {
+    return this.maxTakeBatch;
+  }
+
+  /**
+   * Take up to <code>maxTakeBatch</code> messages each time the subscription is ready, in a single
+   * native call, and trigger the callback for each of them back to back.
+   * When messages are reused, at least <code>maxTakeBatch</code> instances must be reused.
+   *
+   * @param maxTakeBatch The maximum number of messages taken at once, one by default.
+   */
+  public SubscriptionOptions setMaxTakeBatch(int maxTakeBatch) {
+    if (maxTakeBatch < 1) {
+      throw new IllegalArgumentException("At least one message must be taken at once");
+    }
+    this.maxTakeBatch = maxTakeBatch;
+    return this;
+  }
+}
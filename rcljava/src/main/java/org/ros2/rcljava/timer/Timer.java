@@ -15,6 +15,8 @@
 
 package org.ros2.rcljava.timer;
 
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
+import org.ros2.rcljava.consumers.Consumer;
 import org.ros2.rcljava.interfaces.Disposable;
 
 public interface Timer extends Disposable {
@@ -23,4 +25,25 @@ public interface Timer extends Disposable {
   void executeCallback();
 
   boolean isReady();
+
+  boolean isCanceled();
+
+  /**
+   * @return The time at which this timer is next due, in nanoseconds as given by
+   *     {@link System#nanoTime()}. Only meaningful if the timer is not canceled.
+   */
+  long getNextCallTime();
+
+  /**
+   * Register a listener that is notified when this timer is reset or canceled, which changes
+   * when it is next due other than by calling it.
+   */
+  void addScheduleListener(Consumer<Timer> listener);
+
+  void removeScheduleListener(Consumer<Timer> listener);
+
+  /**
+   * @return The callback group this timer belongs to, or null if it was not created in one.
+   */
+  CallbackGroup getCallbackGroup();
 }
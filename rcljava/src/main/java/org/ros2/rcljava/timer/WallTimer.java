@@ -22,8 +22,6 @@ public interface WallTimer extends Timer {
 
   void setTimerPeriodNS(long period);
 
-  boolean isCanceled();
-
   void cancel();
 
   void reset();
@@ -16,12 +16,16 @@
 package org.ros2.rcljava.timer;
 
 import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
 import org.ros2.rcljava.common.JNIUtils;
 import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.consumers.Consumer;
 import org.ros2.rcljava.node.Node;
 
 public class WallTimerImpl implements WallTimer {
@@ -36,7 +40,7 @@ public class WallTimerImpl implements WallTimer {
     }
   }
 
-  private long timerPeriodNS;
+  private volatile long timerPeriodNS;
 
   private final WeakReference<Node> nodeReference;
 
@@ -44,67 +48,116 @@ public class WallTimerImpl implements WallTimer {
 
   private final Callback callback;
 
-  private static native boolean nativeIsReady(long handle);
+  private final CallbackGroup callbackGroup;
 
-  private static native boolean nativeIsCanceled(long handle);
+  /**
+   * The schedule of this timer is kept on the Java side, in nanoseconds as given by
+   * {@link System#nanoTime()}, so that executors can check and call it without going through
+   * JNI. The underlying rcl timer is only updated when the timer is reset, canceled or its
+   * period changed.
+   */
+  private volatile long nextCallTime;
 
-  private static native long nativeTimeSinceLastCall(long handle);
+  private volatile long lastCallTime;
 
-  private static native long nativeTimeUntilNextCall(long handle);
+  private volatile boolean canceled;
+
+  private final Object scheduleLock = new Object();
+
+  private final List<Consumer<Timer>> scheduleListeners =
+      new CopyOnWriteArrayList<Consumer<Timer>>();
 
   private static native long nativeReset(long handle);
 
   private static native long nativeCancel(long handle);
 
-  private static native long nativeGetTimerPeriodNS(long handle);
-
   private static native void nativeSetTimerPeriodNS(long handle, long period);
 
-  private static native long nativeCallTimer(long handle);
-
   public WallTimerImpl(final WeakReference<Node> nodeReference, final long handle,
-      final Callback callback, final long timerPeriodNS) {
+      final Callback callback, final long timerPeriodNS, final CallbackGroup callbackGroup) {
     this.nodeReference = nodeReference;
     this.handle = handle;
     this.callback = callback;
     this.timerPeriodNS = timerPeriodNS;
+    this.callbackGroup = callbackGroup;
+    this.lastCallTime = System.nanoTime();
+    this.nextCallTime = this.lastCallTime + timerPeriodNS;
+  }
+
+  public WallTimerImpl(final WeakReference<Node> nodeReference, final long handle,
+      final Callback callback, final long timerPeriodNS) {
+    this(nodeReference, handle, callback, timerPeriodNS, null);
+  }
+
+  public CallbackGroup getCallbackGroup() {
+    return this.callbackGroup;
   }
 
   public long timeSinceLastCall() {
-    return nativeTimeSinceLastCall(this.handle);
+    return System.nanoTime() - this.lastCallTime;
   }
 
   public long timeUntilNextCall() {
-    return nativeTimeUntilNextCall(this.handle);
+    return this.nextCallTime - System.nanoTime();
   }
 
   public void reset() {
-    nativeReset(this.handle);
+    synchronized (this.scheduleLock) {
+      nativeReset(this.handle);
+      this.canceled = false;
+      this.nextCallTime = System.nanoTime() + this.timerPeriodNS;
+    }
+    notifyScheduleListeners();
   }
 
   public void cancel() {
-    nativeCancel(this.handle);
+    synchronized (this.scheduleLock) {
+      nativeCancel(this.handle);
+      this.canceled = true;
+    }
+    notifyScheduleListeners();
   }
 
   public boolean isCanceled() {
-    return nativeIsCanceled(this.handle);
+    return this.canceled;
   }
 
   public boolean isReady() {
-    return nativeIsReady(this.handle);
+    return !this.canceled && this.nextCallTime - System.nanoTime() <= 0;
   }
 
+  public long getNextCallTime() {
+    return this.nextCallTime;
+  }
+
+  /**
+   * Change the period of this timer, which takes effect after its next call.
+   */
   public void setTimerPeriodNS(final long timerPeriodNS) {
-    nativeSetTimerPeriodNS(this.handle, timerPeriodNS);
-    this.timerPeriodNS = timerPeriodNS;
+    synchronized (this.scheduleLock) {
+      nativeSetTimerPeriodNS(this.handle, timerPeriodNS);
+      this.timerPeriodNS = timerPeriodNS;
+    }
   }
 
   public long getTimerPeriodNS() {
-    long timerPeriodNS = nativeGetTimerPeriodNS(this.handle);
-    this.timerPeriodNS = timerPeriodNS;
     return this.timerPeriodNS;
   }
 
+  public void addScheduleListener(final Consumer<Timer> listener) {
+    this.scheduleListeners.add(listener);
+  }
+
+  public void removeScheduleListener(final Consumer<Timer> listener) {
+    this.scheduleListeners.remove(listener);
+  }
+
+  private void notifyScheduleListeners() {
+    for (Consumer<Timer> listener : this.scheduleListeners) {
+      listener.accept(this);
+    }
+  }
+
   public long getHandle() {
     return this.handle;
   }
@@ -114,13 +167,30 @@ public class WallTimerImpl implements WallTimer {
   public void dispose() {
     Node node = this.nodeReference.get();
     if (node != null) {
+      node.removeTimer(this);
       nativeDispose(this.handle);
       this.handle = 0;
     }
   }
 
   public void callTimer() {
-    nativeCallTimer(this.handle);
+    synchronized (this.scheduleLock) {
+      if (this.canceled) {
+        return;
+      }
+      long now = System.nanoTime();
+      this.lastCallTime = now;
+      long nextCallTime = this.nextCallTime + this.timerPeriodNS;
+      if (nextCallTime - now < 0) {
+        // Skip the calls that were missed, keeping the timer in phase like rcl does
+        if (this.timerPeriodNS == 0) {
+          nextCallTime = now;
+        } else {
+          nextCallTime += ((now - nextCallTime) / this.timerPeriodNS + 1) * this.timerPeriodNS;
+        }
+      }
+      this.nextCallTime = nextCallTime;
+    }
   }
 
   public void executeCallback() {
@@ -16,8 +16,10 @@
 package org.ros2.rcljava.client;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -31,15 +33,24 @@ import java.time.Duration;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.ros2.rcljava.RCLJava;
 import org.ros2.rcljava.concurrent.RCLFuture;
+import org.ros2.rcljava.consumers.BiConsumer;
+import org.ros2.rcljava.consumers.Consumer;
 import org.ros2.rcljava.consumers.TriConsumer;
+import org.ros2.rcljava.executors.SingleThreadedExecutor;
+import org.ros2.rcljava.node.ComposableNode;
 import org.ros2.rcljava.node.Node;
 import org.ros2.rcljava.service.RMWRequestId;
 import org.ros2.rcljava.service.Service;
+import org.ros2.rcljava.service.ServiceResponder;
 
 public class ClientTest {
   private Node node;
@@ -135,4 +146,164 @@ public class ClientTest {
     assertEquals(0, service.getHandle());
     assertEquals(0, node.getServices().size());
   }
+
+  @Test
+  public final void testAddCompletable() throws Exception {
+    RCLFuture<rcljava.srv.AddTwoInts_Response> consumerFuture =
+        new RCLFuture<rcljava.srv.AddTwoInts_Response>();
+
+    TestClientConsumer clientConsumer = new TestClientConsumer(consumerFuture);
+
+    Service<rcljava.srv.AddTwoInts> service = node.<rcljava.srv.AddTwoInts>createService(
+        rcljava.srv.AddTwoInts.class, "add_two_ints_completable", clientConsumer);
+
+    Client<rcljava.srv.AddTwoInts> client = node.<rcljava.srv.AddTwoInts>createClient(
+        rcljava.srv.AddTwoInts.class, "add_two_ints_completable");
+
+    assertTrue(client.waitForService(Duration.ofSeconds(10)));
+
+    final SingleThreadedExecutor executor = new SingleThreadedExecutor();
+    ComposableNode composableNode = new ComposableNode() {
+      public Node getNode() {
+        return node;
+      }
+    };
+    executor.addNode(composableNode);
+    final AtomicBoolean spinning = new AtomicBoolean(true);
+    Thread spinThread = new Thread(new Runnable() {
+      public void run() {
+        while (spinning.get()) {
+          executor.spinOnce(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+      }
+    });
+    spinThread.start();
+
+    try {
+      rcljava.srv.AddTwoInts_Request request = new rcljava.srv.AddTwoInts_Request();
+      request.setA(2);
+      request.setB(3);
+      CompletableFuture<rcljava.srv.AddTwoInts_Response> responseFuture =
+          client.asyncSendRequestCompletable(request);
+
+      // Parks until the executor thread completes the future
+      assertEquals(5, consumerFuture.get(10, TimeUnit.SECONDS).getSum());
+      assertEquals(5, responseFuture.get(10, TimeUnit.SECONDS).getSum());
+    } finally {
+      spinning.set(false);
+      spinThread.join();
+      executor.removeNode(composableNode);
+    }
+
+    client.dispose();
+    service.dispose();
+  }
+
+  @Test
+  public final void testRequestTimeout() throws Exception {
+    // No service server, so the request never gets a response
+    Client<rcljava.srv.AddTwoInts> client = node.<rcljava.srv.AddTwoInts>createClient(
+        rcljava.srv.AddTwoInts.class, "add_two_ints_timeout");
+
+    rcljava.srv.AddTwoInts_Request request = new rcljava.srv.AddTwoInts_Request();
+    request.setA(2);
+    request.setB(3);
+
+    final RCLFuture<Future<rcljava.srv.AddTwoInts_Response>> callbackFuture =
+        new RCLFuture<Future<rcljava.srv.AddTwoInts_Response>>();
+    Future<rcljava.srv.AddTwoInts_Response> responseFuture = client.asyncSendRequest(request,
+        new Consumer<Future<rcljava.srv.AddTwoInts_Response>>() {
+          public void accept(Future<rcljava.srv.AddTwoInts_Response> future) {
+            callbackFuture.set(future);
+          }
+        }, 100, TimeUnit.MILLISECONDS);
+    CompletableFuture<rcljava.srv.AddTwoInts_Response> completableFuture =
+        client.asyncSendRequestCompletable(request, 100, TimeUnit.MILLISECONDS);
+
+    try {
+      responseFuture.get(10, TimeUnit.SECONDS);
+      fail("The request did not time out");
+    } catch (ExecutionException ee) {
+      assertTrue(ee.getCause() instanceof TimeoutException);
+    }
+    assertEquals(responseFuture, callbackFuture.get(10, TimeUnit.SECONDS));
+
+    try {
+      completableFuture.get(10, TimeUnit.SECONDS);
+      fail("The request did not time out");
+    } catch (ExecutionException ee) {
+      assertTrue(ee.getCause() instanceof TimeoutException);
+    }
+
+    assertEquals(0, client.getNumberOfPendingRequests());
+    client.dispose();
+  }
+
+  @Test
+  public final void testWaitForServices() throws Exception {
+    TestClientConsumer clientConsumer =
+        new TestClientConsumer(new RCLFuture<rcljava.srv.AddTwoInts_Response>());
+
+    Client<rcljava.srv.AddTwoInts> clientOne = node.<rcljava.srv.AddTwoInts>createClient(
+        rcljava.srv.AddTwoInts.class, "add_two_ints_one");
+    Client<rcljava.srv.AddTwoInts> clientTwo = node.<rcljava.srv.AddTwoInts>createClient(
+        rcljava.srv.AddTwoInts.class, "add_two_ints_two");
+    Client<rcljava.srv.AddTwoInts> clientThree = node.<rcljava.srv.AddTwoInts>createClient(
+        rcljava.srv.AddTwoInts.class, "add_two_ints_three");
+
+    // No service server for the third client
+    assertFalse(RCLJava.waitForServices(
+        Arrays.asList(clientOne, clientTwo, clientThree), Duration.ofMillis(100)));
+
+    Service<rcljava.srv.AddTwoInts> serviceOne = node.<rcljava.srv.AddTwoInts>createService(
+        rcljava.srv.AddTwoInts.class, "add_two_ints_one", clientConsumer);
+    Service<rcljava.srv.AddTwoInts> serviceTwo = node.<rcljava.srv.AddTwoInts>createService(
+        rcljava.srv.AddTwoInts.class, "add_two_ints_two", clientConsumer);
+
+    assertTrue(RCLJava.waitForServices(
+        Arrays.asList(clientOne, clientTwo), Duration.ofSeconds(10)));
+
+    clientOne.dispose();
+    clientTwo.dispose();
+    clientThree.dispose();
+    serviceOne.dispose();
+    serviceTwo.dispose();
+  }
+
+  @Test
+  public final void testDeferredService() throws Exception {
+    Service<rcljava.srv.AddTwoInts> service = node.<rcljava.srv.AddTwoInts>createDeferredService(
+        rcljava.srv.AddTwoInts.class, "add_two_ints_deferred",
+        new BiConsumer<rcljava.srv.AddTwoInts_Request,
+            ServiceResponder<rcljava.srv.AddTwoInts_Response>>() {
+          public void accept(final rcljava.srv.AddTwoInts_Request request,
+              final ServiceResponder<rcljava.srv.AddTwoInts_Response> responder) {
+            // Responds from another thread, after the callback returned
+            new Thread(new Runnable() {
+              public void run() {
+                rcljava.srv.AddTwoInts_Response response =
+                    new rcljava.srv.AddTwoInts_Response();
+                response.setSum(request.getA() + request.getB());
+                responder.sendResponse(response);
+              }
+            }).start();
+          }
+        });
+    assertTrue(service.isResponseDeferred());
+
+    Client<rcljava.srv.AddTwoInts> client = node.<rcljava.srv.AddTwoInts>createClient(
+        rcljava.srv.AddTwoInts.class, "add_two_ints_deferred");
+
+    assertTrue(client.waitForService(Duration.ofSeconds(10)));
+
+    rcljava.srv.AddTwoInts_Request request = new rcljava.srv.AddTwoInts_Request();
+    request.setA(2);
+    request.setB(3);
+    Future<rcljava.srv.AddTwoInts_Response> responseFuture = client.asyncSendRequest(request);
+
+    assertEquals(5, responseFuture.get(10, TimeUnit.SECONDS).getSum());
+
+    client.dispose();
+    service.dispose();
+  }
 }
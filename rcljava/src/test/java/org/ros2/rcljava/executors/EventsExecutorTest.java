@@ -0,0 +1,142 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.consumers.Consumer;
+import org.ros2.rcljava.node.ComposableNode;
+import org.ros2.rcljava.node.Node;
+import org.ros2.rcljava.publisher.Publisher;
+import org.ros2.rcljava.subscription.Subscription;
+import org.ros2.rcljava.timer.WallTimer;
+
+public class EventsExecutorTest {
+  @BeforeClass
+  public static void setupOnce() throws Exception {
+    // Just to quiet down warnings
+    try
+    {
+      // Configure log4j. Doing this dynamically so that Android does not complain about missing
+      // the log4j JARs, SLF4J uses Android's native logging mechanism instead.
+      Class c = Class.forName("org.apache.log4j.BasicConfigurator");
+      Method m = c.getDeclaredMethod("configure", (Class<?>[]) null);
+      Object o = m.invoke(null, (Object[]) null);
+    }
+    catch (Exception e)
+    {
+      e.printStackTrace();
+    }
+
+    RCLJava.rclJavaInit();
+  }
+
+  @AfterClass
+  public static void tearDownOnce() {
+    RCLJava.shutdown();
+  }
+
+  @Test
+  public final void testTimerEvents() throws Exception {
+    final Node node = RCLJava.createNode("events_executor_timer_node");
+    final AtomicInteger calls = new AtomicInteger(0);
+
+    WallTimer timer = node.createWallTimer(10, TimeUnit.MILLISECONDS, new Callback() {
+      public void call() {
+        calls.incrementAndGet();
+      }
+    });
+
+    EventsExecutor executor = new EventsExecutor();
+    ComposableNode composableNode = new ComposableNode() {
+      public Node getNode() {
+        return node;
+      }
+    };
+    executor.addNode(composableNode);
+
+    long start = System.nanoTime();
+    while (RCLJava.ok() && calls.get() < 5
+        && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10)) {
+      executor.spinOnce(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+    timer.cancel();
+
+    assertTrue(calls.get() >= 5);
+
+    executor.dispose();
+    timer.dispose();
+    node.dispose();
+  }
+
+  @Test
+  public final void testSubscriptionEventsInOrder() throws Exception {
+    final Node node = RCLJava.createNode("events_executor_subscription_node");
+    final List<String> received = new ArrayList<String>();
+
+    Publisher<std_msgs.msg.String> publisher = node.<std_msgs.msg.String>createPublisher(
+        std_msgs.msg.String.class, "test_topic_events_executor");
+    Subscription<std_msgs.msg.String> subscription =
+        node.<std_msgs.msg.String>createSubscription(std_msgs.msg.String.class,
+            "test_topic_events_executor", new Consumer<std_msgs.msg.String>() {
+              public void accept(final std_msgs.msg.String msg) {
+                received.add(msg.getData());
+              }
+            });
+
+    EventsExecutor executor = new EventsExecutor();
+    ComposableNode composableNode = new ComposableNode() {
+      public Node getNode() {
+        return node;
+      }
+    };
+    executor.addNode(composableNode);
+
+    int published = 0;
+    long start = System.nanoTime();
+    while (RCLJava.ok() && received.size() < 5
+        && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10)) {
+      std_msgs.msg.String msg = new std_msgs.msg.String();
+      msg.setData("Hello " + published++);
+      publisher.publish(msg);
+      executor.spinOnce(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    assertTrue(received.size() >= 5);
+    for (int i = 1; i < received.size(); i++) {
+      int previous = Integer.parseInt(received.get(i - 1).substring(6));
+      int current = Integer.parseInt(received.get(i).substring(6));
+      assertTrue(previous < current);
+    }
+
+    executor.dispose();
+    publisher.dispose();
+    subscription.dispose();
+    node.dispose();
+  }
+}
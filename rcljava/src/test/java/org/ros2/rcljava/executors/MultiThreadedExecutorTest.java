@@ -0,0 +1,368 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
+import org.ros2.rcljava.callbackgroups.CallbackGroupType;
+import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.consumers.Consumer;
+import org.ros2.rcljava.events.EventHandler;
+import org.ros2.rcljava.node.ComposableNode;
+import org.ros2.rcljava.node.Node;
+import org.ros2.rcljava.publisher.Publisher;
+import org.ros2.rcljava.publisher.statuses.LivelinessLost;
+import org.ros2.rcljava.qos.QoSProfile;
+import org.ros2.rcljava.subscription.SerializedSubscription;
+import org.ros2.rcljava.subscription.Subscription;
+import org.ros2.rcljava.subscription.statuses.LivelinessChanged;
+import org.ros2.rcljava.timer.WallTimer;
+
+public class MultiThreadedExecutorTest {
+  @BeforeClass
+  public static void setupOnce() throws Exception {
+    // Just to quiet down warnings
+    try
+    {
+      // Configure log4j. Doing this dynamically so that Android does not complain about missing
+      // the log4j JARs, SLF4J uses Android's native logging mechanism instead.
+      Class c = Class.forName("org.apache.log4j.BasicConfigurator");
+      Method m = c.getDeclaredMethod("configure", (Class<?>[]) null);
+      Object o = m.invoke(null, (Object[]) null);
+    }
+    catch (Exception e)
+    {
+      e.printStackTrace();
+    }
+
+    RCLJava.rclJavaInit();
+  }
+
+  @AfterClass
+  public static void tearDownOnce() {
+    RCLJava.shutdown();
+  }
+
+  @Test
+  public final void testCallbacksRunInParallel() throws Exception {
+    final Node node = RCLJava.createNode("multi_threaded_parallel_node");
+    final CyclicBarrier barrier = new CyclicBarrier(2);
+    final CountDownLatch metAtBarrier = new CountDownLatch(2);
+
+    Callback callback = new Callback() {
+      public void call() {
+        if (metAtBarrier.getCount() == 0) {
+          return;
+        }
+        try {
+          // Only returns if the callback of the other timer is running at the same time
+          barrier.await(100, TimeUnit.MILLISECONDS);
+          metAtBarrier.countDown();
+        } catch (Exception e) {
+          barrier.reset();
+        }
+      }
+    };
+
+    WallTimer timerOne = node.createWallTimer(10, TimeUnit.MILLISECONDS, callback);
+    WallTimer timerTwo = node.createWallTimer(10, TimeUnit.MILLISECONDS, callback);
+
+    MultiThreadedExecutor executor = new MultiThreadedExecutor(2);
+    ComposableNode composableNode = new ComposableNode() {
+      public Node getNode() {
+        return node;
+      }
+    };
+    executor.addNode(composableNode);
+    executor.spin();
+
+    assertTrue(metAtBarrier.await(10, TimeUnit.SECONDS));
+
+    timerOne.cancel();
+    timerTwo.cancel();
+    executor.dispose();
+    node.dispose();
+  }
+
+  @Test
+  public final void testSameEntityNeverRunsConcurrently() throws Exception {
+    final Node node = RCLJava.createNode("multi_threaded_exclusive_node");
+    final AtomicInteger running = new AtomicInteger(0);
+    final AtomicInteger maxRunning = new AtomicInteger(0);
+    final CountDownLatch calls = new CountDownLatch(10);
+
+    Callback callback = new Callback() {
+      public void call() {
+        int current = running.incrementAndGet();
+        if (current > maxRunning.get()) {
+          maxRunning.set(current);
+        }
+        try {
+          // Slower than the timer period, so the timer is ready again while still in flight
+          Thread.sleep(20);
+        } catch (InterruptedException e) {
+          // Nothing to do, the assertions below do not depend on the full sleep
+        }
+        running.decrementAndGet();
+        calls.countDown();
+      }
+    };
+
+    WallTimer timer = node.createWallTimer(1, TimeUnit.MILLISECONDS, callback);
+
+    MultiThreadedExecutor executor = new MultiThreadedExecutor(4);
+    ComposableNode composableNode = new ComposableNode() {
+      public Node getNode() {
+        return node;
+      }
+    };
+    executor.addNode(composableNode);
+    executor.spin();
+
+    assertTrue(calls.await(10, TimeUnit.SECONDS));
+    timer.cancel();
+    executor.dispose();
+    node.dispose();
+
+    assertEquals(1, maxRunning.get());
+  }
+
+  @Test
+  public final void testMutuallyExclusiveCallbackGroup() throws Exception {
+    final Node node = RCLJava.createNode("multi_threaded_mutually_exclusive_node");
+    final AtomicInteger running = new AtomicInteger(0);
+    final AtomicInteger maxRunning = new AtomicInteger(0);
+    final CountDownLatch calls = new CountDownLatch(20);
+
+    Callback callback = new Callback() {
+      public void call() {
+        int current = running.incrementAndGet();
+        if (current > maxRunning.get()) {
+          maxRunning.set(current);
+        }
+        try {
+          Thread.sleep(5);
+        } catch (InterruptedException e) {
+          // Nothing to do, the assertions below do not depend on the full sleep
+        }
+        running.decrementAndGet();
+        calls.countDown();
+      }
+    };
+
+    CallbackGroup callbackGroup = node.createCallbackGroup(CallbackGroupType.MUTUALLY_EXCLUSIVE);
+    assertEquals(CallbackGroupType.MUTUALLY_EXCLUSIVE, callbackGroup.getType());
+
+    WallTimer timerOne = node.createWallTimer(1, TimeUnit.MILLISECONDS, callback, callbackGroup);
+    WallTimer timerTwo = node.createWallTimer(1, TimeUnit.MILLISECONDS, callback, callbackGroup);
+    assertEquals(callbackGroup, timerOne.getCallbackGroup());
+
+    MultiThreadedExecutor executor = new MultiThreadedExecutor(4);
+    ComposableNode composableNode = new ComposableNode() {
+      public Node getNode() {
+        return node;
+      }
+    };
+    executor.addNode(composableNode);
+    executor.spin();
+
+    assertTrue(calls.await(10, TimeUnit.SECONDS));
+    timerOne.cancel();
+    timerTwo.cancel();
+    executor.dispose();
+    node.dispose();
+
+    assertEquals(1, maxRunning.get());
+  }
+
+  @Test
+  public final void testEventHandlerCallbackGroup() {
+    final Node node = RCLJava.createNode("multi_threaded_event_handler_group_node");
+    CallbackGroup callbackGroup = node.createCallbackGroup(CallbackGroupType.MUTUALLY_EXCLUSIVE);
+
+    Subscription<std_msgs.msg.String> subscription = node.<std_msgs.msg.String>createSubscription(
+        std_msgs.msg.String.class, "test_topic_event_handler_group",
+        new Consumer<std_msgs.msg.String>() {
+          public void accept(final std_msgs.msg.String msg) {}
+        }, QoSProfile.DEFAULT, callbackGroup);
+    EventHandler subscriptionEventHandler = subscription.createEventHandler(
+        LivelinessChanged.factory, new Consumer<LivelinessChanged>() {
+          public void accept(final LivelinessChanged status) {}
+        });
+    Publisher<std_msgs.msg.String> publisher = node.<std_msgs.msg.String>createPublisher(
+        std_msgs.msg.String.class, "test_topic_event_handler_group");
+    EventHandler publisherEventHandler = publisher.createEventHandler(
+        LivelinessLost.factory, new Consumer<LivelinessLost>() {
+          public void accept(final LivelinessLost status) {}
+        });
+
+    // Event handlers are executed in the callback group of their parent, if it has one
+    assertEquals(callbackGroup, BaseExecutor.getCallbackGroup(subscriptionEventHandler));
+    assertNull(BaseExecutor.getCallbackGroup(publisherEventHandler));
+
+    SerializedSubscription<std_msgs.msg.String> serializedSubscription =
+        node.<std_msgs.msg.String>createSerializedSubscription(
+            std_msgs.msg.String.class, "test_topic_event_handler_group",
+            new Consumer<ByteBuffer>() {
+              public void accept(final ByteBuffer buffer) {}
+            }, QoSProfile.DEFAULT, callbackGroup);
+    assertEquals(callbackGroup, serializedSubscription.getCallbackGroup());
+    Subscription<std_msgs.msg.String> batchSubscription =
+        node.<std_msgs.msg.String>createSubscription(
+            std_msgs.msg.String.class, "test_topic_event_handler_group",
+            new Consumer<List<std_msgs.msg.String>>() {
+              public void accept(final List<std_msgs.msg.String> msgs) {}
+            }, 10, 100, TimeUnit.MILLISECONDS, QoSProfile.DEFAULT, callbackGroup);
+    assertEquals(callbackGroup, batchSubscription.getCallbackGroup());
+
+    node.dispose();
+  }
+
+  @Test
+  public final void testEntityCreatedWhileSpinning() throws Exception {
+    final Node node = RCLJava.createNode("multi_threaded_late_entity_node");
+    final CountDownLatch called = new CountDownLatch(1);
+
+    MultiThreadedExecutor executor = new MultiThreadedExecutor(2);
+    ComposableNode composableNode = new ComposableNode() {
+      public Node getNode() {
+        return node;
+      }
+    };
+    executor.addNode(composableNode);
+    executor.spin();
+
+    // The node had no entities when the executor started waiting
+    Thread.sleep(100);
+    WallTimer timer = node.createWallTimer(10, TimeUnit.MILLISECONDS, new Callback() {
+      public void call() {
+        called.countDown();
+      }
+    });
+
+    assertTrue(called.await(10, TimeUnit.SECONDS));
+    timer.cancel();
+    executor.dispose();
+    node.dispose();
+  }
+
+  @Test
+  public final void testCancel() throws Exception {
+    final Node node = RCLJava.createNode("multi_threaded_cancel_node");
+    final AtomicInteger calls = new AtomicInteger(0);
+
+    WallTimer timer = node.createWallTimer(1, TimeUnit.MILLISECONDS, new Callback() {
+      public void call() {
+        calls.incrementAndGet();
+      }
+    });
+
+    MultiThreadedExecutor executor = new MultiThreadedExecutor(2);
+    ComposableNode composableNode = new ComposableNode() {
+      public Node getNode() {
+        return node;
+      }
+    };
+    executor.addNode(composableNode);
+    executor.spin();
+    Thread.sleep(100);
+    executor.cancel();
+
+    // Let the callbacks in flight finish
+    Thread.sleep(100);
+    int callsAfterCancel = calls.get();
+    assertTrue(callsAfterCancel > 0);
+    Thread.sleep(100);
+    assertEquals(callsAfterCancel, calls.get());
+
+    timer.cancel();
+    executor.dispose();
+    node.dispose();
+  }
+
+  private static boolean isVirtual(Thread thread) throws Exception {
+    return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+  }
+
+  @Test
+  public final void testVirtualThreadDispatch() throws Exception {
+    assumeTrue(MultiThreadedExecutor.isVirtualThreadSupported());
+
+    final Node node = RCLJava.createNode("multi_threaded_virtual_node");
+    final int numberOfTimers = 50;
+    final CountDownLatch blocked = new CountDownLatch(numberOfTimers);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger onVirtualThread = new AtomicInteger(0);
+
+    Callback callback = new Callback() {
+      public void call() {
+        try {
+          if (isVirtual(Thread.currentThread())) {
+            onVirtualThread.incrementAndGet();
+          }
+          if (blocked.getCount() > 0) {
+            blocked.countDown();
+            // Blocks until the callbacks of all the timers are in flight at the same time
+            release.await(10, TimeUnit.SECONDS);
+          }
+        } catch (Exception e) {
+          // Leaves the latch short, failing the assertion below
+        }
+      }
+    };
+
+    WallTimer[] timers = new WallTimer[numberOfTimers];
+    for (int i = 0; i < numberOfTimers; i++) {
+      timers[i] = node.createWallTimer(10, TimeUnit.MILLISECONDS, callback);
+    }
+
+    MultiThreadedExecutor executor = MultiThreadedExecutor.newVirtualThreadExecutor();
+    ComposableNode composableNode = new ComposableNode() {
+      public Node getNode() {
+        return node;
+      }
+    };
+    executor.addNode(composableNode);
+    executor.spin();
+
+    assertTrue(blocked.await(10, TimeUnit.SECONDS));
+    release.countDown();
+    for (WallTimer timer : timers) {
+      timer.cancel();
+    }
+    executor.dispose();
+    node.dispose();
+
+    assertTrue(onVirtualThread.get() >= numberOfTimers);
+  }
+}
@@ -0,0 +1,207 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.consumers.Consumer;
+import org.ros2.rcljava.node.ComposableNode;
+import org.ros2.rcljava.node.Node;
+import org.ros2.rcljava.qos.QoSProfile;
+import org.ros2.rcljava.subscription.Subscription;
+import org.ros2.rcljava.timer.WallTimer;
+
+public class SchedulingPolicyTest {
+  private static Node node;
+
+  @BeforeClass
+  public static void setupOnce() throws Exception {
+    // Just to quiet down warnings
+    try
+    {
+      // Configure log4j. Doing this dynamically so that Android does not complain about missing
+      // the log4j JARs, SLF4J uses Android's native logging mechanism instead.
+      Class c = Class.forName("org.apache.log4j.BasicConfigurator");
+      Method m = c.getDeclaredMethod("configure", (Class<?>[]) null);
+      Object o = m.invoke(null, (Object[]) null);
+    }
+    catch (Exception e)
+    {
+      e.printStackTrace();
+    }
+
+    RCLJava.rclJavaInit();
+    node = RCLJava.createNode("scheduling_policy_node");
+  }
+
+  @AfterClass
+  public static void tearDownOnce() {
+    node.dispose();
+    RCLJava.shutdown();
+  }
+
+  private static Callback recordingCallback(final List<String> calls, final String name) {
+    return new Callback() {
+      public void call() {
+        calls.add(name);
+      }
+    };
+  }
+
+  private static AnyExecutable toAnyExecutable(final WallTimer timer) {
+    AnyExecutable anyExecutable = new AnyExecutable();
+    anyExecutable.timer = timer;
+    return anyExecutable;
+  }
+
+  @Test
+  public final void testPriorityLanes() throws Exception {
+    final List<String> calls = new ArrayList<String>();
+    WallTimer low =
+        node.createWallTimer(1, TimeUnit.MILLISECONDS, recordingCallback(calls, "low"));
+    WallTimer high =
+        node.createWallTimer(1, TimeUnit.MILLISECONDS, recordingCallback(calls, "high"));
+
+    PrioritySchedulingPolicy policy = new PrioritySchedulingPolicy();
+    policy.setPriority(high, 10);
+    assertEquals(10, policy.getPriority(high));
+    assertEquals(0, policy.getPriority(low));
+
+    SingleThreadedExecutor executor = new SingleThreadedExecutor(policy);
+    executor.addNode(new ComposableNode() {
+      public Node getNode() {
+        return node;
+      }
+    });
+
+    // Both timers are due, the one with the higher priority runs first
+    Thread.sleep(10);
+    executor.spinOnce(0);
+    executor.spinOnce(0);
+    low.cancel();
+    high.cancel();
+
+    assertEquals(2, calls.size());
+    assertEquals("high", calls.get(0));
+    assertEquals("low", calls.get(1));
+  }
+
+  @Test
+  public final void testLoadShedding() throws Exception {
+    List<String> calls = new ArrayList<String>();
+    WallTimer low =
+        node.createWallTimer(1, TimeUnit.SECONDS, recordingCallback(calls, "low"));
+    WallTimer high =
+        node.createWallTimer(1, TimeUnit.SECONDS, recordingCallback(calls, "high"));
+
+    PrioritySchedulingPolicy policy = new PrioritySchedulingPolicy();
+    policy.setPriority(high, 1);
+    policy.setLoadShedding(1, 1, TimeUnit.MILLISECONDS);
+
+    policy.add(toAnyExecutable(low));
+    policy.add(toAnyExecutable(high));
+    Thread.sleep(10);
+
+    // The low priority timer waited too long, so it is deferred until the next wait
+    assertSame(high, policy.poll().timer);
+    assertNull(policy.poll());
+    List<AnyExecutable> deferred = new ArrayList<AnyExecutable>();
+    policy.drainTo(deferred);
+    assertEquals(1, deferred.size());
+    assertSame(low, deferred.get(0).timer);
+
+    low.cancel();
+    high.cancel();
+  }
+
+  @Test
+  public final void testRoundRobin() {
+    List<String> calls = new ArrayList<String>();
+    WallTimer first =
+        node.createWallTimer(1, TimeUnit.SECONDS, recordingCallback(calls, "first"));
+    WallTimer second =
+        node.createWallTimer(1, TimeUnit.SECONDS, recordingCallback(calls, "second"));
+
+    RoundRobinSchedulingPolicy policy = new RoundRobinSchedulingPolicy();
+    policy.add(toAnyExecutable(first));
+    policy.add(toAnyExecutable(second));
+    assertSame(first, policy.poll().timer);
+    policy.drainTo(new ArrayList<AnyExecutable>());
+
+    // The entity that was not served goes first, even though it is found ready last
+    policy.add(toAnyExecutable(first));
+    policy.add(toAnyExecutable(second));
+    assertSame(second, policy.poll().timer);
+    assertSame(first, policy.poll().timer);
+    assertNull(policy.poll());
+
+    first.cancel();
+    second.cancel();
+  }
+
+  @Test
+  public final void testEarliestDeadlineFirst() throws Exception {
+    List<String> calls = new ArrayList<String>();
+    WallTimer slow =
+        node.createWallTimer(1, TimeUnit.SECONDS, recordingCallback(calls, "slow"));
+    WallTimer fast =
+        node.createWallTimer(10, TimeUnit.MILLISECONDS, recordingCallback(calls, "fast"));
+    Subscription<std_msgs.msg.String> subscription =
+        node.<std_msgs.msg.String>createSubscription(std_msgs.msg.String.class,
+            "test_topic_deadline", new Consumer<std_msgs.msg.String>() {
+              public void accept(final std_msgs.msg.String msg) {
+              }
+            }, QoSProfile.keepLast(10).setDeadline(Duration.ofMillis(1)));
+
+    DeadlineSchedulingPolicy policy = new DeadlineSchedulingPolicy();
+    policy.add(toAnyExecutable(slow));
+    policy.add(toAnyExecutable(fast));
+
+    // The next expiry of the faster timer comes first
+    assertSame(fast, policy.poll().timer);
+    assertSame(slow, policy.poll().timer);
+    assertEquals(2, policy.getDeadlinesMet());
+
+    AnyExecutable anyExecutable = new AnyExecutable();
+    anyExecutable.subscription = subscription;
+    policy.add(anyExecutable);
+    Thread.sleep(10);
+
+    // Started later than the deadline of its QoS profile
+    assertSame(subscription, policy.poll().subscription);
+    assertEquals(1, policy.getDeadlinesMissed());
+    assertTrue(policy.getMaxLatenessNs() > 0);
+
+    slow.cancel();
+    fast.cancel();
+    subscription.dispose();
+  }
+}
@@ -0,0 +1,107 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.node.BaseComposableNode;
+import org.ros2.rcljava.node.ComposableNode;
+import org.ros2.rcljava.timer.WallTimer;
+
+public class ShardedExecutorTest {
+  @BeforeClass
+  public static void setupOnce() throws Exception {
+    // Just to quiet down warnings
+    try
+    {
+      // Configure log4j. Doing this dynamically so that Android does not complain about missing
+      // the log4j JARs, SLF4J uses Android's native logging mechanism instead.
+      Class c = Class.forName("org.apache.log4j.BasicConfigurator");
+      Method m = c.getDeclaredMethod("configure", (Class<?>[]) null);
+      Object o = m.invoke(null, (Object[]) null);
+    }
+    catch (Exception e)
+    {
+      e.printStackTrace();
+    }
+
+    RCLJava.rclJavaInit();
+  }
+
+  @AfterClass
+  public static void tearDownOnce() {
+    RCLJava.shutdown();
+  }
+
+  private static Callback countDownCallback(final CountDownLatch calls) {
+    return new Callback() {
+      public void call() {
+        calls.countDown();
+      }
+    };
+  }
+
+  @Test
+  public final void testNodesSpreadOverShards() throws Exception {
+    ComposableNode nodeOne = new BaseComposableNode("sharded_node_one");
+    ComposableNode nodeTwo = new BaseComposableNode("sharded_node_two");
+    ComposableNode nodeThree = new BaseComposableNode("sharded_node_three");
+
+    final CountDownLatch callsOne = new CountDownLatch(5);
+    final CountDownLatch callsTwo = new CountDownLatch(5);
+    final CountDownLatch callsThree = new CountDownLatch(5);
+    WallTimer timerOne = nodeOne.getNode().createWallTimer(
+        10, TimeUnit.MILLISECONDS, countDownCallback(callsOne));
+    WallTimer timerTwo = nodeTwo.getNode().createWallTimer(
+        10, TimeUnit.MILLISECONDS, countDownCallback(callsTwo));
+    WallTimer timerThree = nodeThree.getNode().createWallTimer(
+        10, TimeUnit.MILLISECONDS, countDownCallback(callsThree));
+
+    ShardedExecutor executor = new ShardedExecutor(2, 2);
+    executor.addNode(nodeOne);
+    executor.addNode(nodeTwo);
+    executor.addNode(nodeThree, 0);
+    assertEquals(0, executor.getShard(nodeOne));
+    assertEquals(1, executor.getShard(nodeTwo));
+    assertEquals(0, executor.getShard(nodeThree));
+
+    executor.spin();
+
+    assertTrue(callsOne.await(10, TimeUnit.SECONDS));
+    assertTrue(callsTwo.await(10, TimeUnit.SECONDS));
+    assertTrue(callsThree.await(10, TimeUnit.SECONDS));
+
+    executor.cancel();
+    executor.dispose();
+    timerOne.dispose();
+    timerTwo.dispose();
+    timerThree.dispose();
+    nodeOne.getNode().dispose();
+    nodeTwo.getNode().dispose();
+    nodeThree.getNode().dispose();
+  }
+}
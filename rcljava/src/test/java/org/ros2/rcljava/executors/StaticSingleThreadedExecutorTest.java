@@ -0,0 +1,144 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.ros2.rcljava.RCLJava;
+import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.node.ComposableNode;
+import org.ros2.rcljava.node.Node;
+import org.ros2.rcljava.subscription.Subscription;
+import org.ros2.rcljava.timer.WallTimer;
+
+public class StaticSingleThreadedExecutorTest {
+  @BeforeClass
+  public static void setupOnce() throws Exception {
+    // Just to quiet down warnings
+    try
+    {
+      // Configure log4j. Doing this dynamically so that Android does not complain about missing
+      // the log4j JARs, SLF4J uses Android's native logging mechanism instead.
+      Class c = Class.forName("org.apache.log4j.BasicConfigurator");
+      Method m = c.getDeclaredMethod("configure", (Class<?>[]) null);
+      Object o = m.invoke(null, (Object[]) null);
+    }
+    catch (Exception e)
+    {
+      e.printStackTrace();
+    }
+
+    RCLJava.rclJavaInit();
+  }
+
+  @AfterClass
+  public static void tearDownOnce() {
+    RCLJava.shutdown();
+  }
+
+  private static Callback countingCallback(final AtomicInteger calls) {
+    return new Callback() {
+      public void call() {
+        calls.incrementAndGet();
+      }
+    };
+  }
+
+  @Test
+  public final void testEntitiesFrozenUntilRefreshed() throws Exception {
+    final Node node = RCLJava.createNode("static_single_threaded_node");
+    final AtomicInteger staticCalls = new AtomicInteger(0);
+    final AtomicInteger lateCalls = new AtomicInteger(0);
+
+    WallTimer staticTimer =
+        node.createWallTimer(1, TimeUnit.MILLISECONDS, countingCallback(staticCalls));
+
+    StaticSingleThreadedExecutor executor = new StaticSingleThreadedExecutor();
+    ComposableNode composableNode = new ComposableNode() {
+      public Node getNode() {
+        return node;
+      }
+    };
+    executor.addNode(composableNode);
+    executor.spinOnce(TimeUnit.SECONDS.toNanos(1));
+
+    // Created after the entities were collected, so ignored until they are refreshed
+    WallTimer lateTimer =
+        node.createWallTimer(1, TimeUnit.MILLISECONDS, countingCallback(lateCalls));
+    while (RCLJava.ok() && staticCalls.get() < 10) {
+      executor.spinOnce(TimeUnit.SECONDS.toNanos(1));
+    }
+    assertEquals(0, lateCalls.get());
+
+    executor.refreshEntities();
+    long start = System.nanoTime();
+    while (RCLJava.ok() && lateCalls.get() == 0
+        && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10)) {
+      executor.spinOnce(TimeUnit.SECONDS.toNanos(1));
+    }
+    assertTrue(lateCalls.get() > 0);
+
+    staticTimer.cancel();
+    lateTimer.cancel();
+    executor.dispose();
+    node.dispose();
+  }
+
+  @Test
+  public final void testDisposedEntityDropped() throws Exception {
+    final Node node = RCLJava.createNode("static_single_threaded_dispose_node");
+    final AtomicInteger calls = new AtomicInteger(0);
+
+    Subscription<std_msgs.msg.String> subscription =
+        node.<std_msgs.msg.String>createSubscription(std_msgs.msg.String.class,
+            "static_single_threaded_topic", new Consumer<std_msgs.msg.String>() {
+              public void accept(final std_msgs.msg.String msg) {}
+            });
+    WallTimer timer = node.createWallTimer(1, TimeUnit.MILLISECONDS, countingCallback(calls));
+
+    StaticSingleThreadedExecutor executor = new StaticSingleThreadedExecutor();
+    ComposableNode composableNode = new ComposableNode() {
+      public Node getNode() {
+        return node;
+      }
+    };
+    executor.addNode(composableNode);
+    executor.spinOnce(TimeUnit.SECONDS.toNanos(1));
+
+    // Disposed while the wait set still holds it, without refreshing the entities
+    subscription.dispose();
+    long start = System.nanoTime();
+    while (RCLJava.ok() && calls.get() < 10
+        && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10)) {
+      executor.spinOnce(TimeUnit.SECONDS.toNanos(1));
+    }
+    assertTrue(calls.get() >= 10);
+
+    timer.cancel();
+    executor.dispose();
+    node.dispose();
+  }
+}
@@ -0,0 +1,164 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.rcljava.executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.ros2.rcljava.callbackgroups.CallbackGroup;
+import org.ros2.rcljava.concurrent.Callback;
+import org.ros2.rcljava.consumers.Consumer;
+import org.ros2.rcljava.timer.Timer;
+import org.ros2.rcljava.timer.WallTimer;
+
+public class TimerQueueTest {
+  // With a period of two seconds, a timer may be called up to 20 milliseconds late
+  private static final long PERIOD = TimeUnit.SECONDS.toNanos(2);
+
+  private static final long DUE_TIME = TimeUnit.SECONDS.toNanos(1000);
+
+  /**
+   * A timer that is due at a fixed time, so that the queue can be tested without a clock.
+   */
+  private static class FixedTimer implements WallTimer {
+    private final long nextCallTime;
+
+    FixedTimer(final long nextCallTime) {
+      this.nextCallTime = nextCallTime;
+    }
+
+    public long getNextCallTime() {
+      return this.nextCallTime;
+    }
+
+    public long getTimerPeriodNS() {
+      return PERIOD;
+    }
+
+    public boolean isCanceled() {
+      return false;
+    }
+
+    public void setTimerPeriodNS(long period) {}
+
+    public void cancel() {}
+
+    public void reset() {}
+
+    public long timeSinceLastCall() {
+      return 0;
+    }
+
+    public long timeUntilNextCall() {
+      return 0;
+    }
+
+    public void callTimer() {}
+
+    public void executeCallback() {}
+
+    public boolean isReady() {
+      return false;
+    }
+
+    public void addScheduleListener(Consumer<Timer> listener) {}
+
+    public void removeScheduleListener(Consumer<Timer> listener) {}
+
+    public CallbackGroup getCallbackGroup() {
+      return null;
+    }
+
+    public void dispose() {}
+
+    public long getHandle() {
+      return 0;
+    }
+  }
+
+  private static TimerQueue createTimerQueue(final Timer... timers) {
+    TimerQueue timerQueue = new TimerQueue(new Callback() {
+      public void call() {}
+    });
+    timerQueue.setTimers(Arrays.asList(timers));
+    return timerQueue;
+  }
+
+  @Test
+  public final void testNotDelayedAlone() {
+    Timer timer = new FixedTimer(DUE_TIME);
+    TimerQueue timerQueue = createTimerQueue(timer);
+
+    // A timer on its own is not delayed to be batched with others
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(500),
+        timerQueue.getTimeUntilNextWakeup(DUE_TIME - TimeUnit.MILLISECONDS.toNanos(500)));
+    assertEquals(0, timerQueue.getTimeUntilNextWakeup(DUE_TIME + 1));
+
+    Queue<Timer> due = new ArrayDeque<Timer>();
+    timerQueue.takeDue(DUE_TIME - 1, due);
+    assertTrue(due.isEmpty());
+    timerQueue.takeDue(DUE_TIME, due);
+    assertEquals(1, due.size());
+    assertSame(timer, due.poll());
+  }
+
+  @Test
+  public final void testCoalescing() {
+    Timer timerOne = new FixedTimer(DUE_TIME);
+    // Due a few milliseconds after the first timer, well within a hundredth of its period
+    Timer timerTwo = new FixedTimer(DUE_TIME + TimeUnit.MILLISECONDS.toNanos(5));
+    TimerQueue timerQueue = createTimerQueue(timerTwo, timerOne);
+
+    // The first timer waits for the second one, so both are taken out in a single wakeup
+    long now = DUE_TIME - TimeUnit.MILLISECONDS.toNanos(500);
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(505), timerQueue.getTimeUntilNextWakeup(now));
+
+    Queue<Timer> due = new ArrayDeque<Timer>();
+    timerQueue.takeDue(now + timerQueue.getTimeUntilNextWakeup(now), due);
+    assertEquals(2, due.size());
+    assertSame(timerOne, due.poll());
+    assertSame(timerTwo, due.poll());
+  }
+
+  @Test
+  public final void testNotCoalescedBeyondSlack() {
+    Timer timerOne = new FixedTimer(DUE_TIME);
+    // Due later than the first timer may be called
+    Timer timerTwo = new FixedTimer(DUE_TIME + TimeUnit.MILLISECONDS.toNanos(30));
+    TimerQueue timerQueue = createTimerQueue(timerOne, timerTwo);
+
+    long now = DUE_TIME - TimeUnit.MILLISECONDS.toNanos(500);
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(500), timerQueue.getTimeUntilNextWakeup(now));
+
+    Queue<Timer> due = new ArrayDeque<Timer>();
+    timerQueue.takeDue(DUE_TIME, due);
+    assertEquals(1, due.size());
+    assertSame(timerOne, due.poll());
+
+    // Taken out timers are not scheduled again until released
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(30), timerQueue.getTimeUntilNextWakeup(DUE_TIME));
+    timerQueue.release(timerOne);
+    assertEquals(0, timerQueue.getTimeUntilNextWakeup(DUE_TIME));
+  }
+}
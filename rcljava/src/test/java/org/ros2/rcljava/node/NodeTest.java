@@ -19,6 +19,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.After;
@@ -29,6 +31,7 @@ import org.junit.Test;
 
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 
 import java.util.concurrent.TimeUnit;
 import java.util.ArrayList;
@@ -36,6 +39,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import org.ros2.rcljava.RCLJava;
@@ -47,6 +51,7 @@ import org.ros2.rcljava.executors.Executor;
 import org.ros2.rcljava.executors.MultiThreadedExecutor;
 import org.ros2.rcljava.executors.SingleThreadedExecutor;
 import org.ros2.rcljava.graph.EndpointInfo;
+import org.ros2.rcljava.graph.GraphCache;
 import org.ros2.rcljava.graph.NameAndTypes;
 import org.ros2.rcljava.graph.NodeNameInfo;
 import org.ros2.rcljava.node.Node;
@@ -55,7 +60,9 @@ import org.ros2.rcljava.qos.policies.Reliability;
 import org.ros2.rcljava.qos.QoSProfile;
 import org.ros2.rcljava.service.RMWRequestId;
 import org.ros2.rcljava.service.Service;
+import org.ros2.rcljava.subscription.SerializedSubscription;
 import org.ros2.rcljava.subscription.Subscription;
+import org.ros2.rcljava.subscription.SubscriptionOptions;
 
 public class NodeTest {
   private Node node;
@@ -245,6 +252,198 @@ public class NodeTest {
     assertEquals(0, subscription.getHandle());
   }
 
+  @Test
+  public final void testPubSubReusedMessages() throws Exception {
+    Publisher<std_msgs.msg.String> publisher =
+        node.<std_msgs.msg.String>createPublisher(std_msgs.msg.String.class, "test_topic_reused");
+
+    final List<std_msgs.msg.String> received = new ArrayList<std_msgs.msg.String>();
+
+    Subscription<std_msgs.msg.String> subscription =
+        node.<std_msgs.msg.String>createSubscription(std_msgs.msg.String.class,
+            "test_topic_reused", new Consumer<std_msgs.msg.String>() {
+              public void accept(final std_msgs.msg.String msg) {
+                assertEquals("Hello", msg.getData());
+                received.add(msg);
+              }
+            }, QoSProfile.DEFAULT, new SubscriptionOptions().setReusedMessages(2));
+
+    std_msgs.msg.String msg = new std_msgs.msg.String();
+    msg.setData("Hello");
+
+    while (RCLJava.ok() && received.size() < 3) {
+      publisher.publish(msg);
+      RCLJava.spinOnce(node);
+    }
+
+    // Messages are taken into a ring of two instances
+    assertNotSame(received.get(0), received.get(1));
+    assertSame(received.get(0), received.get(2));
+
+    publisher.dispose();
+    subscription.dispose();
+  }
+
+  @Test
+  public final void testPubSubTakeBatch() throws Exception {
+    Publisher<std_msgs.msg.String> publisher =
+        node.<std_msgs.msg.String>createPublisher(std_msgs.msg.String.class, "test_topic_batch");
+
+    final List<String> received = new ArrayList<String>();
+
+    Subscription<std_msgs.msg.String> subscription =
+        node.<std_msgs.msg.String>createSubscription(std_msgs.msg.String.class,
+            "test_topic_batch", new Consumer<std_msgs.msg.String>() {
+              public void accept(final std_msgs.msg.String msg) {
+                received.add(msg.getData());
+              }
+            }, QoSProfile.DEFAULT, new SubscriptionOptions().setMaxTakeBatch(4));
+    assertEquals(4, subscription.getMaxTakeBatch());
+
+    int published = 0;
+    while (RCLJava.ok() && received.size() < 8) {
+      // Queue several messages so that they are taken in batches
+      for (int i = 0; i < 4; i++) {
+        std_msgs.msg.String msg = new std_msgs.msg.String();
+        msg.setData("Hello " + published++);
+        publisher.publish(msg);
+      }
+      RCLJava.spinOnce(node);
+    }
+
+    // Messages are delivered in order
+    for (int i = 1; i < received.size(); i++) {
+      int previous = Integer.parseInt(received.get(i - 1).substring(6));
+      int current = Integer.parseInt(received.get(i).substring(6));
+      assertTrue(previous < current);
+    }
+
+    publisher.dispose();
+    subscription.dispose();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public final void testTakeBatchLargerThanReusedMessages() {
+    node.<std_msgs.msg.String>createSubscription(std_msgs.msg.String.class,
+        "test_topic_batch", new TestConsumer<std_msgs.msg.String>(null), QoSProfile.DEFAULT,
+        new SubscriptionOptions().setMaxTakeBatch(4).setReusedMessages(2));
+  }
+
+  @Test
+  public final void testPubSubBatches() throws Exception {
+    Publisher<std_msgs.msg.String> publisher =
+        node.<std_msgs.msg.String>createPublisher(
+            std_msgs.msg.String.class, "test_topic_batches");
+
+    final List<List<String>> batches = new ArrayList<List<String>>();
+
+    Subscription<std_msgs.msg.String> subscription =
+        node.<std_msgs.msg.String>createSubscription(std_msgs.msg.String.class,
+            "test_topic_batches", new Consumer<List<std_msgs.msg.String>>() {
+              public void accept(final List<std_msgs.msg.String> msgs) {
+                List<String> batch = new ArrayList<String>();
+                for (std_msgs.msg.String msg : msgs) {
+                  batch.add(msg.getData());
+                }
+                batches.add(batch);
+              }
+            }, 3, 50, TimeUnit.MILLISECONDS);
+    assertEquals(3, subscription.getMaxTakeBatch());
+
+    // A full batch is delivered without waiting for the linger time
+    int published = 0;
+    while (RCLJava.ok() && batches.isEmpty()) {
+      std_msgs.msg.String msg = new std_msgs.msg.String();
+      msg.setData("Hello " + published++);
+      publisher.publish(msg);
+      RCLJava.spinOnce(node);
+    }
+    assertEquals(3, batches.get(0).size());
+
+    // An incomplete batch is delivered when the linger time elapses
+    batches.clear();
+    std_msgs.msg.String msg = new std_msgs.msg.String();
+    msg.setData("Hello " + published);
+    publisher.publish(msg);
+    long start = System.nanoTime();
+    while (RCLJava.ok() && batches.isEmpty()
+        && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10)) {
+      RCLJava.spinOnce(node);
+    }
+    assertEquals(1, batches.size());
+    assertTrue(batches.get(0).size() <= 3);
+    assertEquals("Hello " + published, batches.get(0).get(batches.get(0).size() - 1));
+
+    // The linger timer goes away with the subscription
+    int timers = node.getTimers().size();
+    publisher.dispose();
+    subscription.dispose();
+    assertEquals(timers - 1, node.getTimers().size());
+  }
+
+  @Test
+  public final void testPubSubSerialized() throws Exception {
+    Publisher<std_msgs.msg.String> publisher =
+        node.<std_msgs.msg.String>createPublisher(
+            std_msgs.msg.String.class, "test_topic_serialized_in");
+
+    final RCLFuture<ByteBuffer> serializedFuture =
+        new RCLFuture<ByteBuffer>(new WeakReference<Node>(node));
+
+    SerializedSubscription<std_msgs.msg.String> serializedSubscription =
+        node.<std_msgs.msg.String>createSerializedSubscription(
+            std_msgs.msg.String.class, "test_topic_serialized_in", new Consumer<ByteBuffer>() {
+              public void accept(final ByteBuffer buffer) {
+                if (!serializedFuture.isDone()) {
+                  // The buffer is only valid during the callback
+                  ByteBuffer copy = ByteBuffer.allocateDirect(buffer.remaining());
+                  copy.put(buffer);
+                  copy.flip();
+                  serializedFuture.set(copy);
+                }
+              }
+            });
+
+    std_msgs.msg.String msg = new std_msgs.msg.String();
+    msg.setData("Hello");
+
+    while (RCLJava.ok() && !serializedFuture.isDone()) {
+      publisher.publish(msg);
+      RCLJava.spinOnce(node);
+    }
+
+    ByteBuffer serializedMessage = serializedFuture.get();
+    assertTrue(serializedMessage.remaining() > 0);
+
+    // Forward the serialized message and check that it is deserialized back correctly
+    Publisher<std_msgs.msg.String> serializedPublisher =
+        node.<std_msgs.msg.String>createPublisher(
+            std_msgs.msg.String.class, "test_topic_serialized_out");
+
+    RCLFuture<std_msgs.msg.String> future =
+        new RCLFuture<std_msgs.msg.String>(new WeakReference<Node>(node));
+
+    Subscription<std_msgs.msg.String> subscription =
+        node.<std_msgs.msg.String>createSubscription(
+            std_msgs.msg.String.class, "test_topic_serialized_out",
+            new TestConsumer<std_msgs.msg.String>(future));
+
+    while (RCLJava.ok() && !future.isDone()) {
+      serializedPublisher.publishSerialized(serializedMessage.duplicate());
+      RCLJava.spinOnce(node);
+    }
+
+    assertEquals("Hello", future.get().getData());
+
+    publisher.dispose();
+    serializedPublisher.dispose();
+    assertEquals(1, node.getSerializedSubscriptions().size());
+    serializedSubscription.dispose();
+    assertEquals(0, serializedSubscription.getHandle());
+    assertEquals(0, node.getSerializedSubscriptions().size());
+    subscription.dispose();
+  }
+
   @Test
   public final void testPubSubBoundedArrayNested() throws Exception {
     Publisher<rcljava.msg.BoundedArrayNested> publisher =
@@ -1186,4 +1385,68 @@ public class NodeTest {
     subscription.dispose();
     subscription2.dispose();
   }
+
+  @Test
+  public final void testGraphCacheWithoutListeners() throws Exception {
+    GraphCache graphCache = node.getGraphCache();
+
+    // Polling returns the same snapshot until the graph changes
+    boolean cached = false;
+    for (int i = 0; i < 10 && !cached; i++) {
+      Collection<NameAndTypes> topics = graphCache.getTopicNamesAndTypes();
+      cached = topics == graphCache.getTopicNamesAndTypes();
+    }
+    assertTrue(cached);
+
+    Publisher<rcljava.msg.UInt32> publisher = node.<rcljava.msg.UInt32>createPublisher(
+        rcljava.msg.UInt32.class, "test_graph_cache_without_listeners");
+    final NameAndTypes topic = new NameAndTypes("/test_graph_cache_without_listeners",
+        new ArrayList(Arrays.asList("rcljava/msg/UInt32")));
+    long start = System.nanoTime();
+    while (!graphCache.getTopicNamesAndTypes().contains(topic)
+        && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10)) {
+      Thread.sleep(10);
+    }
+    assertTrue(graphCache.getTopicNamesAndTypes().contains(topic));
+
+    publisher.dispose();
+  }
+
+  @Test
+  public final void testGraphCache() throws Exception {
+    GraphCache graphCache = node.getGraphCache();
+    final NameAndTypes topic = new NameAndTypes(
+        "/test_graph_cache", new ArrayList(Arrays.asList("rcljava/msg/UInt32")));
+    final CountDownLatch topicAdded = new CountDownLatch(1);
+    final CountDownLatch publisherAdded = new CountDownLatch(1);
+
+    graphCache.addListener(new GraphCache.ListenerAdapter() {
+      public void topicAdded(final NameAndTypes addedTopic) {
+        if (topic.equals(addedTopic)) {
+          topicAdded.countDown();
+        }
+      }
+
+      public void endpointAdded(final String topicName, final EndpointInfo endpoint) {
+        if (topic.name.equals(topicName)
+            && endpoint.endpointType == EndpointInfo.EndpointType.PUBLISHER) {
+          publisherAdded.countDown();
+        }
+      }
+    });
+
+    // The changes are reported against these snapshots
+    assertFalse(graphCache.getTopicNamesAndTypes().contains(topic));
+    assertEquals(0, graphCache.getPublishersInfo(topic.name).size());
+
+    Publisher<rcljava.msg.UInt32> publisher = node.<rcljava.msg.UInt32>createPublisher(
+        rcljava.msg.UInt32.class, "test_graph_cache");
+
+    assertTrue(topicAdded.await(10, TimeUnit.SECONDS));
+    assertTrue(publisherAdded.await(10, TimeUnit.SECONDS));
+    assertTrue(graphCache.getTopicNamesAndTypes().contains(topic));
+    assertEquals(1, graphCache.getPublishersInfo(topic.name).size());
+
+    publisher.dispose();
+  }
 }
@@ -16,9 +16,13 @@
 package org.ros2.rcljava.publisher;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -141,4 +145,60 @@ public class PublisherTest {
     RCLJava.shutdown();
     assertEquals(0, eventHandler.getHandle());
   }
+
+  @Test
+  public final void testBorrowAndPublishLoanedMessage() {
+    RCLJava.rclJavaInit();
+    Node node = RCLJava.createNode("test_node");
+    Publisher<std_msgs.msg.String> publisher =
+        node.<std_msgs.msg.String>createPublisher(std_msgs.msg.String.class, "test_topic");
+
+    // Strings are never loaned, the publisher falls back to its own native buffer
+    LoanedMessage<std_msgs.msg.String> loanedMessage = publisher.borrowLoanedMessage();
+    assertFalse(loanedMessage.isLoaned());
+    loanedMessage.getMessage().setData("Hello");
+    publisher.publishLoanedMessage(loanedMessage);
+
+    try {
+      publisher.publishLoanedMessage(loanedMessage);
+      fail("A loaned message can only be published once");
+    } catch (IllegalStateException ise) {
+      // Expected
+    }
+
+    publisher.returnLoanedMessage(publisher.borrowLoanedMessage());
+    publisher.dispose();
+    RCLJava.shutdown();
+  }
+
+  @Test
+  public final void testPublishFailedConversion() {
+    RCLJava.rclJavaInit();
+    Node node = RCLJava.createNode("test_node");
+    Publisher<rcljava.msg.StaticArrayPrimitives> publisher =
+        node.<rcljava.msg.StaticArrayPrimitives>createPublisher(
+            rcljava.msg.StaticArrayPrimitives.class, "test_topic_failed_conversion");
+
+    rcljava.msg.StaticArrayPrimitives message = new rcljava.msg.StaticArrayPrimitives();
+    message.setInt32Values(new ArrayList<Integer>(Arrays.asList(1, 2, 3)));
+    // The fixed size is only checked by the setter, the conversion fails
+    message.getInt32Values().remove(2);
+
+    // Before and after the native message of the publisher was created
+    for (int i = 0; i < 2; i++) {
+      try {
+        publisher.publish(message);
+        fail("A fixed size array of the wrong size must not be published");
+      } catch (IllegalArgumentException iae) {
+        // Expected
+      }
+
+      rcljava.msg.StaticArrayPrimitives validMessage = new rcljava.msg.StaticArrayPrimitives();
+      validMessage.setInt32Values(new ArrayList<Integer>(Arrays.asList(1, 2, 3)));
+      publisher.publish(validMessage);
+    }
+
+    publisher.dispose();
+    RCLJava.shutdown();
+  }
 }
@@ -100,4 +100,31 @@ public class TimerTest {
     assertEquals(4, timerCallback.getCounter());
     RCLJava.shutdown();
   }
+
+  @Test
+  public final void testResetAfterCancel() {
+    RCLJava.rclJavaInit();
+    Node node = RCLJava.createNode("test_node_reset");
+    RCLFuture<Boolean> future = new RCLFuture<Boolean>(new WeakReference<Node>(node));
+    TimerCallback timerCallback = new TimerCallback(future, 2);
+    WallTimer timer = node.createWallTimer(50, TimeUnit.MILLISECONDS, timerCallback);
+
+    timer.cancel();
+    assertTrue(timer.isCanceled());
+    assertFalse(timer.isReady());
+
+    timer.reset();
+    assertFalse(timer.isCanceled());
+    assertTrue(timer.timeUntilNextCall() > 0);
+    assertTrue(timer.timeUntilNextCall() <= TimeUnit.MILLISECONDS.toNanos(50));
+
+    while (RCLJava.ok() && !future.isDone()) {
+      RCLJava.spinOnce(node);
+    }
+
+    assertEquals(2, timerCallback.getCounter());
+    assertTrue(timer.timeSinceLastCall() < TimeUnit.MILLISECONDS.toNanos(50));
+    timer.cancel();
+    RCLJava.shutdown();
+  }
 }
@@ -152,7 +152,7 @@ foreach(dep ${target_dependencies})
   endif()
 endforeach()
 
-set(generator_arguments_file "${CMAKE_BINARY_DIR}/rosidl_generator_java__arguments.json")
+set(generator_arguments_file "${CMAKE_CURRENT_BINARY_DIR}/rosidl_generator_java__arguments.json")
 rosidl_write_generator_arguments(
   "${generator_arguments_file}"
   PACKAGE_NAME "${PROJECT_NAME}"
@@ -165,6 +165,19 @@ rosidl_write_generator_arguments(
 
 file(MAKE_DIRECTORY "${_output_path}")
 
+# Opt-in representations of fields, to be set by the package before generating its interfaces
+set(_generator_options "")
+if(ROSIDL_GENERATOR_JAVA_PRIMITIVE_ARRAYS)
+  # Store sequences and arrays of basic types in primitive arrays (e.g. double[]) instead of
+  # lists of boxed values, so that they are converted in bulk
+  list(APPEND _generator_options "--primitive-arrays")
+endif()
+if(ROSIDL_GENERATOR_JAVA_BYTE_BUFFERS)
+  # Store sequences and arrays of byte types (e.g. uint8[]) in java.nio.ByteBuffer, so that
+  # large payloads such as images are copied at once
+  list(APPEND _generator_options "--byte-buffers")
+endif()
+
 set(_extension_dependencies "")
 set(_target_suffix "__java")
 
@@ -9,6 +9,8 @@ from rosidl_generator_java import get_java_type
 from rosidl_generator_java import get_jni_signature
 from rosidl_generator_java import get_jni_type
 from rosidl_generator_java import get_normalized_type
+from rosidl_generator_java import is_byte_buffer
+from rosidl_generator_java import is_primitive_array
 from rosidl_generator_java import value_methods
 from rosidl_parser.definition import AbstractGenericString
 from rosidl_parser.definition import AbstractString
@@ -17,6 +19,7 @@ from rosidl_parser.definition import AbstractNestedType
 from rosidl_parser.definition import AbstractSequence
 from rosidl_parser.definition import Array
 from rosidl_parser.definition import BasicType
+from rosidl_parser.definition import BoundedSequence
 from rosidl_parser.definition import NamespacedType
 
 msg_normalized_type = '__'.join(message.structure.namespaced_type.namespaced_name())
@@ -31,6 +34,9 @@ list_jni_type = "java/util/List"
 array_list_normalized_type = "java__util__ArrayList"
 array_list_jni_type = "java/util/ArrayList"
 
+byte_buffer_normalized_type = "java__nio__ByteBuffer"
+byte_buffer_jni_type = "java/nio/ByteBuffer"
+
 # Collect JNI types and includes
 cache = defaultdict(lambda: False)
 cache[msg_normalized_type] = msg_jni_type
@@ -41,6 +47,8 @@ for member in message.structure.members:
     if isinstance(type_, AbstractNestedType):
         cache[list_normalized_type] = list_jni_type
         cache[array_list_normalized_type] = array_list_jni_type
+        if is_byte_buffer(type_):
+            cache[byte_buffer_normalized_type] = byte_buffer_jni_type
         type_ = type_.value_type
         if isinstance(type_, BasicType):
             member_includes.add('rosidl_runtime_c/primitives_sequence.h')
@@ -108,6 +116,7 @@ elif message_c_include_prefix.endswith('__get_result'):
 
 #include <cassert>
 #include <cstdint>
+#include <cstring>
 #include <string>
 
 #include "rosidl_runtime_c/message_type_support_struct.h"
@@ -123,6 +132,8 @@ elif message_c_include_prefix.endswith('__get_result'):
 
 // Ensure that a jlong is big enough to store raw pointers
 static_assert(sizeof(jlong) >= sizeof(std::intptr_t), "jlong must be able to store pointers");
+// Ensure that boolean sequences can be copied to and from Java arrays in bulk
+static_assert(sizeof(jboolean) == sizeof(bool), "jboolean must have the same size as bool");
 
 using rcljava_common::exceptions::rcljava_throw_exception;
 
@@ -222,7 +233,116 @@ JNIEXPORT jlong JNICALL Java_@(underscore_separated_jni_type_name)_getDestructor
 @{
 normalized_type = get_normalized_type(member.type)
 }@
-@[  if isinstance(member.type, AbstractNestedType)]
+@[  if is_byte_buffer(member.type)]@
+  auto _jfield_@(member.name)_fid = env->GetFieldID(_j@(msg_normalized_type)_class_global, "@(member.name)", "L@(byte_buffer_jni_type);");
+  jobject _jbuffer_@(member.name) = env->GetObjectField(_jmessage_obj, _jfield_@(member.name)_fid);
+
+  if (_jbuffer_@(member.name) != nullptr) {
+    jmethodID _jbuffer_@(member.name)_position_mid = env->GetMethodID(_j@(byte_buffer_normalized_type)_class_global, "position", "()I");
+    jmethodID _jbuffer_@(member.name)_remaining_mid = env->GetMethodID(_j@(byte_buffer_normalized_type)_class_global, "remaining", "()I");
+    jint _jbuffer_@(member.name)_position = env->CallIntMethod(_jbuffer_@(member.name), _jbuffer_@(member.name)_position_mid);
+    jint _jbuffer_@(member.name)_size = env->CallIntMethod(_jbuffer_@(member.name), _jbuffer_@(member.name)_remaining_mid);
+@[    if isinstance(member.type, BoundedSequence)]@
+    // The position or the limit of the buffer may have changed since it was set
+    if (_jbuffer_@(member.name)_size > @(member.type.maximum_size)) {
+      rcljava_throw_exception(env, "java/lang/IllegalArgumentException", "Buffer of field @(member.name) too big, maximum size allowed: @(member.type.maximum_size)");
+      return ros_message;
+    }
+@[    elif isinstance(member.type, Array)]@
+    // The position or the limit of the buffer may have changed since it was set, copying less
+    // would leave the values of a refilled message in place
+    if (_jbuffer_@(member.name)_size != @(member.type.size)) {
+      rcljava_throw_exception(env, "java/lang/IllegalArgumentException", "Invalid remaining size of buffer of field @(member.name), must be exactly: @(member.type.size)");
+      return ros_message;
+    }
+@[    end if]@
+@[    if isinstance(member.type, AbstractSequence)]@
+    // Reuse the memory of the sequence if the message is being refilled and it is large enough
+    if (ros_message->@(member.name).capacity >= static_cast<size_t>(_jbuffer_@(member.name)_size)) {
+      ros_message->@(member.name).size = _jbuffer_@(member.name)_size;
+    } else {
+      rosidl_runtime_c__@(member.type.value_type.typename)__Sequence__fini(&(ros_message->@(member.name)));
+      if (!rosidl_runtime_c__@(member.type.value_type.typename)__Sequence__init(&(ros_message->@(member.name)), _jbuffer_@(member.name)_size)) {
+        rcljava_throw_exception(env, "java/lang/IllegalStateException", "unable to create @(member.type.value_type)__Array ros_message");
+      }
+    }
+    _jbuffer_@(member.name)_size = static_cast<jint>(ros_message->@(member.name).size);
+    auto _dest_@(member.name) = ros_message->@(member.name).data;
+@[    else]@
+    auto _dest_@(member.name) = ros_message->@(member.name);
+@[    end if]@
+    auto _jbuffer_@(member.name)_data = static_cast<uint8_t *>(env->GetDirectBufferAddress(_jbuffer_@(member.name)));
+    if (_jbuffer_@(member.name)_size == 0) {
+      // Nothing to copy
+    } else if (_jbuffer_@(member.name)_data != nullptr) {
+      std::memcpy(_dest_@(member.name), _jbuffer_@(member.name)_data + _jbuffer_@(member.name)_position, _jbuffer_@(member.name)_size);
+    } else {
+      jmethodID _jbuffer_@(member.name)_has_array_mid = env->GetMethodID(_j@(byte_buffer_normalized_type)_class_global, "hasArray", "()Z");
+      if (env->CallBooleanMethod(_jbuffer_@(member.name), _jbuffer_@(member.name)_has_array_mid)) {
+        jmethodID _jbuffer_@(member.name)_array_mid = env->GetMethodID(_j@(byte_buffer_normalized_type)_class_global, "array", "()[B");
+        jmethodID _jbuffer_@(member.name)_array_offset_mid = env->GetMethodID(_j@(byte_buffer_normalized_type)_class_global, "arrayOffset", "()I");
+        auto _jbuffer_@(member.name)_array = static_cast<jbyteArray>(env->CallObjectMethod(_jbuffer_@(member.name), _jbuffer_@(member.name)_array_mid));
+        jint _jbuffer_@(member.name)_array_offset = env->CallIntMethod(_jbuffer_@(member.name), _jbuffer_@(member.name)_array_offset_mid);
+        env->GetByteArrayRegion(
+          _jbuffer_@(member.name)_array, _jbuffer_@(member.name)_array_offset + _jbuffer_@(member.name)_position,
+          _jbuffer_@(member.name)_size, reinterpret_cast<jbyte *>(_dest_@(member.name)));
+        env->DeleteLocalRef(_jbuffer_@(member.name)_array);
+      } else {
+        rcljava_throw_exception(env, "java/lang/IllegalArgumentException", "ByteBuffer of field @(member.name) must be direct or backed by an array");
+      }
+    }
+@[    if isinstance(member.type, AbstractSequence)]@
+  } else {
+    ros_message->@(member.name).size = 0;
+@[    end if]@
+  }
+  env->DeleteLocalRef(_jbuffer_@(member.name));
+@[  elif is_primitive_array(member.type)]@
+@{
+java_type = get_java_type(member.type.value_type)
+region_type = java_type.capitalize()
+}@
+  auto _jfield_@(member.name)_fid = env->GetFieldID(_j@(msg_normalized_type)_class_global, "@(member.name)", "[@(get_jni_signature(member.type))");
+  auto _jarray_@(member.name) = static_cast<j@(java_type)Array>(env->GetObjectField(_jmessage_obj, _jfield_@(member.name)_fid));
+
+  if (_jarray_@(member.name) != nullptr) {
+    jsize _jarray_@(member.name)_size = env->GetArrayLength(_jarray_@(member.name));
+@[    if isinstance(member.type, BoundedSequence)]@
+    if (_jarray_@(member.name)_size > @(member.type.maximum_size)) {
+      rcljava_throw_exception(env, "java/lang/IllegalArgumentException", "Array of field @(member.name) too big, maximum size allowed: @(member.type.maximum_size)");
+      return ros_message;
+    }
+@[    elif isinstance(member.type, Array)]@
+    if (_jarray_@(member.name)_size != @(member.type.size)) {
+      rcljava_throw_exception(env, "java/lang/IllegalArgumentException", "Invalid size of array of field @(member.name), must be exactly: @(member.type.size)");
+      return ros_message;
+    }
+@[    end if]@
+@[    if isinstance(member.type, AbstractSequence)]@
+    // Reuse the memory of the sequence if the message is being refilled and it is large enough
+    if (ros_message->@(member.name).capacity >= static_cast<size_t>(_jarray_@(member.name)_size)) {
+      ros_message->@(member.name).size = _jarray_@(member.name)_size;
+    } else {
+      rosidl_runtime_c__@(member.type.value_type.typename)__Sequence__fini(&(ros_message->@(member.name)));
+      if (!rosidl_runtime_c__@(member.type.value_type.typename)__Sequence__init(&(ros_message->@(member.name)), _jarray_@(member.name)_size)) {
+        rcljava_throw_exception(env, "java/lang/IllegalStateException", "unable to create @(member.type.value_type)__Array ros_message");
+      }
+    }
+    // The values have the same representation in C and in Java, copy all of them at once
+    env->Get@(region_type)ArrayRegion(
+      _jarray_@(member.name), 0, static_cast<jsize>(ros_message->@(member.name).size),
+      reinterpret_cast<j@(java_type) *>(ros_message->@(member.name).data));
+  } else {
+    ros_message->@(member.name).size = 0;
+@[    else]@
+    // The values have the same representation in C and in Java, copy all of them at once
+    env->Get@(region_type)ArrayRegion(
+      _jarray_@(member.name), 0, _jarray_@(member.name)_size,
+      reinterpret_cast<j@(java_type) *>(ros_message->@(member.name)));
+@[    end if]@
+  }
+  env->DeleteLocalRef(_jarray_@(member.name));
+@[  elif isinstance(member.type, AbstractNestedType)]
   auto _jfield_@(member.name)_fid = env->GetFieldID(_j@(msg_normalized_type)_class_global, "@(member.name)", "L@(list_jni_type);");
   jobject _jlist_@(member.name)_object = env->GetObjectField(_jmessage_obj, _jfield_@(member.name)_fid);
 
@@ -231,28 +351,40 @@ normalized_type = get_normalized_type(member.type)
 @[    if isinstance(member.type, AbstractSequence)]@
     jmethodID _jlist_@(member.name)_size_mid = env->GetMethodID(_j@(list_normalized_type)_class_global, "size", "()I");
     jint _jlist_@(member.name)_size = env->CallIntMethod(_jlist_@(member.name)_object, _jlist_@(member.name)_size_mid);
-@[      if isinstance(member.type.value_type, AbstractString)]@
-    if (!rosidl_runtime_c__String__Sequence__init(&(ros_message->@(member.name)), _jlist_@(member.name)_size)) {
-      rcljava_throw_exception(env, "java/lang/IllegalStateException", "unable to create String__Array ros_message");
+@[      if isinstance(member.type, BoundedSequence)]@
+    // The list may have been modified since it was set
+    if (_jlist_@(member.name)_size > @(member.type.maximum_size)) {
+      rcljava_throw_exception(env, "java/lang/IllegalArgumentException", "List of field @(member.name) too big, maximum size allowed: @(member.type.maximum_size)");
+      return ros_message;
     }
-@[      elif isinstance(member.type.value_type, AbstractWString)]@
-    if (!rosidl_runtime_c__U16String__Sequence__init(&(ros_message->@(member.name)), _jlist_@(member.name)_size)) {
-      rcljava_throw_exception(env, "java/lang/IllegalStateException", "unable to create U16String__Array ros_message");
-    }
-@[      else]@
-@[        if isinstance(member.type.value_type, BasicType)]@
-    if (!rosidl_runtime_c__@(member.type.value_type.typename)__Sequence__init(&(ros_message->@(member.name)), _jlist_@(member.name)_size)) {
-      rcljava_throw_exception(env, "java/lang/IllegalStateException", "unable to create @(member.type.value_type)__Array ros_message");
-    }
-@[        else]@
-    if (!@('__'.join(member.type.value_type.namespaced_name()))__Sequence__init(&(ros_message->@(member.name)), _jlist_@(member.name)_size)) {
-      rcljava_throw_exception(env, "java/lang/IllegalStateException", "unable to create @(member.type.value_type)__Array ros_message");
-    }
-
-@[        end if]@
 @[      end if]@
+@{
+if isinstance(member.type.value_type, AbstractString):
+    sequence_type = 'rosidl_runtime_c__String__Sequence'
+elif isinstance(member.type.value_type, AbstractWString):
+    sequence_type = 'rosidl_runtime_c__U16String__Sequence'
+elif isinstance(member.type.value_type, BasicType):
+    sequence_type = 'rosidl_runtime_c__%s__Sequence' % member.type.value_type.typename
+else:
+    sequence_type = '%s__Sequence' % '__'.join(member.type.value_type.namespaced_name())
+}@
+    // Reuse the memory of the sequence if the message is being refilled and it is large enough
+    if (ros_message->@(member.name).capacity >= static_cast<size_t>(_jlist_@(member.name)_size)) {
+      ros_message->@(member.name).size = _jlist_@(member.name)_size;
+    } else {
+      @(sequence_type)__fini(&(ros_message->@(member.name)));
+      if (!@(sequence_type)__init(&(ros_message->@(member.name)), _jlist_@(member.name)_size)) {
+        rcljava_throw_exception(env, "java/lang/IllegalStateException", "unable to create @(member.type.value_type)__Array ros_message");
+      }
+    }
     auto _dest_@(member.name) = ros_message->@(member.name).data;
 @[    else]@
+    jmethodID _jlist_@(member.name)_size_mid = env->GetMethodID(_j@(list_normalized_type)_class_global, "size", "()I");
+    // The list may have been modified since it was set
+    if (env->CallIntMethod(_jlist_@(member.name)_object, _jlist_@(member.name)_size_mid) != @(member.type.size)) {
+      rcljava_throw_exception(env, "java/lang/IllegalArgumentException", "Invalid size of list of field @(member.name), must be exactly: @(member.type.size)");
+      return ros_message;
+    }
     jint _jlist_@(member.name)_size = @(member.type.size);
 
     auto _dest_@(member.name) = ros_message->@(member.name);
@@ -267,6 +399,8 @@ normalized_type = get_normalized_type(member.type)
         rosidl_runtime_c__String__assign(
           &_dest_@(member.name)[i], _str@(member.name));
         env->ReleaseStringUTFChars(_jfield_@(member.name)_value, _str@(member.name));
+      } else {
+        rosidl_runtime_c__String__assign(&_dest_@(member.name)[i], "");
       }
 @[    elif isinstance(member.type.value_type, AbstractWString)]@
       jstring _jfield_@(member.name)_value = static_cast<jstring>(element);
@@ -275,6 +409,9 @@ normalized_type = get_normalized_type(member.type)
         rosidl_runtime_c__U16String__assign(
           &_dest_@(member.name)[i], _str@(member.name));
         env->ReleaseStringChars(_jfield_@(member.name)_value, _str@(member.name));
+      } else {
+        rosidl_runtime_c__U16String__fini(&_dest_@(member.name)[i]);
+        rosidl_runtime_c__U16String__init(&_dest_@(member.name)[i]);
       }
 @[    elif isinstance(member.type.value_type, BasicType)]@
 @{
@@ -282,10 +419,23 @@ call_method_name = 'Call%sMethod' % get_java_type(member.type.value_type, use_pr
 }@
       _dest_@(member.name)[i] = env->@(call_method_name)(element, _j@(normalized_type)_value_global);
 @[    else]@
-      _dest_@(member.name)[i] = *_j@(normalized_type)_from_java_function(element, nullptr);
+      if (element != nullptr) {
+        _j@(normalized_type)_from_java_function(element, &_dest_@(member.name)[i]);
+        if (env->ExceptionCheck()) {
+          env->DeleteLocalRef(element);
+          return ros_message;
+        }
+      } else {
+        @(normalized_type)__fini(&_dest_@(member.name)[i]);
+        @(normalized_type)__init(&_dest_@(member.name)[i]);
+      }
 @[    end if]@
       env->DeleteLocalRef(element);
     }
+@[    if isinstance(member.type, AbstractSequence)]@
+  } else {
+    ros_message->@(member.name).size = 0;
+@[    end if]@
   }
 @[  else]@
 @[    if isinstance(member.type, AbstractGenericString)]@
@@ -303,6 +453,13 @@ call_method_name = 'Call%sMethod' % get_java_type(member.type.value_type, use_pr
     rosidl_runtime_c__U16String__assign(
       &ros_message->@(member.name), _str@(member.name));
     env->ReleaseStringChars(_jvalue@(member.name), _str@(member.name));
+@[      end if]@
+  } else {
+@[      if isinstance(member.type, AbstractString)]@
+    rosidl_runtime_c__String__assign(&ros_message->@(member.name), "");
+@[      else]@
+    rosidl_runtime_c__U16String__fini(&ros_message->@(member.name));
+    rosidl_runtime_c__U16String__init(&ros_message->@(member.name));
 @[      end if]@
   }
 @[    elif isinstance(member.type, BasicType)]@
@@ -321,7 +478,14 @@ get_method_name = 'Get%sField' % get_java_type(member.type, use_primitives=True)
   jobject _jfield_@(member.name)_obj = env->GetObjectField(_jmessage_obj, _jfield_@(member.name)_fid);
 
   if (_jfield_@(member.name)_obj != nullptr) {
-    ros_message->@(member.name) = *_j@(normalized_type)_from_java_function(_jfield_@(member.name)_obj, nullptr);
+    _j@(normalized_type)_from_java_function(_jfield_@(member.name)_obj, &ros_message->@(member.name));
+    if (env->ExceptionCheck()) {
+      env->DeleteLocalRef(_jfield_@(member.name)_obj);
+      return ros_message;
+    }
+  } else {
+    @(normalized_type)__fini(&ros_message->@(member.name));
+    @(normalized_type)__init(&ros_message->@(member.name));
   }
   env->DeleteLocalRef(_jfield_@(member.name)_obj);
 @[    end if]@
@@ -351,7 +515,85 @@ jobject @(underscore_separated_type_name)__convert_to_java(@(msg_normalized_type
 @{
 normalized_type = get_normalized_type(member.type)
 }@
-@[  if isinstance(member.type, AbstractNestedType)]@
+@[  if is_byte_buffer(member.type)]@
+  auto _jfield_@(member.name)_fid = env->GetFieldID(_j@(msg_normalized_type)_class_global, "@(member.name)", "L@(byte_buffer_jni_type);");
+@[    if isinstance(member.type, Array)]@
+  jint _jbuffer_@(member.name)_size = @(member.type.size);
+  auto _ros_@(member.name)_data = _ros_message->@(member.name);
+@[    else]@
+  jint _jbuffer_@(member.name)_size = static_cast<jint>(_ros_message->@(member.name).size);
+  auto _ros_@(member.name)_data = _ros_message->@(member.name).data;
+@[    end if]@
+  // The native message is destroyed after the conversion, so its memory cannot be wrapped.
+  // Copy it at once into the buffer of the Java message if it is large enough and writable,
+  // whether direct or not. Otherwise copy it into a new heap buffer, which unlike a direct
+  // buffer is cheap to allocate and collect.
+  jobject _jbuffer_@(member.name) = env->GetObjectField(_jmessage_obj, _jfield_@(member.name)_fid);
+  jmethodID _jbuffer_@(member.name)_capacity_mid = env->GetMethodID(_j@(byte_buffer_normalized_type)_class_global, "capacity", "()I");
+  jmethodID _jbuffer_@(member.name)_read_only_mid = env->GetMethodID(_j@(byte_buffer_normalized_type)_class_global, "isReadOnly", "()Z");
+  if (_jbuffer_@(member.name) != nullptr &&
+    env->CallIntMethod(_jbuffer_@(member.name), _jbuffer_@(member.name)_capacity_mid) >= _jbuffer_@(member.name)_size &&
+    !env->CallBooleanMethod(_jbuffer_@(member.name), _jbuffer_@(member.name)_read_only_mid))
+  {
+    jmethodID _jbuffer_@(member.name)_clear_mid = env->GetMethodID(_j@(byte_buffer_normalized_type)_class_global, "clear", "()Ljava/nio/Buffer;");
+    jmethodID _jbuffer_@(member.name)_limit_mid = env->GetMethodID(_j@(byte_buffer_normalized_type)_class_global, "limit", "(I)Ljava/nio/Buffer;");
+    env->DeleteLocalRef(env->CallObjectMethod(_jbuffer_@(member.name), _jbuffer_@(member.name)_clear_mid));
+    env->DeleteLocalRef(env->CallObjectMethod(_jbuffer_@(member.name), _jbuffer_@(member.name)_limit_mid, _jbuffer_@(member.name)_size));
+    auto _jbuffer_@(member.name)_data = static_cast<uint8_t *>(env->GetDirectBufferAddress(_jbuffer_@(member.name)));
+    if (_jbuffer_@(member.name)_size == 0) {
+      // Nothing to copy
+    } else if (_jbuffer_@(member.name)_data != nullptr) {
+      std::memcpy(_jbuffer_@(member.name)_data, _ros_@(member.name)_data, _jbuffer_@(member.name)_size);
+    } else {
+      // Writable heap buffers are always backed by an array
+      jmethodID _jbuffer_@(member.name)_array_mid = env->GetMethodID(_j@(byte_buffer_normalized_type)_class_global, "array", "()[B");
+      jmethodID _jbuffer_@(member.name)_array_offset_mid = env->GetMethodID(_j@(byte_buffer_normalized_type)_class_global, "arrayOffset", "()I");
+      auto _jbuffer_@(member.name)_array = static_cast<jbyteArray>(env->CallObjectMethod(_jbuffer_@(member.name), _jbuffer_@(member.name)_array_mid));
+      jint _jbuffer_@(member.name)_array_offset = env->CallIntMethod(_jbuffer_@(member.name), _jbuffer_@(member.name)_array_offset_mid);
+      env->SetByteArrayRegion(
+        _jbuffer_@(member.name)_array, _jbuffer_@(member.name)_array_offset, _jbuffer_@(member.name)_size,
+        reinterpret_cast<const jbyte *>(_ros_@(member.name)_data));
+      env->DeleteLocalRef(_jbuffer_@(member.name)_array);
+    }
+  } else {
+    env->DeleteLocalRef(_jbuffer_@(member.name));
+    jbyteArray _jbuffer_@(member.name)_array = env->NewByteArray(_jbuffer_@(member.name)_size);
+    if (_jbuffer_@(member.name)_size > 0) {
+      env->SetByteArrayRegion(
+        _jbuffer_@(member.name)_array, 0, _jbuffer_@(member.name)_size,
+        reinterpret_cast<const jbyte *>(_ros_@(member.name)_data));
+    }
+    jmethodID _jbuffer_@(member.name)_wrap_mid = env->GetStaticMethodID(_j@(byte_buffer_normalized_type)_class_global, "wrap", "([B)Ljava/nio/ByteBuffer;");
+    _jbuffer_@(member.name) = env->CallStaticObjectMethod(_j@(byte_buffer_normalized_type)_class_global, _jbuffer_@(member.name)_wrap_mid, _jbuffer_@(member.name)_array);
+    env->SetObjectField(_jmessage_obj, _jfield_@(member.name)_fid, _jbuffer_@(member.name));
+    env->DeleteLocalRef(_jbuffer_@(member.name)_array);
+  }
+  env->DeleteLocalRef(_jbuffer_@(member.name));
+@[  elif is_primitive_array(member.type)]@
+@{
+java_type = get_java_type(member.type.value_type)
+region_type = java_type.capitalize()
+}@
+  auto _jfield_@(member.name)_fid = env->GetFieldID(_j@(msg_normalized_type)_class_global, "@(member.name)", "[@(get_jni_signature(member.type))");
+@[    if isinstance(member.type, Array)]@
+  jsize _jarray_@(member.name)_size = @(member.type.size);
+  auto _ros_@(member.name)_data = _ros_message->@(member.name);
+@[    else]@
+  jsize _jarray_@(member.name)_size = static_cast<jsize>(_ros_message->@(member.name).size);
+  auto _ros_@(member.name)_data = _ros_message->@(member.name).data;
+@[    end if]@
+  // Reuse the array of the Java message if it has the right size
+  auto _jarray_@(member.name) = static_cast<j@(java_type)Array>(env->GetObjectField(_jmessage_obj, _jfield_@(member.name)_fid));
+  if (_jarray_@(member.name) == nullptr || env->GetArrayLength(_jarray_@(member.name)) != _jarray_@(member.name)_size) {
+    env->DeleteLocalRef(_jarray_@(member.name));
+    _jarray_@(member.name) = env->New@(region_type)Array(_jarray_@(member.name)_size);
+    env->SetObjectField(_jmessage_obj, _jfield_@(member.name)_fid, _jarray_@(member.name));
+  }
+  env->Set@(region_type)ArrayRegion(
+    _jarray_@(member.name), 0, _jarray_@(member.name)_size,
+    reinterpret_cast<const j@(java_type) *>(_ros_@(member.name)_data));
+  env->DeleteLocalRef(_jarray_@(member.name));
+@[  elif isinstance(member.type, AbstractNestedType)]@
 @[    if isinstance(member.type.value_type, (BasicType, AbstractGenericString))]@
   auto _jfield_@(member.name)_fid = env->GetFieldID(_j@(msg_normalized_type)_class_global, "@(member.name)", "L@(list_jni_type);");
   jobject _jarray_list_@(member.name)_obj = env->NewObject(_j@(array_list_normalized_type)_class_global, _j@(array_list_normalized_type)_constructor_global);
@@ -426,9 +668,12 @@ set_method_name = 'Set%sField' % get_java_type(member.type, use_primitives=True)
     _j@(msg_normalized_type)_class_global, "@(member.name)", "L@('/'.join(member.type.namespaced_name()));");
   assert(_jfield_@(member.name)_fid != nullptr);
 
-  jobject _jfield_@(member.name)_obj = _j@(normalized_type)_to_java_function(&(_ros_message->@(member.name)), nullptr);
+  // Overwrite the nested message of the Java message if it has one, instead of creating a new one
+  jobject _jfield_@(member.name)_obj = env->GetObjectField(_jmessage_obj, _jfield_@(member.name)_fid);
+  _jfield_@(member.name)_obj = _j@(normalized_type)_to_java_function(&(_ros_message->@(member.name)), _jfield_@(member.name)_obj);
 
   env->SetObjectField(_jmessage_obj, _jfield_@(member.name)_fid, _jfield_@(member.name)_obj);
+  env->DeleteLocalRef(_jfield_@(member.name)_obj);
 @[    end if]@
 @[  end if]@
 @[end for]@
@@ -7,6 +7,8 @@ package @(package_name + '.' + interface_path.parts[0]);
 @{
 from rosidl_generator_java import convert_lower_case_underscore_to_camel_case
 from rosidl_generator_java import get_java_type
+from rosidl_generator_java import is_byte_buffer
+from rosidl_generator_java import is_primitive_array
 from rosidl_generator_java import primitive_value_to_java
 from rosidl_generator_java import value_to_java
 from rosidl_parser.definition import AbstractGenericString
@@ -78,7 +80,63 @@ public final class @(type_name) implements MessageDefinition {
 
 @[for member in message.structure.members]@
 
-@[  if isinstance(member.type, AbstractNestedType)]@
+@[  if is_byte_buffer(member.type)]@
+@[    if member.has_annotation('default')]@
+  private java.nio.ByteBuffer @(member.name) = java.nio.ByteBuffer.wrap(new byte[] @(value_to_java(member.type, member.get_annotation_value('default')['value'])));
+@[    elif isinstance(member.type, Array)]@
+  private java.nio.ByteBuffer @(member.name) = java.nio.ByteBuffer.allocate(@(member.type.size));
+@[    else]@
+  private java.nio.ByteBuffer @(member.name) = java.nio.ByteBuffer.allocate(0);
+@[    end if]@
+
+  public final @(type_name) set@(convert_lower_case_underscore_to_camel_case(member.name))(final java.nio.ByteBuffer @(member.name)) {
+@[    if isinstance(member.type, BoundedSequence)]@
+    if(@(member.name).remaining() > @(member.type.maximum_size)) {
+        throw new IllegalArgumentException("Buffer too big, maximum size allowed: @(member.type.maximum_size)");
+    }
+@[    elif isinstance(member.type, Array)]@
+    if(@(member.name).remaining() != @(member.type.size)) {
+        throw new IllegalArgumentException("Invalid size for fixed array, must be exactly: @(member.type.size)");
+    }
+@[    end if]@
+    this.@(member.name) = @(member.name);
+    return this;
+  }
+
+  public final @(type_name) set@(convert_lower_case_underscore_to_camel_case(member.name))(final byte[] @(member.name)) {
+    return set@(convert_lower_case_underscore_to_camel_case(member.name))(java.nio.ByteBuffer.wrap(@(member.name)));
+  }
+
+  public final java.nio.ByteBuffer get@(convert_lower_case_underscore_to_camel_case(member.name))() {
+    return this.@(member.name);
+  }
+@[  elif is_primitive_array(member.type)]@
+@[    if member.has_annotation('default')]@
+  private @(get_java_type(member.type))[] @(member.name) = new @(get_java_type(member.type))[] @(value_to_java(member.type, member.get_annotation_value('default')['value']));
+@[    elif isinstance(member.type, Array)]@
+  private @(get_java_type(member.type))[] @(member.name) = new @(get_java_type(member.type))[@(member.type.size)];
+@[    else]@
+  private @(get_java_type(member.type))[] @(member.name) = new @(get_java_type(member.type))[0];
+@[    end if]@
+
+  public final @(type_name) set@(convert_lower_case_underscore_to_camel_case(member.name))(final @(get_java_type(member.type))[] @(member.name)) {
+@[    if isinstance(member.type, BoundedSequence)]@
+    if(@(member.name).length > @(member.type.maximum_size)) {
+        throw new IllegalArgumentException("Array too big, maximum size allowed: @(member.type.maximum_size)");
+    }
+@[    elif isinstance(member.type, Array)]@
+    if(@(member.name).length != @(member.type.size)) {
+        throw new IllegalArgumentException("Invalid size for fixed array, must be exactly: @(member.type.size)");
+    }
+@[    end if]@
+    this.@(member.name) = @(member.name);
+    return this;
+  }
+
+  public final @(get_java_type(member.type))[] get@(convert_lower_case_underscore_to_camel_case(member.name))() {
+    return this.@(member.name);
+  }
+@[  elif isinstance(member.type, AbstractNestedType)]@
 @[    if member.has_annotation('default')]@
   private java.util.List<@(get_java_type(member.type, use_primitives=False))> @(member.name) = java.util.Arrays.asList(new @(get_java_type(member.type, use_primitives=False))[] @(value_to_java(member.type, member.get_annotation_value('default')['value'])));
 @[    else]@
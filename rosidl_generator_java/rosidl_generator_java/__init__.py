@@ -30,7 +30,19 @@ def convert_lower_case_underscore_to_camel_case(word):
     return ''.join(x.capitalize() or '_' for x in word.split('_'))
 
 
-def generate_java(generator_arguments_file, typesupport_impls):
+# Options selecting the Java representation of some fields, they apply to all the interfaces
+# generated for a package
+generator_options = {
+    'primitive_arrays': False,
+    'byte_buffers': False,
+}
+
+
+def generate_java(
+    generator_arguments_file, typesupport_impls, primitive_arrays=False, byte_buffers=False
+):
+    generator_options['primitive_arrays'] = primitive_arrays
+    generator_options['byte_buffers'] = byte_buffers
     args = read_generator_arguments(generator_arguments_file)
     additional_context = {
         'output_dir': pathlib.Path(args['output_dir']),
@@ -141,6 +153,35 @@ IDL_TYPE_TO_JAVA_PRIMITIVE = {
 }
 
 
+# Basic types that have the same size in C and in Java, so that sequences of them can be stored
+# in Java primitive arrays and converted in bulk
+PRIMITIVE_ARRAY_TYPES = (
+    'boolean', 'octet', 'float', 'double', 'uint8', 'int8', 'uint16', 'int16', 'uint32',
+    'int32', 'uint64', 'int64',
+)
+
+
+# Basic types of one byte, sequences of them can be stored in java.nio.ByteBuffer
+BYTE_BUFFER_TYPES = ('octet', 'char', 'uint8', 'int8')
+
+
+def is_primitive_array(type_):
+    """Return True if the values of a nested type are stored in a Java primitive array."""
+    return generator_options['primitive_arrays'] and \
+        isinstance(type_, AbstractNestedType) and \
+        isinstance(type_.value_type, BasicType) and \
+        type_.value_type.typename in PRIMITIVE_ARRAY_TYPES and \
+        not is_byte_buffer(type_)
+
+
+def is_byte_buffer(type_):
+    """Return True if the values of a nested type are stored in a java.nio.ByteBuffer."""
+    return generator_options['byte_buffers'] and \
+        isinstance(type_, AbstractNestedType) and \
+        isinstance(type_.value_type, BasicType) and \
+        type_.value_type.typename in BYTE_BUFFER_TYPES
+
+
 def get_java_type(type_, use_primitives=True):
     if isinstance(type_, AbstractNestedType):
         type_ = type_.value_type
@@ -173,6 +214,7 @@ constructor_signatures['java/lang/Integer'] = '(I)V'
 constructor_signatures['java/lang/Long'] = '(J)V'
 constructor_signatures['java/lang/Short'] = '(S)V'
 constructor_signatures['java/util/List'] = None
+constructor_signatures['java/nio/ByteBuffer'] = None
 
 value_methods = {}
 value_methods['java/lang/Boolean'] = ('booleanValue', '()Z')
@@ -0,0 +1,62 @@
+// Copyright 2020 Open Source Robotics Foundation, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+#include <jni.h>
+
+#include "rcljava_common/signatures.hpp"
+
+using rcljava_common::signatures::convert_from_java_signature;
+using rcljava_common::signatures::convert_to_java_signature;
+using rcljava_common::signatures::destroy_ros_message_signature;
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+JNIEXPORT jlong JNICALL
+Java_org_ros2_generator_RoundTrip_nativeConvertFromJava(
+  JNIEnv *, jclass, jlong jfrom_java_converter_handle, jobject jmessage,
+  jlong jmessage_handle)
+{
+  convert_from_java_signature convert_from_java =
+    reinterpret_cast<convert_from_java_signature>(jfrom_java_converter_handle);
+
+  void * message = convert_from_java(jmessage, reinterpret_cast<void *>(jmessage_handle));
+  return reinterpret_cast<jlong>(message);
+}
+
+JNIEXPORT jobject JNICALL
+Java_org_ros2_generator_RoundTrip_nativeConvertToJava(
+  JNIEnv *, jclass, jlong jto_java_converter_handle, jlong jmessage_handle,
+  jobject jmessage)
+{
+  convert_to_java_signature convert_to_java =
+    reinterpret_cast<convert_to_java_signature>(jto_java_converter_handle);
+
+  return convert_to_java(reinterpret_cast<void *>(jmessage_handle), jmessage);
+}
+
+JNIEXPORT void JNICALL
+Java_org_ros2_generator_RoundTrip_nativeDestroy(
+  JNIEnv *, jclass, jlong jdestructor_handle, jlong jmessage_handle)
+{
+  destroy_ros_message_signature destroy_ros_message =
+    reinterpret_cast<destroy_ros_message_signature>(jdestructor_handle);
+
+  destroy_ros_message(reinterpret_cast<void *>(jmessage_handle));
+}
+
+#ifdef __cplusplus
+}
+#endif
@@ -0,0 +1,281 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ros2.generator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the messages generated with ROSIDL_GENERATOR_JAVA_PRIMITIVE_ARRAYS and
+ * ROSIDL_GENERATOR_JAVA_BYTE_BUFFERS enabled.
+ */
+public class ArraysInterfacesTest {
+  @BeforeClass
+  public static void setupOnce() {
+    try
+    {
+      // Configure log4j. Doing this dynamically so that Android does not complain about missing
+      // the log4j JARs, SLF4J uses Android's native logging mechanism instead.
+      Class c = Class.forName("org.apache.log4j.BasicConfigurator");
+      Method m = c.getDeclaredMethod("configure", (Class<?>[]) null);
+      Object o = m.invoke(null, (Object[]) null);
+    }
+    catch (Exception e)
+    {
+      e.printStackTrace();
+    }
+  }
+
+  private static byte[] getBytes(final ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+
+  private static byte[] createBytes(final int size) {
+    byte[] bytes = new byte[size];
+    for (int i = 0; i < size; i++) {
+      bytes[i] = (byte) (size * 16 + i);
+    }
+    return bytes;
+  }
+
+  @Test
+  public final void testPrimitiveArrays() {
+    rosidl_generator_java_arrays.msg.UnboundedSequences message =
+        new rosidl_generator_java_arrays.msg.UnboundedSequences();
+    assertEquals(0, message.getInt32Values().length);
+
+    int[] int32Values = new int[] {0, -2147483648, 2147483647};
+    message.setInt32Values(int32Values);
+    assertArrayEquals(int32Values, message.getInt32Values());
+  }
+
+  @Test
+  public final void testByteBuffers() {
+    rosidl_generator_java_arrays.msg.UnboundedSequences message =
+        new rosidl_generator_java_arrays.msg.UnboundedSequences();
+    assertEquals(0, message.getUint8Values().remaining());
+
+    byte[] uint8Values = new byte[] {0, 1, (byte) 255};
+    message.setUint8Values(uint8Values);
+    assertArrayEquals(uint8Values, getBytes(message.getUint8Values()));
+  }
+
+  @Test
+  public final void testRoundTripResizedPrimitiveArrays() {
+    rosidl_generator_java_arrays.msg.UnboundedSequences message =
+        new rosidl_generator_java_arrays.msg.UnboundedSequences();
+    RoundTrip<rosidl_generator_java_arrays.msg.UnboundedSequences> roundTrip =
+        new RoundTrip<rosidl_generator_java_arrays.msg.UnboundedSequences>(message);
+    rosidl_generator_java_arrays.msg.UnboundedSequences converted = null;
+    try {
+      // Grow and shrink the arrays, reusing both the native message and the converted one
+      for (int size : new int[] {3, 10, 1, 0, 5}) {
+        int[] int32Values = new int[size];
+        double[] float64Values = new double[size];
+        for (int i = 0; i < size; i++) {
+          int32Values[i] = size * 1000 + i;
+          float64Values[i] = size + i / 4.0;
+        }
+        message.setInt32Values(int32Values);
+        message.setFloat64Values(float64Values);
+
+        converted = roundTrip.convert(message, converted);
+
+        assertArrayEquals(int32Values, converted.getInt32Values());
+        assertArrayEquals(float64Values, converted.getFloat64Values(), 0.0);
+      }
+
+      message.setInt32Values((int[]) null);
+      converted = roundTrip.convert(message, converted);
+      assertEquals(0, converted.getInt32Values().length);
+    } finally {
+      roundTrip.dispose();
+    }
+  }
+
+  @Test
+  public final void testRoundTripResizedByteBuffers() {
+    rosidl_generator_java_arrays.msg.UnboundedSequences message =
+        new rosidl_generator_java_arrays.msg.UnboundedSequences();
+    RoundTrip<rosidl_generator_java_arrays.msg.UnboundedSequences> roundTrip =
+        new RoundTrip<rosidl_generator_java_arrays.msg.UnboundedSequences>(message);
+    rosidl_generator_java_arrays.msg.UnboundedSequences converted = null;
+    try {
+      // Grow and shrink the buffers, reusing both the native message and the converted one
+      for (int size : new int[] {3, 10, 1, 0, 5}) {
+        byte[] bytes = createBytes(size);
+
+        // A heap buffer that does not start at the beginning of its array
+        byte[] padded = new byte[size + 2];
+        System.arraycopy(bytes, 0, padded, 1, size);
+        ByteBuffer heapBuffer = ByteBuffer.wrap(padded, 1, size).slice();
+        message.setUint8Values(heapBuffer);
+
+        // A direct buffer whose position is not zero
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(size + 1);
+        directBuffer.put((byte) 0);
+        directBuffer.put(bytes);
+        directBuffer.flip();
+        directBuffer.position(1);
+        message.setByteValues(directBuffer);
+
+        converted = roundTrip.convert(message, converted);
+
+        assertArrayEquals(bytes, getBytes(converted.getUint8Values()));
+        assertArrayEquals(bytes, getBytes(converted.getByteValues()));
+        assertArrayEquals(new byte[0], getBytes(converted.getCharValues()));
+      }
+
+      message.setUint8Values((ByteBuffer) null);
+      converted = roundTrip.convert(message, converted);
+      assertEquals(0, converted.getUint8Values().remaining());
+    } finally {
+      roundTrip.dispose();
+    }
+  }
+
+  @Test
+  public final void testRoundTripReusesByteBuffer() {
+    rosidl_generator_java_arrays.msg.UnboundedSequences message =
+        new rosidl_generator_java_arrays.msg.UnboundedSequences();
+    RoundTrip<rosidl_generator_java_arrays.msg.UnboundedSequences> roundTrip =
+        new RoundTrip<rosidl_generator_java_arrays.msg.UnboundedSequences>(message);
+    try {
+      message.setUint8Values(createBytes(8));
+      rosidl_generator_java_arrays.msg.UnboundedSequences converted =
+          roundTrip.convert(message, null);
+      ByteBuffer buffer = converted.getUint8Values();
+      // Buffers that are too small are replaced with heap buffers, not direct ones
+      assertFalse(buffer.isDirect());
+
+      // A buffer that is large enough is refilled in place
+      byte[] bytes = createBytes(4);
+      message.setUint8Values(bytes);
+      converted = roundTrip.convert(message, converted);
+      assertSame(buffer, converted.getUint8Values());
+      assertArrayEquals(bytes, getBytes(converted.getUint8Values()));
+    } finally {
+      roundTrip.dispose();
+    }
+  }
+
+  @Test
+  public final void testRoundTripReadOnlyByteBuffer() {
+    rosidl_generator_java_arrays.msg.UnboundedSequences message =
+        new rosidl_generator_java_arrays.msg.UnboundedSequences();
+    RoundTrip<rosidl_generator_java_arrays.msg.UnboundedSequences> roundTrip =
+        new RoundTrip<rosidl_generator_java_arrays.msg.UnboundedSequences>(message);
+    try {
+      byte[] bytes = createBytes(4);
+      message.setUint8Values(bytes);
+
+      // The buffer of the message being converted into cannot be written, a new one is set
+      rosidl_generator_java_arrays.msg.UnboundedSequences converted =
+          new rosidl_generator_java_arrays.msg.UnboundedSequences();
+      ByteBuffer readOnly = ByteBuffer.wrap(new byte[8]).asReadOnlyBuffer();
+      converted.setUint8Values(readOnly);
+      converted = roundTrip.convert(message, converted);
+
+      assertArrayEquals(bytes, getBytes(converted.getUint8Values()));
+      assertArrayEquals(new byte[8], getBytes(readOnly));
+    } finally {
+      roundTrip.dispose();
+    }
+  }
+
+  @Test
+  public final void testRoundTripFixedArrays() {
+    rosidl_generator_java_arrays.msg.Arrays message =
+        new rosidl_generator_java_arrays.msg.Arrays();
+    RoundTrip<rosidl_generator_java_arrays.msg.Arrays> roundTrip =
+        new RoundTrip<rosidl_generator_java_arrays.msg.Arrays>(message);
+    try {
+      byte[] uint8Values = new byte[] {0, 1, (byte) 255};
+      message.setUint8Values(uint8Values);
+      int[] int32Values = new int[] {0, -2147483648, 2147483647};
+      message.setInt32Values(int32Values);
+
+      rosidl_generator_java_arrays.msg.Arrays converted = roundTrip.convert(message, null);
+
+      assertArrayEquals(uint8Values, getBytes(converted.getUint8Values()));
+      assertArrayEquals(int32Values, converted.getInt32Values());
+    } finally {
+      roundTrip.dispose();
+    }
+  }
+
+  @Test
+  public final void testRoundTripMovedFixedBuffer() {
+    rosidl_generator_java_arrays.msg.Arrays message =
+        new rosidl_generator_java_arrays.msg.Arrays();
+    RoundTrip<rosidl_generator_java_arrays.msg.Arrays> roundTrip =
+        new RoundTrip<rosidl_generator_java_arrays.msg.Arrays>(message);
+    try {
+      byte[] uint8Values = new byte[] {1, 2, 3};
+      message.setUint8Values(uint8Values);
+      roundTrip.convert(message, null);
+
+      // Filling the buffer moves its position, which leaves nothing to copy
+      message.getUint8Values().put(new byte[] {4, 5, 6});
+      try {
+        roundTrip.convert(message, null);
+        fail("A buffer with fewer remaining bytes than the fixed size must be rejected");
+      } catch (IllegalArgumentException iae) {
+        // Expected
+      }
+
+      message.getUint8Values().flip();
+      rosidl_generator_java_arrays.msg.Arrays converted = roundTrip.convert(message, null);
+      assertArrayEquals(new byte[] {4, 5, 6}, getBytes(converted.getUint8Values()));
+    } finally {
+      roundTrip.dispose();
+    }
+  }
+
+  @Test
+  public final void testRoundTripGrownBoundedBuffer() {
+    rosidl_generator_java_arrays.msg.BoundedSequences message =
+        new rosidl_generator_java_arrays.msg.BoundedSequences();
+    RoundTrip<rosidl_generator_java_arrays.msg.BoundedSequences> roundTrip =
+        new RoundTrip<rosidl_generator_java_arrays.msg.BoundedSequences>(message);
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(createBytes(8), 0, 3);
+      message.setUint8Values(buffer);
+      roundTrip.convert(message, null);
+
+      // Moving the limit of the buffer past the bound after setting it
+      buffer.limit(8);
+      try {
+        roundTrip.convert(message, null);
+        fail("A buffer larger than the bound must be rejected");
+      } catch (IllegalArgumentException iae) {
+        // Expected
+      }
+    } finally {
+      roundTrip.dispose();
+    }
+  }
+}
@@ -21,6 +21,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Method;
 import java.util.concurrent.Callable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import org.junit.BeforeClass;
@@ -613,4 +614,104 @@ public class InterfacesTest {
     assertEquals(expectedInt322, basicTypesResponse.getInt32Value());
     assertEquals(expectedInt642, basicTypesResponse.getInt64Value());
   }
+
+  @Test
+  public final void testRoundTripResizedSequences() {
+    rosidl_generator_java.msg.UnboundedSequences message =
+        new rosidl_generator_java.msg.UnboundedSequences();
+    RoundTrip<rosidl_generator_java.msg.UnboundedSequences> roundTrip =
+        new RoundTrip<rosidl_generator_java.msg.UnboundedSequences>(message);
+    rosidl_generator_java.msg.UnboundedSequences converted = null;
+    try {
+      // Grow and shrink the sequences, reusing both the native message and the converted one
+      for (int size : new int[] {3, 10, 1, 0, 5}) {
+        List<Integer> int32Values = new ArrayList<Integer>();
+        List<Double> float64Values = new ArrayList<Double>();
+        List<String> stringValues = new ArrayList<String>();
+        List<rosidl_generator_java.msg.BasicTypes> basicTypesValues =
+            new ArrayList<rosidl_generator_java.msg.BasicTypes>();
+        for (int i = 0; i < size; i++) {
+          int32Values.add(size * 1000 + i);
+          float64Values.add(size + i / 4.0);
+          stringValues.add(size % 2 == 0 ? "value " + i : "a longer value " + i);
+          rosidl_generator_java.msg.BasicTypes basicTypes =
+              new rosidl_generator_java.msg.BasicTypes();
+          basicTypes.setInt32Value(size * 1000 + i);
+          basicTypesValues.add(basicTypes);
+        }
+        message.setInt32Values(int32Values);
+        message.setFloat64Values(float64Values);
+        message.setStringValues(stringValues);
+        message.setBasicTypesValues(basicTypesValues);
+        message.setAlignmentCheck(size);
+
+        converted = roundTrip.convert(message, converted);
+
+        assertEquals(int32Values, converted.getInt32Values());
+        assertEquals(float64Values, converted.getFloat64Values());
+        assertEquals(stringValues, converted.getStringValues());
+        assertEquals(basicTypesValues, converted.getBasicTypesValues());
+        assertEquals(size, converted.getAlignmentCheck());
+      }
+    } finally {
+      roundTrip.dispose();
+    }
+  }
+
+  @Test
+  public final void testRoundTripNullString() {
+    rosidl_generator_java.msg.Strings message = new rosidl_generator_java.msg.Strings();
+    RoundTrip<rosidl_generator_java.msg.Strings> roundTrip =
+        new RoundTrip<rosidl_generator_java.msg.Strings>(message);
+    try {
+      message.setStringValue("not empty");
+      rosidl_generator_java.msg.Strings converted = roundTrip.convert(message, null);
+      assertEquals("not empty", converted.getStringValue());
+
+      message.setStringValue(null);
+      converted = roundTrip.convert(message, converted);
+      assertEquals("", converted.getStringValue());
+    } finally {
+      roundTrip.dispose();
+    }
+  }
+
+  @Test
+  public final void testRoundTripNullStringInSequence() {
+    rosidl_generator_java.msg.UnboundedSequences message =
+        new rosidl_generator_java.msg.UnboundedSequences();
+    RoundTrip<rosidl_generator_java.msg.UnboundedSequences> roundTrip =
+        new RoundTrip<rosidl_generator_java.msg.UnboundedSequences>(message);
+    try {
+      message.setStringValues(Arrays.asList("first", null, "third"));
+      rosidl_generator_java.msg.UnboundedSequences converted = roundTrip.convert(message, null);
+      assertEquals(Arrays.asList("first", "", "third"), converted.getStringValues());
+    } finally {
+      roundTrip.dispose();
+    }
+  }
+
+  @Test
+  public final void testRoundTripNullNested() {
+    rosidl_generator_java.msg.Nested message = new rosidl_generator_java.msg.Nested();
+    RoundTrip<rosidl_generator_java.msg.Nested> roundTrip =
+        new RoundTrip<rosidl_generator_java.msg.Nested>(message);
+    try {
+      rosidl_generator_java.msg.BasicTypes basicTypes = new rosidl_generator_java.msg.BasicTypes();
+      basicTypes.setBoolValue(true);
+      basicTypes.setInt32Value(42);
+      basicTypes.setFloat64Value(-3.5);
+      message.setBasicTypesValue(basicTypes);
+      rosidl_generator_java.msg.Nested converted = roundTrip.convert(message, null);
+      assertEquals(basicTypes, converted.getBasicTypesValue());
+
+      // A null nested message is sent with its default values, even if the native message
+      // being reused held other ones
+      message.setBasicTypesValue(null);
+      converted = roundTrip.convert(message, converted);
+      assertEquals(new rosidl_generator_java.msg.BasicTypes(), converted.getBasicTypesValue());
+    } finally {
+      roundTrip.dispose();
+    }
+  }
 }
@@ -0,0 +1,75 @@
+/* Copyright 2020 Open Source Robotics Foundation, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ros2.generator;
+
+import org.ros2.rcljava.common.JNIUtils;
+import org.ros2.rcljava.interfaces.MessageDefinition;
+
+/**
+ * Converts messages to their native representation and back, reusing the same native message
+ * and, optionally, the same Java instance between conversions, as publishers and subscriptions
+ * do.
+ */
+public final class RoundTrip<T extends MessageDefinition> {
+  static {
+    JNIUtils.loadImplementation(RoundTrip.class);
+  }
+
+  private final long fromJavaConverterHandle;
+
+  private final long toJavaConverterHandle;
+
+  private final long destructorHandle;
+
+  private long messageHandle;
+
+  public RoundTrip(final T message) {
+    this.fromJavaConverterHandle = message.getFromJavaConverterInstance();
+    this.toJavaConverterHandle = message.getToJavaConverterInstance();
+    this.destructorHandle = message.getDestructorInstance();
+  }
+
+  /**
+   * Convert a message to the native message and then back to Java.
+   *
+   * @param message The message to convert.
+   * @param reusedMessage The instance to convert the native message into, or null to create a
+   *     new one.
+   * @return The converted message.
+   */
+  @SuppressWarnings("unchecked")
+  public T convert(final T message, final T reusedMessage) {
+    this.messageHandle = nativeConvertFromJava(
+        this.fromJavaConverterHandle, message, this.messageHandle);
+    return (T) nativeConvertToJava(this.toJavaConverterHandle, this.messageHandle, reusedMessage);
+  }
+
+  public void dispose() {
+    if (this.messageHandle != 0) {
+      nativeDestroy(this.destructorHandle, this.messageHandle);
+      this.messageHandle = 0;
+    }
+  }
+
+  private static native long nativeConvertFromJava(
+      long fromJavaConverterHandle, MessageDefinition message, long messageHandle);
+
+  private static native MessageDefinition nativeConvertToJava(
+      long toJavaConverterHandle, long messageHandle, MessageDefinition message);
+
+  private static native void nativeDestroy(long destructorHandle, long messageHandle);
+}